@@ -12,6 +12,37 @@ export interface Product {
   updatedAt?: string;
 }
 
+export interface ProductSummary {
+  id: number;
+  productCode: string;
+  name: string;
+  category: ProductCategory;
+  unitPrice: number;
+  stockQuantity?: number;
+  status: ProductStatus;
+  unit?: string;
+  updatedAt?: string;
+}
+
+export interface Page<T> {
+  content: T[];
+  totalElements: number;
+  totalPages: number;
+  number: number;
+  size: number;
+}
+
+export interface ProductQuery {
+  page?: number;
+  size?: number;
+  sort?: string;
+  status?: ProductStatus;
+  category?: ProductCategory;
+  minPrice?: number;
+  maxPrice?: number;
+  name?: string;
+}
+
 export type ProductCategory = 'SOFTWARE' | 'HARDWARE' | 'SERVICE' | 'SUBSCRIPTION' | 'ACCESSORY';
 
 export type ProductStatus = 'ACTIVE' | 'INACTIVE' | 'DISCONTINUED';
@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Product, ProductCategory } from '../models/product.model';
+import { Page, Product, ProductCategory, ProductQuery, ProductSummary } from '../models/product.model';
 
 @Injectable({
   providedIn: 'root'
@@ -10,12 +10,14 @@ export class ProductService {
   private http = inject(HttpClient);
   private baseUrl = '/api/products';
 
-  getAll(): Observable<Product[]> {
-    return this.http.get<Product[]>(this.baseUrl);
+  // Les listes sont paginées et servies avec ETag : le navigateur revalide
+  // et reçoit un 304 tant que le catalogue n'a pas changé.
+  getAll(query: ProductQuery = {}): Observable<Page<ProductSummary>> {
+    return this.http.get<Page<ProductSummary>>(this.baseUrl, { params: this.toParams(query) });
   }
 
-  getActiveProducts(): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.baseUrl}/active`);
+  getActiveProducts(query: ProductQuery = {}): Observable<Page<ProductSummary>> {
+    return this.http.get<Page<ProductSummary>>(`${this.baseUrl}/active`, { params: this.toParams(query) });
   }
 
   getById(id: number): Observable<Product> {
@@ -26,12 +28,12 @@ export class ProductService {
     return this.http.get<Product>(`${this.baseUrl}/code/${productCode}`);
   }
 
-  getByCategory(category: ProductCategory): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.baseUrl}/category/${category}`);
+  getByCategory(category: ProductCategory, query: ProductQuery = {}): Observable<Page<ProductSummary>> {
+    return this.http.get<Page<ProductSummary>>(`${this.baseUrl}/category/${category}`, { params: this.toParams(query) });
   }
 
-  search(name: string): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.baseUrl}/search`, { params: { name } });
+  search(name: string, query: ProductQuery = {}): Observable<Page<ProductSummary>> {
+    return this.http.get<Page<ProductSummary>>(`${this.baseUrl}/search`, { params: this.toParams({ ...query, name }) });
   }
 
   create(product: Product): Observable<Product> {
@@ -45,4 +47,14 @@ export class ProductService {
   delete(id: number): Observable<void> {
     return this.http.delete<void>(`${this.baseUrl}/${id}`);
   }
+
+  private toParams(query: ProductQuery): HttpParams {
+    let params = new HttpParams();
+    Object.entries(query).forEach(([key, value]) => {
+      if (value !== undefined && value !== null && value !== '') {
+        params = params.set(key, String(value));
+      }
+    });
+    return params;
+  }
 }
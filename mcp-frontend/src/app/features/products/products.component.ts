@@ -13,8 +13,9 @@ import { MatDialogModule, MatDialog } from '@angular/material/dialog';
 import { MatSnackBar, MatSnackBarModule } from '@angular/material/snack-bar';
 import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
 import { MatTooltipModule } from '@angular/material/tooltip';
+import { MatPaginatorModule, PageEvent } from '@angular/material/paginator';
 import { ProductService } from '../../core/services/product.service';
-import { Product, ProductCategory, ProductStatus, PRODUCT_CATEGORIES, PRODUCT_STATUSES } from '../../core/models/product.model';
+import { Product, ProductCategory, ProductStatus, ProductSummary, PRODUCT_CATEGORIES, PRODUCT_STATUSES } from '../../core/models/product.model';
 
 @Component({
   selector: 'app-products',
@@ -33,7 +34,8 @@ import { Product, ProductCategory, ProductStatus, PRODUCT_CATEGORIES, PRODUCT_ST
     MatDialogModule,
     MatSnackBarModule,
     MatProgressSpinnerModule,
-    MatTooltipModule
+    MatTooltipModule,
+    MatPaginatorModule
   ],
   template: `
     <div class="products-page">
@@ -47,13 +49,13 @@ import { Product, ProductCategory, ProductStatus, PRODUCT_CATEGORIES, PRODUCT_ST
           <mat-card-header>
             <mat-icon mat-card-avatar>list</mat-icon>
             <mat-card-title>Liste des produits</mat-card-title>
-            <mat-card-subtitle>{{ products().length }} produit(s)</mat-card-subtitle>
+            <mat-card-subtitle>{{ totalElements() }} produit(s)</mat-card-subtitle>
           </mat-card-header>
           <mat-card-content>
             <div class="filters">
               <mat-form-field appearance="outline" class="search-field">
                 <mat-label>Rechercher</mat-label>
-                <input matInput [(ngModel)]="searchTerm" placeholder="Nom ou code produit">
+                <input matInput [(ngModel)]="searchTerm" (keyup.enter)="applyFilters()" placeholder="Nom ou code produit">
                 <mat-icon matSuffix>search</mat-icon>
               </mat-form-field>
               <mat-form-field appearance="outline">
@@ -77,7 +79,7 @@ import { Product, ProductCategory, ProductStatus, PRODUCT_CATEGORIES, PRODUCT_ST
               </div>
             } @else {
               <div class="products-table">
-                <table mat-table [dataSource]="filteredProducts()">
+                <table mat-table [dataSource]="products()">
                   <ng-container matColumnDef="productCode">
                     <th mat-header-cell *matHeaderCellDef>Code</th>
                     <td mat-cell *matCellDef="let product">
@@ -136,6 +138,12 @@ import { Product, ProductCategory, ProductStatus, PRODUCT_CATEGORIES, PRODUCT_ST
                   <tr mat-row *matRowDef="let row; columns: displayedColumns;"></tr>
                 </table>
               </div>
+              <mat-paginator [length]="totalElements()"
+                             [pageIndex]="pageIndex"
+                             [pageSize]="pageSize"
+                             [pageSizeOptions]="[10, 20, 50]"
+                             (page)="onPage($event)">
+              </mat-paginator>
             }
           </mat-card-content>
         </mat-card>
@@ -338,8 +346,8 @@ export class ProductsComponent implements OnInit {
   private productService = inject(ProductService);
   private snackBar = inject(MatSnackBar);
   
-  products = signal<Product[]>([]);
-  filteredProducts = signal<Product[]>([]);
+  products = signal<ProductSummary[]>([]);
+  totalElements = signal(0);
   loading = signal(false);
   saving = signal(false);
   showForm = signal(false);
@@ -347,6 +355,8 @@ export class ProductsComponent implements OnInit {
   
   searchTerm = '';
   filterCategory = '';
+  pageIndex = 0;
+  pageSize = 20;
   
   categories = PRODUCT_CATEGORIES;
   statuses = PRODUCT_STATUSES;
@@ -360,10 +370,16 @@ export class ProductsComponent implements OnInit {
   
   loadProducts(): void {
     this.loading.set(true);
-    this.productService.getAll().subscribe({
-      next: (products) => {
-        this.products.set(products);
-        this.applyFilters();
+    this.productService.getAll({
+      page: this.pageIndex,
+      size: this.pageSize,
+      sort: 'name',
+      name: this.searchTerm.trim() || undefined,
+      category: (this.filterCategory as ProductCategory) || undefined
+    }).subscribe({
+      next: (page) => {
+        this.products.set(page.content);
+        this.totalElements.set(page.totalElements);
         this.loading.set(false);
       },
       error: (err) => {
@@ -374,21 +390,15 @@ export class ProductsComponent implements OnInit {
   }
   
   applyFilters(): void {
-    let filtered = this.products();
-    
-    if (this.searchTerm) {
-      const term = this.searchTerm.toLowerCase();
-      filtered = filtered.filter(p => 
-        p.name.toLowerCase().includes(term) || 
-        p.productCode.toLowerCase().includes(term)
-      );
-    }
-    
-    if (this.filterCategory) {
-      filtered = filtered.filter(p => p.category === this.filterCategory);
-    }
-    
-    this.filteredProducts.set(filtered);
+    // Filtrage côté serveur : on repart de la première page
+    this.pageIndex = 0;
+    this.loadProducts();
+  }
+  
+  onPage(event: PageEvent): void {
+    this.pageIndex = event.pageIndex;
+    this.pageSize = event.pageSize;
+    this.loadProducts();
   }
   
   getCategoryLabel(category: ProductCategory): string {
@@ -405,10 +415,18 @@ export class ProductsComponent implements OnInit {
     this.showForm.set(true);
   }
   
-  editProduct(product: Product): void {
-    this.editingProduct.set(product);
-    this.formData = { ...product };
-    this.showForm.set(true);
+  editProduct(summary: ProductSummary): void {
+    // La liste ne contient qu'une projection : on charge le produit complet
+    this.productService.getById(summary.id).subscribe({
+      next: (product) => {
+        this.editingProduct.set(product);
+        this.formData = { ...product };
+        this.showForm.set(true);
+      },
+      error: () => {
+        this.snackBar.open('Erreur lors du chargement du produit', 'Fermer', { duration: 5000 });
+      }
+    });
   }
   
   cancelForm(): void {
@@ -448,7 +466,7 @@ export class ProductsComponent implements OnInit {
     });
   }
   
-  deleteProduct(product: Product): void {
+  deleteProduct(product: ProductSummary): void {
     if (confirm(`Voulez-vous vraiment désactiver le produit "${product.name}" ?`)) {
       this.productService.delete(product.id!).subscribe({
         next: () => {
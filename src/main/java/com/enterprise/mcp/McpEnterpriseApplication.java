@@ -2,6 +2,7 @@ package com.enterprise.mcp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 /**
  * Application principale MCP Enterprise Demo
@@ -18,7 +19,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class McpEnterpriseApplication {
     
+    /** Étapes de démarrage conservées pour /actuator/startup */
+    private static final int STARTUP_STEPS_CAPACITY = 4096;
+    
     public static void main(String[] args) {
-        SpringApplication.run(McpEnterpriseApplication.class, args);
+        SpringApplication application = new SpringApplication(McpEnterpriseApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 }
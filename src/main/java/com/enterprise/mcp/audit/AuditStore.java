@@ -0,0 +1,25 @@
+package com.enterprise.mcp.audit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage du journal d'audit MCP et des compteurs d'utilisation
+ *
+ * Deux implémentations, choisies par state.backend :
+ * - memory (défaut) : dans le tas de l'instance
+ * - hazelcast : journal et compteurs communs à toutes les instances
+ */
+public interface AuditStore {
+
+    void append(McpAuditService.AuditEntry entry);
+
+    /**
+     * Dernières entrées, de la plus récente à la plus ancienne
+     */
+    List<McpAuditService.AuditEntry> recent(int count);
+
+    void incrementUsage(String capability);
+
+    Map<String, Integer> usageStatistics();
+}
@@ -0,0 +1,84 @@
+package com.enterprise.mcp.audit;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.ringbuffer.OverflowPolicy;
+import com.hazelcast.ringbuffer.ReadResultSet;
+import com.hazelcast.ringbuffer.Ringbuffer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Journal d'audit partagé entre instances (Hazelcast)
+ * 
+ * Les entrées vont dans un ringbuffer borné (les plus anciennes sont écrasées
+ * une fois la capacité atteinte, voir HazelcastStateConfig) : l'ajout est en
+ * temps constant et les dernières entrées sont lues en un seul appel, sans
+ * parcourir tout le journal. Les compteurs sont incrémentés sur le membre propriétaire.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "hazelcast")
+public class HazelcastAuditStore implements AuditStore {
+    
+    public static final String RINGBUFFER_NAME = "mcp-audit-log";
+    public static final String USAGE_MAP_NAME = "mcp-capability-usage";
+    
+    private final Ringbuffer<McpAuditService.AuditEntry> auditLog;
+    private final IMap<String, Integer> capabilityUsageStats;
+    
+    public HazelcastAuditStore(HazelcastInstance hazelcast) {
+        this.auditLog = hazelcast.getRingbuffer(RINGBUFFER_NAME);
+        this.capabilityUsageStats = hazelcast.getMap(USAGE_MAP_NAME);
+    }
+    
+    @Override
+    public void append(McpAuditService.AuditEntry entry) {
+        auditLog.addAsync(entry, OverflowPolicy.OVERWRITE);
+    }
+    
+    @Override
+    public List<McpAuditService.AuditEntry> recent(int count) {
+        long tail = auditLog.tailSequence();
+        long from = Math.max(auditLog.headSequence(), tail - count + 1);
+        int available = (int) Math.max(0, tail - from + 1);
+        if (available == 0) {
+            return List.of();
+        }
+        
+        // Entrées écrasées entre-temps : la lecture commence à la nouvelle tête du ringbuffer
+        ReadResultSet<McpAuditService.AuditEntry> result;
+        try {
+            result = auditLog.readManyAsync(from, available, available, null).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Lecture du journal d'audit impossible", e.getCause());
+        }
+        
+        List<McpAuditService.AuditEntry> entries = new ArrayList<>(result.size());
+        result.forEach(entries::add);
+        Collections.reverse(entries);
+        return entries;
+    }
+    
+    @Override
+    public void incrementUsage(String capability) {
+        capabilityUsageStats.executeOnKey(capability, entry -> {
+            entry.setValue(entry.getValue() != null ? entry.getValue() + 1 : 1);
+            return null;
+        });
+    }
+    
+    @Override
+    public Map<String, Integer> usageStatistics() {
+        return Map.copyOf(new HashMap<>(capabilityUsageStats));
+    }
+}
@@ -0,0 +1,46 @@
+package com.enterprise.mcp.audit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Journal d'audit dans le tas de l'instance
+ * 
+ * En production : remplacer par une persistence réelle
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAuditStore implements AuditStore {
+    
+    private final ConcurrentLinkedQueue<McpAuditService.AuditEntry> auditLog = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> capabilityUsageStats = new ConcurrentHashMap<>();
+    
+    @Override
+    public void append(McpAuditService.AuditEntry entry) {
+        auditLog.add(entry);
+    }
+    
+    @Override
+    public List<McpAuditService.AuditEntry> recent(int count) {
+        return auditLog.stream()
+            .sorted(Comparator.comparing(McpAuditService.AuditEntry::getTimestamp).reversed())
+            .limit(count)
+            .toList();
+    }
+    
+    @Override
+    public void incrementUsage(String capability) {
+        capabilityUsageStats.merge(capability, 1, Integer::sum);
+    }
+    
+    @Override
+    public Map<String, Integer> usageStatistics() {
+        return Map.copyOf(capabilityUsageStats);
+    }
+}
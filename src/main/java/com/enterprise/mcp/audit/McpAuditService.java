@@ -1,16 +1,16 @@
 package com.enterprise.mcp.audit;
 
+import com.enterprise.mcp.id.IdGenerator;
 import com.enterprise.mcp.security.McpCapability;
 import com.enterprise.mcp.security.McpSecurityContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Service d'audit pour les appels MCP
@@ -29,16 +29,24 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 @Slf4j
 public class McpAuditService {
     
+    /** Corrélation des appels de préchauffage, qui ne sont pas journalisés */
+    private static final String WARM_UP_CORRELATION_ID = "MCP-WARMUP";
+    
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
     
-    // En production : remplacer par une persistence réelle
-    private final ConcurrentLinkedQueue<AuditEntry> auditLog = new ConcurrentLinkedQueue<>();
-    private final Map<String, Integer> capabilityUsageStats = new ConcurrentHashMap<>();
+    private final IdGenerator idGenerator;
+    
+    // Journal en mémoire ou partagé entre instances selon state.backend
+    private final AuditStore auditStore;
     
     /**
      * Enregistre le début d'un appel de capacité MCP
      */
     public String startCapabilityCall(McpSecurityContext context, McpCapability capability, Map<String, Object> parameters) {
+        if (context.isWarmUp()) {
+            return WARM_UP_CORRELATION_ID;
+        }
+        
         String correlationId = generateCorrelationId();
         
         AuditEntry entry = AuditEntry.builder()
@@ -54,14 +62,14 @@ public class McpAuditService {
             .status(AuditStatus.STARTED)
             .build();
         
-        auditLog.add(entry);
+        auditStore.append(entry);
         
         log.info("[AUDIT-START] {} | User: {} | Role: {} | Capability: {} | Params: {}",
             correlationId, context.getUsername(), context.getRole(), capability.getName(), 
             sanitizeParameters(parameters));
         
         // Mise à jour des statistiques
-        capabilityUsageStats.merge(capability.getName(), 1, Integer::sum);
+        auditStore.incrementUsage(capability.getName());
         
         return correlationId;
     }
@@ -70,6 +78,10 @@ public class McpAuditService {
      * Enregistre la fin réussie d'un appel de capacité MCP
      */
     public void completeCapabilityCall(String correlationId, McpCapability capability, String resultSummary) {
+        if (WARM_UP_CORRELATION_ID.equals(correlationId)) {
+            return;
+        }
+        
         AuditEntry entry = AuditEntry.builder()
             .correlationId(correlationId)
             .timestamp(LocalDateTime.now())
@@ -78,7 +90,7 @@ public class McpAuditService {
             .status(AuditStatus.COMPLETED)
             .build();
         
-        auditLog.add(entry);
+        auditStore.append(entry);
         
         log.info("[AUDIT-COMPLETE] {} | Capability: {} | Result: {}",
             correlationId, capability.getName(), truncate(resultSummary, 200));
@@ -88,6 +100,10 @@ public class McpAuditService {
      * Enregistre l'échec d'un appel de capacité MCP
      */
     public void failCapabilityCall(String correlationId, McpCapability capability, String error) {
+        if (WARM_UP_CORRELATION_ID.equals(correlationId)) {
+            return;
+        }
+        
         AuditEntry entry = AuditEntry.builder()
             .correlationId(correlationId)
             .timestamp(LocalDateTime.now())
@@ -96,7 +112,7 @@ public class McpAuditService {
             .status(AuditStatus.FAILED)
             .build();
         
-        auditLog.add(entry);
+        auditStore.append(entry);
         
         log.error("[AUDIT-FAILED] {} | Capability: {} | Error: {}",
             correlationId, capability.getName(), error);
@@ -118,12 +134,36 @@ public class McpAuditService {
             .status(AuditStatus.ACCESS_DENIED)
             .build();
         
-        auditLog.add(entry);
+        auditStore.append(entry);
         
         log.warn("[AUDIT-ACCESS-DENIED] {} | User: {} | Role: {} | Capability: {}",
             correlationId, context.getUsername(), context.getRole(), capability.getName());
     }
     
+    /**
+     * Enregistre un appel refusé pour dépassement de quota
+     */
+    public void logRateLimited(McpSecurityContext context, McpCapability capability, Duration retryAfter) {
+        String correlationId = generateCorrelationId();
+        
+        AuditEntry entry = AuditEntry.builder()
+            .correlationId(correlationId)
+            .timestamp(LocalDateTime.now())
+            .userId(context.getUserId())
+            .username(context.getUsername())
+            .role(context.getRole() != null ? context.getRole().name() : "NONE")
+            .sessionId(context.getSessionId())
+            .capability(capability.getName())
+            .resultSummary("Quota dépassé, nouvel essai dans " + retryAfter.toMillis() + " ms")
+            .status(AuditStatus.RATE_LIMITED)
+            .build();
+        
+        auditStore.append(entry);
+        
+        log.warn("[AUDIT-RATE-LIMITED] {} | User: {} | Role: {} | Capability: {} | Retry after: {} ms",
+            correlationId, context.getUsername(), context.getRole(), capability.getName(), retryAfter.toMillis());
+    }
+    
     /**
      * Enregistre une action nécessitant confirmation
      */
@@ -136,7 +176,7 @@ public class McpAuditService {
             .status(AuditStatus.PENDING_CONFIRMATION)
             .build();
         
-        auditLog.add(entry);
+        auditStore.append(entry);
         
         log.info("[AUDIT-CONFIRM-REQUIRED] {} | Capability: {} | Action: {}",
             correlationId, capability.getName(), actionSummary);
@@ -153,32 +193,76 @@ public class McpAuditService {
             .status(confirmed ? AuditStatus.CONFIRMED : AuditStatus.REJECTED)
             .build();
         
-        auditLog.add(entry);
+        auditStore.append(entry);
         
         log.info("[AUDIT-CONFIRMATION] {} | Confirmed: {} | By: {}",
             correlationId, confirmed, confirmedBy);
     }
     
+    /**
+     * Enregistre un appel rejoué : la réponse d'origine est renvoyée sans nouvelle exécution
+     */
+    public void logIdempotentReplay(McpSecurityContext context, McpCapability capability, String idempotencyKey) {
+        String correlationId = generateCorrelationId();
+        
+        AuditEntry entry = AuditEntry.builder()
+            .correlationId(correlationId)
+            .timestamp(LocalDateTime.now())
+            .userId(context.getUserId())
+            .username(context.getUsername())
+            .role(context.getRole() != null ? context.getRole().name() : "NONE")
+            .capability(capability.getName())
+            .resultSummary("REJOUÉ (clé d'idempotence " + idempotencyKey + ")")
+            .status(AuditStatus.REPLAYED)
+            .build();
+        
+        auditStore.append(entry);
+        
+        log.info("[AUDIT-REPLAY] {} | User: {} | Capability: {} | Key: {}",
+            correlationId, context.getUsername(), capability.getName(), idempotencyKey);
+    }
+    
+    /**
+     * Enregistre une capacité dont le résultat est servi par le cache des réponses du chat
+     */
+    public void logCachedChatResponse(McpSecurityContext context, McpCapability capability) {
+        String correlationId = generateCorrelationId();
+        
+        AuditEntry entry = AuditEntry.builder()
+            .correlationId(correlationId)
+            .timestamp(LocalDateTime.now())
+            .userId(context.getUserId())
+            .username(context.getUsername())
+            .role(context.getRole() != null ? context.getRole().name() : "NONE")
+            .sessionId(context.getSessionId())
+            .clientIp(context.getClientIp())
+            .capability(capability.getName())
+            .resultSummary("REJOUÉ (réponse du chat en cache)")
+            .status(AuditStatus.REPLAYED)
+            .build();
+        
+        auditStore.append(entry);
+        
+        log.info("[AUDIT-REPLAY] {} | User: {} | Capability: {} | Source: cache du chat",
+            correlationId, context.getUsername(), capability.getName());
+    }
+    
     /**
      * Retourne les statistiques d'utilisation des capacités
      */
     public Map<String, Integer> getUsageStatistics() {
-        return Map.copyOf(capabilityUsageStats);
+        return auditStore.usageStatistics();
     }
     
     /**
      * Retourne les N dernières entrées d'audit
      */
     public java.util.List<AuditEntry> getRecentAuditEntries(int count) {
-        return auditLog.stream()
-            .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-            .limit(count)
-            .toList();
+        return auditStore.recent(count);
     }
     
     private String generateCorrelationId() {
-        return "MCP-" + System.currentTimeMillis() + "-" + 
-            java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return "MCP-" + idGenerator.nextIdString();
     }
     
     private Map<String, Object> sanitizeParameters(Map<String, Object> parameters) {
@@ -213,12 +297,14 @@ public class McpAuditService {
         ACCESS_DENIED,
         PENDING_CONFIRMATION,
         CONFIRMED,
-        REJECTED
+        REJECTED,
+        REPLAYED,
+        RATE_LIMITED
     }
     
     @lombok.Data
     @lombok.Builder
-    public static class AuditEntry {
+    public static class AuditEntry implements java.io.Serializable {
         private String correlationId;
         private LocalDateTime timestamp;
         private String userId;
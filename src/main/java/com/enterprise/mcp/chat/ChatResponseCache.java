@@ -0,0 +1,280 @@
+package com.enterprise.mcp.chat;
+
+import com.enterprise.mcp.domain.event.CustomerChangedEvent;
+import com.enterprise.mcp.domain.event.InvoiceChangedEvent;
+import com.enterprise.mcp.domain.event.OrderChangedEvent;
+import com.enterprise.mcp.domain.event.ProductChangedEvent;
+import com.enterprise.mcp.search.TrigramIndex;
+import com.enterprise.mcp.security.McpCapability;
+import com.enterprise.mcp.security.McpRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache des réponses du LLM aux questions répétées
+ *
+ * Les mêmes questions reviennent sans cesse ("statut de la commande CMD-…",
+ * "factures impayées de CLI-002") et coûtent chacune un aller-retour complet
+ * avec le LLM. Une réponse est réutilisée si la question :
+ * - est posée avec le même rôle (les outils autorisés diffèrent),
+ * - cite les mêmes références (CMD-, FAC-, CLI-, codes produit PROD-001,
+ *   P-MOUSE-001...) et les mêmes nombres,
+ * - a un texte identique une fois normalisé (casse, accents, espaces).
+ *
+ * Pas de rapprochement approximatif : "factures payées" et "factures
+ * impayées", "livrées" et "non livrées" ne diffèrent que de quelques
+ * caractères mais appellent des réponses opposées.
+ *
+ * Une entrée retient les capacités sollicitées pour produire la réponse :
+ * l'appelant les rejoue pour les droits, le quota et l'audit.
+ * Invalidation : chaque référence a un numéro de version, relevé par les
+ * événements de modification (après commit). Une entrée mémorise les versions
+ * de ses références et n'est plus servie dès que l'une d'elles a changé.
+ * Une question sans référence (ex: "factures en retard"), ou citant un code
+ * d'un format inconnu dont aucun événement ne porte le nom, dépend de
+ * l'ensemble des données : toute modification l'invalide.
+ *
+ * Les versions sont bornées (chat.cache.max-versions) et conservées au moins
+ * deux TTL après leur dernière lecture : plus longtemps que toute entrée qui
+ * en dépend. Une version évincée faute de place compte comme modifiée : les
+ * références absentes prennent la plus haute version évincée.
+ *
+ * Avec plusieurs instances (state.backend=hazelcast), les références modifiées
+ * sont diffusées aux autres instances, voir HazelcastChatCacheInvalidation.
+ */
+@Component
+public class ChatResponseCache {
+
+    private static final Pattern REFERENCE = Pattern.compile(
+        "\\b(?:CMD|FAC|CLI|PROD|PRD|P)-[A-Z0-9]+(?:-[A-Z0-9]+)*\\b", Pattern.CASE_INSENSITIVE);
+    /** Autre identifiant (lettres puis segments séparés par des tirets, au moins un chiffre) */
+    private static final Pattern CODE = Pattern.compile(
+        "\\b(?=[A-Z0-9-]*\\d)[A-Z][A-Z0-9]*(?:-[A-Z0-9]+)+\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:[.,]\\d+)?");
+
+    /** Version de l'ensemble des données, pour les questions sans référence */
+    private static final String ALL_DATA = "*";
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<String, Entry> entries;
+    /** Dernière modification de chaque référence, en numéro de séquence */
+    private final Cache<String, Long> versions;
+    private final AtomicLong sequence = new AtomicLong();
+    /** Version des références absentes : la plus haute version évincée faute de place */
+    private final AtomicLong evictedVersion = new AtomicLong();
+    private volatile Consumer<List<String>> changePublisher = references -> {};
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ChatResponseCache(@Value("${chat.cache.enabled:true}") boolean enabled,
+                             @Value("${chat.cache.max-entries:1000}") long maxEntries,
+                             @Value("${chat.cache.ttl:PT10M}") Duration ttl,
+                             @Value("${chat.cache.max-versions:100000}") long maxVersions) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(maxVersions)
+            .expireAfterAccess(ttl.multipliedBy(2))
+            .<String, Long>evictionListener((reference, version, cause) -> {
+                if (cause == RemovalCause.SIZE && version != null) {
+                    evictedVersion.accumulateAndGet(version, Math::max);
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Empreinte d'une question : regroupement (rôle, références, nombres), texte normalisé
+     * et versions des données dont dépend la réponse, relevées avant l'appel au LLM
+     */
+    public record PromptKey(String bucket, String text, Map<String, Long> versions, long createdAt) {
+
+        String exactKey() {
+            return bucket + '|' + text;
+        }
+    }
+
+    /**
+     * Réponse en cache et capacités sollicitées pour la produire
+     */
+    public record CachedResponse(String response, Set<McpCapability> capabilities) {}
+
+    private record Entry(PromptKey key, CachedResponse cached) {}
+
+    public record Statistics(long size, long hits, long misses) {}
+
+    /**
+     * Calcule l'empreinte d'une question pour un rôle
+     */
+    public PromptKey keyOf(McpRole role, String prompt) {
+        Set<String> references = new TreeSet<>();
+        Matcher referenceMatcher = REFERENCE.matcher(prompt);
+        while (referenceMatcher.find()) {
+            references.add(referenceMatcher.group().toUpperCase(Locale.ROOT));
+        }
+        String withoutReferences = referenceMatcher.replaceAll(" ");
+
+        boolean unknownCodes = false;
+        Matcher codeMatcher = CODE.matcher(withoutReferences);
+        while (codeMatcher.find()) {
+            references.add(codeMatcher.group().toUpperCase(Locale.ROOT));
+            unknownCodes = true;
+        }
+        String withoutCodes = codeMatcher.replaceAll(" ");
+
+        List<String> numbers = new ArrayList<>();
+        Matcher numberMatcher = NUMBER.matcher(withoutCodes);
+        while (numberMatcher.find()) {
+            numbers.add(numberMatcher.group().replace(',', '.'));
+        }
+        String text = TrigramIndex.normalize(numberMatcher.replaceAll(" ")).replaceAll(" +", " ");
+
+        String bucket = role.name() + '|' + String.join(",", references) + '|' + String.join(",", numbers);
+        Set<String> dependencies = new TreeSet<>(references);
+        if (references.isEmpty() || unknownCodes) {
+            dependencies.add(ALL_DATA);
+        }
+        return new PromptKey(bucket, text, snapshot(dependencies), System.nanoTime());
+    }
+
+    /**
+     * Réponse en cache pour cette question, si ses références n'ont pas changé depuis
+     */
+    public Optional<CachedResponse> get(PromptKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Entry entry = entries.getIfPresent(key.exactKey());
+        if (entry != null && isCurrent(entry)) {
+            hits.incrementAndGet();
+            return Optional.of(entry.cached());
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Mémorise une réponse
+     *
+     * Les versions retenues sont celles relevées par keyOf() : une modification
+     * survenue pendant l'appel au LLM rend donc l'entrée aussitôt périmée.
+     * Une réponse obtenue plus d'un TTL après ce relevé n'est pas retenue :
+     * ses versions pourraient avoir expiré avant elle.
+     */
+    public void put(PromptKey key, String response, Set<McpCapability> capabilities) {
+        if (!enabled || response == null || response.isBlank()
+                || System.nanoTime() - key.createdAt() > ttl.toNanos()) {
+            return;
+        }
+        entries.put(key.exactKey(), new Entry(key, new CachedResponse(response, Set.copyOf(capabilities))));
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(entries.estimatedSize(), hits.get(), misses.get());
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Diffuse désormais les références modifiées sur cette instance aux autres instances
+     */
+    public void publishChangesWith(Consumer<List<String>> publisher) {
+        this.changePublisher = publisher;
+    }
+
+    /**
+     * Prend en compte des références modifiées sur une autre instance
+     */
+    public void applyRemoteChange(List<String> references) {
+        apply(references);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        changed(event.orderNumber(), event.customerCode());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceChanged(InvoiceChangedEvent event) {
+        changed(event.invoiceNumber(), event.customerCode(), event.orderNumber());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        changed(event.customer().getCustomerCode());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changed(event.product().getProductCode());
+    }
+
+    private void changed(String... references) {
+        List<String> changed = Arrays.stream(references)
+            .filter(Objects::nonNull)
+            .map(reference -> reference.toUpperCase(Locale.ROOT))
+            .toList();
+        apply(changed);
+        changePublisher.accept(changed);
+    }
+
+    private void apply(List<String> references) {
+        long version = sequence.incrementAndGet();
+        versions.asMap().merge(ALL_DATA, version, Math::max);
+        for (String reference : references) {
+            versions.asMap().merge(reference, version, Math::max);
+        }
+    }
+
+    private Map<String, Long> snapshot(Set<String> references) {
+        Map<String, Long> snapshot = new HashMap<>();
+        for (String reference : references) {
+            snapshot.put(reference, version(reference));
+        }
+        return snapshot;
+    }
+
+    private boolean isCurrent(Entry entry) {
+        for (Map.Entry<String, Long> dependency : entry.key().versions().entrySet()) {
+            if (version(dependency.getKey()) != dependency.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long version(String reference) {
+        Long version = versions.getIfPresent(reference);
+        return version != null ? version : evictedVersion.get();
+    }
+}
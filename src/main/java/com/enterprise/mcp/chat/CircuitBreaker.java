@@ -0,0 +1,136 @@
+package com.enterprise.mcp.chat;
+
+import java.time.Duration;
+
+/**
+ * Disjoncteur à fenêtre glissante sur les derniers appels
+ *
+ * - CLOSED : les appels passent ; le taux d'échec est mesuré sur les N derniers
+ * - OPEN : au-delà du seuil, les appels sont refusés immédiatement pendant
+ *   openDuration, sans solliciter le fournisseur défaillant
+ * - HALF_OPEN : passé ce délai, un unique appel d'essai est autorisé ; son
+ *   succès referme le disjoncteur, son échec le rouvre
+ *
+ * Les méthodes sont synchronisées : elles ne sont appelées qu'une fois avant
+ * et une fois après chaque appel au LLM, dont la durée est sans commune mesure.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+
+    /** Résultats des derniers appels (true = échec), en anneau */
+    private final boolean[] window;
+    private int windowCount;
+    private int windowNext;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(double failureRateThreshold, int minimumCalls, int windowSize, Duration openDuration) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * Indique si un appel peut être tenté ; en HALF_OPEN, seul le premier demandeur l'obtient
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Rend une autorisation obtenue mais non utilisée (appel refusé en amont)
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Délai restant avant qu'un appel d'essai soit autorisé (zéro si le disjoncteur n'est pas ouvert)
+     */
+    public synchronized Duration remainingOpenDuration() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openDurationNanos - (System.nanoTime() - openedAt)));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = System.nanoTime();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        probeInFlight = false;
+        windowCount = 0;
+        windowNext = 0;
+        windowFailures = 0;
+    }
+}
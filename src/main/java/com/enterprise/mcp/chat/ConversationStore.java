@@ -0,0 +1,24 @@
+package com.enterprise.mcp.chat;
+
+import java.util.List;
+
+/**
+ * Stockage de l'historique des conversations du chat
+ *
+ * Deux implémentations, choisies par state.backend :
+ * - memory (défaut) : dans le tas de l'instance, suffisant pour une instance unique
+ * - hazelcast : partagé entre les instances, pour répartir la charge sans
+ *   affinité de session
+ */
+public interface ConversationStore {
+
+    /**
+     * Historique d'une conversation, du plus ancien au plus récent (vide si inconnue)
+     */
+    List<ConversationTurn> history(String conversationKey);
+
+    /**
+     * Ajoute un échange ; seuls les derniers échanges sont conservés
+     */
+    void append(String conversationKey, ConversationTurn turn);
+}
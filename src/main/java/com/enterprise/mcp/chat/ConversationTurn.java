@@ -0,0 +1,8 @@
+package com.enterprise.mcp.chat;
+
+import java.io.Serializable;
+
+/**
+ * Un échange de conversation : message de l'utilisateur et réponse de l'assistant
+ */
+public record ConversationTurn(String userMessage, String assistantMessage) implements Serializable {}
@@ -0,0 +1,37 @@
+package com.enterprise.mcp.chat;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Invalidation du cache des réponses du chat sur toutes les instances (topic Hazelcast)
+ *
+ * Les événements de modification ne sont reçus que par l'instance qui a
+ * fait la modification : ses références modifiées sont publiées sur le
+ * topic, et chaque autre instance incrémente leurs versions dans son propre
+ * cache. Un message manqué (membre en cours de démarrage) peut laisser
+ * servir une réponse périmée au plus jusqu'à son expiration (chat.cache.ttl).
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "hazelcast")
+@Slf4j
+public class HazelcastChatCacheInvalidation {
+
+    public static final String TOPIC_NAME = "chat-cache-invalidations";
+
+    public HazelcastChatCacheInvalidation(HazelcastInstance hazelcast, ChatResponseCache cache) {
+        ITopic<List<String>> topic = hazelcast.getTopic(TOPIC_NAME);
+        topic.addMessageListener(message -> {
+            if (!message.getPublishingMember().localMember()) {
+                cache.applyRemoteChange(message.getMessageObject());
+            }
+        });
+        cache.publishChangesWith(topic::publish);
+        log.info("Invalidations du cache du chat diffusées sur le topic {}", TOPIC_NAME);
+    }
+}
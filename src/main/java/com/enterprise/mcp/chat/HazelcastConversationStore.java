@@ -0,0 +1,54 @@
+package com.enterprise.mcp.chat;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historique des conversations partagé entre instances (IMap Hazelcast)
+ *
+ * L'ajout d'un échange s'exécute sur le membre propriétaire de la
+ * conversation (entry processor) : pas d'aller-retour lecture/écriture ni
+ * de mise à jour perdue entre deux instances. Les lectures passent par le
+ * near-cache local, invalidé à chaque modification (voir HazelcastStateConfig).
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "hazelcast")
+public class HazelcastConversationStore implements ConversationStore {
+
+    public static final String MAP_NAME = "chat-conversations";
+
+    private final IMap<String, ArrayList<ConversationTurn>> conversations;
+    private final int maxTurns;
+
+    public HazelcastConversationStore(HazelcastInstance hazelcast,
+                                      @Value("${chat.conversation.max-turns:20}") int maxTurns) {
+        this.conversations = hazelcast.getMap(MAP_NAME);
+        this.maxTurns = maxTurns;
+    }
+
+    @Override
+    public List<ConversationTurn> history(String conversationKey) {
+        List<ConversationTurn> turns = conversations.get(conversationKey);
+        return turns != null ? List.copyOf(turns) : List.of();
+    }
+
+    @Override
+    public void append(String conversationKey, ConversationTurn turn) {
+        int limit = maxTurns;
+        conversations.executeOnKey(conversationKey, entry -> {
+            ArrayList<ConversationTurn> turns = entry.getValue() != null ? entry.getValue() : new ArrayList<>();
+            turns.add(turn);
+            while (turns.size() > limit) {
+                turns.remove(0);
+            }
+            entry.setValue(turns);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.enterprise.mcp.chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Historique des conversations dans le tas de l'instance
+ *
+ * Les conversations inactives sont libérées après chat.conversation.idle-timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryConversationStore implements ConversationStore {
+
+    private final int maxTurns;
+    private final Cache<String, Deque<ConversationTurn>> conversations;
+
+    public InMemoryConversationStore(@Value("${chat.conversation.max-turns:20}") int maxTurns,
+                                     @Value("${chat.conversation.idle-timeout:PT2H}") Duration idleTimeout) {
+        this.maxTurns = maxTurns;
+        this.conversations = Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .build();
+    }
+
+    @Override
+    public List<ConversationTurn> history(String conversationKey) {
+        Deque<ConversationTurn> turns = conversations.getIfPresent(conversationKey);
+        if (turns == null) {
+            return List.of();
+        }
+        synchronized (turns) {
+            return List.copyOf(turns);
+        }
+    }
+
+    @Override
+    public void append(String conversationKey, ConversationTurn turn) {
+        Deque<ConversationTurn> turns = conversations.get(conversationKey, k -> new ArrayDeque<>());
+        synchronized (turns) {
+            turns.addLast(turn);
+            while (turns.size() > maxTurns) {
+                turns.removeFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.enterprise.mcp.chat;
+
+import com.enterprise.mcp.security.McpAccessDeniedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Point de passage unique des appels au LLM : cloisonnement, délais, disjoncteur
+ *
+ * Quand le fournisseur ralentit, les threads HTTP restaient bloqués sur
+ * l'appel au LLM et finissaient par affamer l'API produits et les outils.
+ * Désormais :
+ * - au plus maxConcurrent appels sont en cours (sémaphore) ; un appel
+ *   abandonné garde son créneau jusqu'à ce qu'il se termine réellement,
+ * - au plus maxQueued requêtes attendent un créneau, pendant queueTimeout,
+ * - chaque appel (appels d'outils compris) est abandonné après callTimeout,
+ * - après trop d'échecs, le disjoncteur refuse les appels sans attendre.
+ * Tout refus lève LlmUnavailableException, que le contrôleur transforme en
+ * réponse immédiate.
+ *
+ * L'appel s'exécute sur un thread dédié auquel sont transmis le contexte de
+ * requête (contexte MCP de l'utilisateur) et le contexte Spring Security.
+ *
+ * Métriques : llm.bulkhead.active, llm.bulkhead.queued, llm.circuit.state,
+ * llm.calls{outcome} et llm.call.duration.
+ */
+@Component
+@Slf4j
+public class LlmGateway implements DisposableBean {
+
+    private final LlmGatewayProperties properties;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer callTimer;
+
+    public LlmGateway(LlmGatewayProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(properties.getMaxConcurrent(), true);
+
+        LlmGatewayProperties.CircuitBreakerSettings settings = properties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(settings.getFailureRateThreshold(), settings.getMinimumCalls(),
+            settings.getWindowSize(), settings.getOpenDuration());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getMaxConcurrent(), runnable -> {
+            Thread thread = new Thread(runnable, "llm-call-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("llm.bulkhead.active", permits, p -> properties.getMaxConcurrent() - p.availablePermits())
+            .description("Appels au LLM en cours")
+            .register(meterRegistry);
+        Gauge.builder("llm.bulkhead.queued", queued, AtomicInteger::get)
+            .description("Requêtes en attente d'un créneau d'appel au LLM")
+            .register(meterRegistry);
+        Gauge.builder("llm.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+            .description("État du disjoncteur (0 fermé, 1 ouvert, 2 semi-ouvert)")
+            .register(meterRegistry);
+        this.callTimer = Timer.builder("llm.call.duration")
+            .description("Durée des appels au LLM")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Exécute un appel au LLM dans les limites configurées
+     *
+     * @throws LlmUnavailableException si l'appel est refusé, attend trop ou dure trop
+     */
+    public <T> T execute(Callable<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw reject(LlmUnavailableException.Reason.CIRCUIT_OPEN,
+                "Le service d'IA est momentanément indisponible.", circuitBreaker.remainingOpenDuration());
+        }
+
+        try {
+            acquireSlot();
+        } catch (LlmUnavailableException e) {
+            circuitBreaker.releasePermission();
+            throw e;
+        }
+
+        return callWithTimeout(call);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void acquireSlot() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > properties.getMaxQueued()) {
+            queued.decrementAndGet();
+            throw reject(LlmUnavailableException.Reason.QUEUE_FULL,
+                "L'assistant est très sollicité, veuillez réessayer dans quelques instants.", properties.getQueueTimeout());
+        }
+        try {
+            if (!permits.tryAcquire(properties.getQueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw reject(LlmUnavailableException.Reason.QUEUE_TIMEOUT,
+                    "L'assistant est très sollicité, veuillez réessayer dans quelques instants.", properties.getQueueTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(LlmUnavailableException.Reason.QUEUE_TIMEOUT, "Attente interrompue.", properties.getQueueTimeout());
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Exécute l'appel sur un thread dédié ; le créneau est rendu à la fin réelle de l'appel
+     */
+    private <T> T callWithTimeout(Callable<T> call) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    return call.call();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    SecurityContextHolder.clearContext();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            circuitBreaker.releasePermission();
+            throw reject(LlmUnavailableException.Reason.QUEUE_FULL, "Service en cours d'arrêt.", Duration.ZERO);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = future.get(properties.getCallTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+            count("success");
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            throw reject(LlmUnavailableException.Reason.CALL_TIMEOUT,
+                "L'assistant met trop de temps à répondre, veuillez réessayer.", Duration.ZERO);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof McpAccessDeniedException denied) {
+                // Refus métier : le fournisseur a bien répondu
+                circuitBreaker.onSuccess();
+                count("success");
+                throw denied;
+            }
+            circuitBreaker.onFailure();
+            count("failure");
+            log.warn("Échec de l'appel au LLM: {}", cause.getMessage());
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.releasePermission();
+            Thread.currentThread().interrupt();
+            throw reject(LlmUnavailableException.Reason.CALL_TIMEOUT, "Appel interrompu.", Duration.ZERO);
+        } finally {
+            callTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private LlmUnavailableException reject(LlmUnavailableException.Reason reason, String message, Duration retryAfter) {
+        count(reason.name().toLowerCase());
+        log.warn("Appel au LLM refusé ({}) - en cours: {}, en attente: {}",
+            reason, properties.getMaxConcurrent() - permits.availablePermits(), queued.get());
+        return new LlmUnavailableException(reason, message, retryAfter);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("llm.calls", "outcome", outcome).increment();
+    }
+}
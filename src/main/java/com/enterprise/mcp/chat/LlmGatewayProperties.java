@@ -0,0 +1,44 @@
+package com.enterprise.mcp.chat;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limites des appels au LLM (chat.llm.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "chat.llm")
+public class LlmGatewayProperties {
+    
+    /** Appels au LLM simultanés au maximum */
+    private int maxConcurrent = 8;
+    
+    /** Requêtes en attente d'un créneau au maximum ; au-delà, refus immédiat */
+    private int maxQueued = 16;
+    
+    /** Attente maximale d'un créneau */
+    private Duration queueTimeout = Duration.ofSeconds(2);
+    
+    /** Durée maximale d'un appel, appels d'outils compris */
+    private Duration callTimeout = Duration.ofSeconds(30);
+    
+    private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+    
+    @Data
+    public static class CircuitBreakerSettings {
+        
+        /** Taux d'échec (0..1) qui ouvre le disjoncteur */
+        private double failureRateThreshold = 0.5;
+        
+        /** Nombre d'appels observés avant de pouvoir ouvrir */
+        private int minimumCalls = 10;
+        
+        /** Taille de la fenêtre glissante (nombre d'appels) */
+        private int windowSize = 20;
+        
+        /** Durée d'ouverture avant un appel d'essai */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
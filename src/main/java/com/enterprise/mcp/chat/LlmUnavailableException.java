@@ -0,0 +1,37 @@
+package com.enterprise.mcp.chat;
+
+import java.time.Duration;
+
+/**
+ * Exception levée lorsqu'un appel au LLM est refusé ou abandonné pour protéger le service
+ */
+public class LlmUnavailableException extends RuntimeException {
+    
+    public enum Reason {
+        /** File d'attente pleine */
+        QUEUE_FULL,
+        /** Aucun créneau libéré dans le délai d'attente */
+        QUEUE_TIMEOUT,
+        /** Appel trop long, abandonné */
+        CALL_TIMEOUT,
+        /** Disjoncteur ouvert après des échecs répétés du fournisseur */
+        CIRCUIT_OPEN
+    }
+    
+    private final Reason reason;
+    private final Duration retryAfter;
+    
+    public LlmUnavailableException(Reason reason, String message, Duration retryAfter) {
+        super(message);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -7,33 +7,94 @@ import com.enterprise.mcp.domain.repository.OrderRepository;
 import com.enterprise.mcp.domain.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Initialisation des données de démonstration
  * 
  * Ce composant crée des données réalistes pour tester les capacités MCP.
  * En production, ces données viendraient de la vraie base de données.
+ * 
+ * data.init.mode : SYNC (avant la fin du démarrage), ASYNC (en arrière-plan,
+ * hors du chemin critique du démarrage) ou OFF.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class DataInitializer implements CommandLineRunner {
+public class DataInitializer implements CommandLineRunner, Ordered {
     
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
     private final InvoiceRepository invoiceRepository;
     private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${data.init.mode:SYNC}")
+    private InitMode mode;
+    
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    
+    /**
+     * Avant tout autre chargement (jeu de données synthétique)
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
     
     @Override
-    @Transactional
     public void run(String... args) {
+        switch (mode) {
+            case OFF -> {
+                log.info("Initialisation des données désactivée");
+                completion.complete(null);
+            }
+            case SYNC -> seed();
+            case ASYNC -> new Thread(() -> {
+                try {
+                    seed();
+                } catch (RuntimeException e) {
+                    log.error("Échec de l'initialisation des données en arrière-plan", e);
+                }
+            }, "data-init").start();
+        }
+    }
+    
+    /**
+     * Terminée une fois les données en place (ou l'initialisation échouée), quel que soit le mode
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+    
+    private void seed() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> createDemoData());
+            completion.complete(null);
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private void createDemoData() {
+        // Base persistante (profil prod) : les données survivent au redémarrage
+        long existingCustomers = customerRepository.count();
+        if (existingCustomers > 0) {
+            log.info("Données déjà présentes ({} clients), initialisation ignorée", existingCustomers);
+            return;
+        }
+        
         log.info("Initialisation des données de démonstration...");
         
         // Création des produits
@@ -255,4 +316,10 @@ public class DataInitializer implements CommandLineRunner {
             .build();
         invoice.addLine(line);
     }
+    
+    public enum InitMode {
+        SYNC,
+        ASYNC,
+        OFF
+    }
 }
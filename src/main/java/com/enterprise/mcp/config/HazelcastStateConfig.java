@@ -0,0 +1,114 @@
+package com.enterprise.mcp.config;
+
+import com.enterprise.mcp.audit.HazelcastAuditStore;
+import com.enterprise.mcp.chat.HazelcastConversationStore;
+import com.enterprise.mcp.mcp.HazelcastIdempotencyStore;
+import com.enterprise.mcp.mcp.HazelcastPendingConfirmationStore;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.RingbufferConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * État partagé entre instances : membre Hazelcast embarqué (state.backend=hazelcast)
+ * 
+ * Chaque instance de l'application est un membre du cluster ; conversations,
+ * journal d'audit, compteurs d'utilisation, réponses rejouables (idempotence)
+ * et commandes en attente de confirmation y sont répartis avec une copie de
+ * sauvegarde, sans serveur externe. Les modifications qui invalident le cache
+ * des réponses du chat sont diffusées à toutes les instances par un topic. Spring Boot crée le HazelcastInstance
+ * à partir de la Config définie ici.
+ * 
+ * Découverte des membres : liste state.hazelcast.members (TCP/IP) si elle est
+ * renseignée, multicast sinon (plusieurs instances sur un même poste ou réseau local).
+ * 
+ * Near-cache : les conversations lues sont conservées localement et
+ * invalidées par le cluster dès qu'elles sont modifiées ailleurs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "state.backend", havingValue = "hazelcast")
+@Slf4j
+public class HazelcastStateConfig {
+    
+    @Bean
+    public Config hazelcastConfig(
+            @Value("${state.hazelcast.cluster-name:mcp-enterprise}") String clusterName,
+            @Value("${state.hazelcast.port:5701}") int port,
+            @Value("${state.hazelcast.members:}") List<String> members,
+            @Value("${state.hazelcast.near-cache.enabled:true}") boolean nearCacheEnabled,
+            @Value("${state.hazelcast.near-cache.max-entries:10000}") int nearCacheMaxEntries,
+            @Value("${state.hazelcast.audit-capacity:100000}") int auditCapacity,
+            @Value("${chat.conversation.idle-timeout:PT2H}") Duration conversationIdleTimeout,
+            @Value("${mcp.idempotency.ttl:PT24H}") Duration idempotencyTtl,
+            @Value("${mcp.idempotency.max-entries:10000}") int idempotencyMaxEntries,
+            @Value("${mcp.confirmation.ttl:PT15M}") Duration confirmationTtl,
+            @Value("${mcp.confirmation.max-pending:10000}") int confirmationMaxPending) {
+        
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        
+        config.getNetworkConfig().setPort(port).setPortAutoIncrement(true);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getAutoDetectionConfig().setEnabled(false);
+        List<String> tcpMembers = members.stream().filter(member -> !member.isBlank()).toList();
+        if (tcpMembers.isEmpty()) {
+            join.getMulticastConfig().setEnabled(true);
+        } else {
+            join.getMulticastConfig().setEnabled(false);
+            join.getTcpIpConfig().setEnabled(true).setMembers(tcpMembers);
+        }
+        
+        MapConfig conversations = new MapConfig(HazelcastConversationStore.MAP_NAME)
+            .setBackupCount(1)
+            .setMaxIdleSeconds((int) conversationIdleTimeout.toSeconds());
+        if (nearCacheEnabled) {
+            conversations.setNearCacheConfig(new NearCacheConfig()
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setInvalidateOnChange(true)
+                .setMaxIdleSeconds((int) conversationIdleTimeout.toSeconds())
+                .setEvictionConfig(new EvictionConfig()
+                    .setEvictionPolicy(EvictionPolicy.LRU)
+                    .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                    .setSize(nearCacheMaxEntries)));
+        }
+        config.addMapConfig(conversations);
+        
+        config.addMapConfig(new MapConfig(HazelcastAuditStore.USAGE_MAP_NAME).setBackupCount(1));
+        config.addRingBufferConfig(new RingbufferConfig(HazelcastAuditStore.RINGBUFFER_NAME)
+            .setCapacity(auditCapacity)
+            .setBackupCount(1));
+        
+        config.addMapConfig(boundedMap(HazelcastIdempotencyStore.MAP_NAME, idempotencyTtl, idempotencyMaxEntries));
+        config.addMapConfig(boundedMap(HazelcastPendingConfirmationStore.MAP_NAME, confirmationTtl, confirmationMaxPending));
+        
+        log.info("État partagé Hazelcast: cluster '{}', découverte {}", clusterName,
+            tcpMembers.isEmpty() ? "multicast" : "TCP/IP " + tcpMembers);
+        return config;
+    }
+    
+    /**
+     * Map à durée de vie (depuis la dernière écriture) et taille maximale par membre
+     */
+    private static MapConfig boundedMap(String name, Duration ttl, int maxEntries) {
+        return new MapConfig(name)
+            .setBackupCount(1)
+            .setTimeToLiveSeconds((int) ttl.toSeconds())
+            .setEvictionConfig(new EvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(maxEntries));
+    }
+}
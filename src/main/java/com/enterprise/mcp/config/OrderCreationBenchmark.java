@@ -0,0 +1,108 @@
+package com.enterprise.mcp.config;
+
+import com.enterprise.mcp.service.OrderService;
+import com.enterprise.mcp.service.dto.CreateOrderRequest;
+import com.enterprise.mcp.traffic.TrafficClass;
+import com.enterprise.mcp.traffic.TrafficContext;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Débit de création de commandes via OrderService.createOrder (profil benchmark)
+ * 
+ * Crée des commandes de N lignes et journalise le débit ainsi que le nombre
+ * d'instructions JDBC par commande : avec les séquences et le traitement par
+ * lots, une commande de 200 lignes ne coûte plus 201 insertions unitaires.
+ * 
+ * Les commandes créées (createdBy = "benchmark") restent en base.
+ */
+@Component
+@Profile("benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderCreationBenchmark {
+    
+    private static final String CREATED_BY = "benchmark";
+    
+    private final OrderService orderService;
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @Value("${benchmark.order-creation.orders:200}")
+    private int orders;
+    
+    @Value("${benchmark.order-creation.lines-per-order:200}")
+    private int linesPerOrder;
+    
+    @Value("${benchmark.order-creation.customer-code:CLI-004}")
+    private String customerCode;
+    
+    @Value("${benchmark.order-creation.product-code:P-MOUSE-001}")
+    private String productCode;
+    
+    /**
+     * Mesures sur la partition INTERACTIVE du pool de connexions, celle des appels d'outils
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        TrafficContext.runAs(TrafficClass.INTERACTIVE, this::measure);
+    }
+    
+    private void measure() {
+        if (orders <= 0) {
+            return;
+        }
+        CreateOrderRequest request = request();
+        
+        // Chauffe : chargement des classes, plans de requêtes, cache des produits
+        for (int i = 0; i < Math.min(10, orders); i++) {
+            orderService.createOrder(request, CREATED_BY);
+        }
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        long statementsBefore = statistics.getPrepareStatementCount();
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            orderService.createOrder(request, CREATED_BY);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        statistics.setStatisticsEnabled(statisticsEnabled);
+        
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        log.info("Création de {} commandes de {} lignes en {} ms : {} commandes/s, {} lignes/s, {} instructions JDBC par commande",
+            orders, linesPerOrder, elapsedNanos / 1_000_000,
+            String.format("%.1f", orders / seconds),
+            String.format("%.0f", (double) orders * linesPerOrder / seconds),
+            String.format("%.1f", (double) statements / orders));
+    }
+    
+    private CreateOrderRequest request() {
+        List<CreateOrderRequest.OrderLineRequest> lines = new ArrayList<>(linesPerOrder);
+        for (int i = 0; i < linesPerOrder; i++) {
+            lines.add(CreateOrderRequest.OrderLineRequest.builder()
+                .productCode(productCode)
+                .quantity(1)
+                .build());
+        }
+        return CreateOrderRequest.builder()
+            .customerCode(customerCode)
+            .lines(lines)
+            .notes("Commande de mesure de performance")
+            .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.enterprise.mcp.config;
+
+import com.enterprise.mcp.domain.entity.Invoice;
+import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.repository.InvoiceRepository;
+import com.enterprise.mcp.domain.repository.OrderRepository;
+import com.enterprise.mcp.traffic.TrafficClass;
+import com.enterprise.mcp.traffic.TrafficContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mesure de la latence des requêtes principales (profil benchmark)
+ * 
+ * Exécute au démarrage, une fois les données initialisées, les recherches
+ * utilisées par les capacités MCP (numéro de commande/facture, client,
+ * statut, échéance) et journalise p50/p95/p99 par requête.
+ * 
+ * Comparaison des configurations :
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=benchmark        # H2 mémoire, schéma Hibernate
+ * mvn spring-boot:run -Dspring-boot.run.profiles=prod,benchmark   # H2 fichier, Flyway, pool réglé
+ * </pre>
+ */
+@Component
+@Profile("benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryLatencyBenchmark {
+    
+    private final OrderRepository orderRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final DataSource dataSource;
+    
+    @Value("${benchmark.warmup-iterations:200}")
+    private int warmupIterations;
+    
+    @Value("${benchmark.iterations:2000}")
+    private int iterations;
+    
+    /**
+     * Mesures sur la partition INTERACTIVE du pool de connexions, celle des appels d'outils
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        TrafficContext.runAs(TrafficClass.INTERACTIVE, this::measure);
+    }
+    
+    private void measure() {
+        Order order = orderRepository.findAll(PageRequest.of(0, 1)).stream().findFirst().orElse(null);
+        Invoice invoice = invoiceRepository.findAll(PageRequest.of(0, 1)).stream().findFirst().orElse(null);
+        if (order == null || invoice == null) {
+            log.warn("Benchmark ignoré : aucune commande ou facture en base");
+            return;
+        }
+        
+        String orderNumber = order.getOrderNumber();
+        String invoiceNumber = invoice.getInvoiceNumber();
+        Long customerId = orderRepository.findByOrderNumber(orderNumber)
+            .map(found -> found.getCustomer().getId())
+            .orElseThrow();
+        LocalDate today = LocalDate.now();
+        
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("orders.findByOrderNumber", () -> orderRepository.findByOrderNumber(orderNumber));
+        queries.put("orders.findByCustomerId", () -> orderRepository.findByCustomerId(customerId));
+        queries.put("orders.findByStatus", () -> orderRepository.findByStatus(Order.OrderStatus.DELIVERED));
+        queries.put("invoices.findByInvoiceNumber", () -> invoiceRepository.findByInvoiceNumber(invoiceNumber));
+        queries.put("invoices.findUnpaidByCustomer", () -> invoiceRepository.findUnpaidInvoicesByCustomer(customerId));
+        queries.put("invoices.findOverdue", () -> invoiceRepository.findOverdueInvoices(today));
+        
+        log.info("Benchmark des requêtes sur {} ({} commandes, {} factures) : {} itérations après {} de chauffe",
+            databaseUrl(), orderRepository.count(), invoiceRepository.count(), iterations, warmupIterations);
+        log.info(String.format("%-32s %10s %10s %10s %10s", "requête", "moy. µs", "p50 µs", "p95 µs", "p99 µs"));
+        
+        queries.forEach((name, query) -> {
+            for (int i = 0; i < warmupIterations; i++) {
+                query.run();
+            }
+            long[] samples = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                query.run();
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+            log.info(String.format("%-32s %10.1f %10.1f %10.1f %10.1f", name,
+                Arrays.stream(samples).average().orElse(0) / 1000.0,
+                percentile(samples, 0.50), percentile(samples, 0.95), percentile(samples, 0.99)));
+        });
+    }
+    
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+    
+    private String databaseUrl() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        } catch (SQLException e) {
+            return "base inconnue";
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.enterprise.mcp.config;
+
+import com.enterprise.mcp.domain.entity.Customer;
+import com.enterprise.mcp.domain.entity.Invoice;
+import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.entity.Product;
+import com.enterprise.mcp.domain.repository.CustomerRepository;
+import com.enterprise.mcp.domain.repository.InvoiceRepository;
+import com.enterprise.mcp.domain.repository.OrderRepository;
+import com.enterprise.mcp.domain.repository.ProductRepository;
+import com.enterprise.mcp.mcp.McpCapabilityHandler;
+import com.enterprise.mcp.mcp.McpResponse;
+import com.enterprise.mcp.mcp.ToolOutputRenderer;
+import com.enterprise.mcp.search.CatalogSearchIndex;
+import com.enterprise.mcp.security.McpSecurityContext;
+import com.enterprise.mcp.service.OrderService;
+import com.enterprise.mcp.service.dto.CreateOrderRequest;
+import com.enterprise.mcp.traffic.TrafficClass;
+import com.enterprise.mcp.traffic.TrafficContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Préchauffage avant l'ouverture au trafic
+ *
+ * Les premiers appels d'outils après un déploiement trouvent un JIT froid,
+ * des caches Hibernate vides et des requêtes jamais préparées. Ce composant
+ * s'exécute sur ApplicationReadyEvent : Spring Boot ne publie l'état
+ * ACCEPTING_TRAFFIC (sonde /actuator/health/readiness) qu'une fois tous les
+ * écouteurs de cet événement terminés. L'instance rejoint donc le pool déjà chaude.
+ *
+ * Étapes, dans la limite de warmup.budget :
+ * 1. attente des données de démonstration (data.init.mode=ASYNC) et de l'index de recherche
+ * 2. chargement du catalogue produits et des clients actifs (caches de second niveau)
+ * 3. appels répétés des capacités MCP avec des arguments tirés de la base, rendus
+ *    comme pour le LLM, sur plusieurs threads (compilation JIT, plans de requêtes,
+ *    requêtes préparées de plusieurs connexions du pool)
+ *
+ * Les appels passent par un contexte de préchauffage : ni quota ni audit.
+ * Ils sont classés INTERACTIVE, comme les appels d'outils du chat : c'est
+ * cette partition du pool de connexions qu'ils préchauffent.
+ * Métriques : warmup.step (durée par étape), warmup.calls, warmup.completed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadinessWarmUp {
+
+    private static final String UNKNOWN_ORDER = "CMD-00000000-WARMUP";
+    private static final String UNKNOWN_INVOICE = "FAC-0000-WARMUP";
+
+    private final McpCapabilityHandler capabilityHandler;
+    private final ToolOutputRenderer outputRenderer;
+    private final McpSecurityContext securityContext;
+    private final OrderService orderService;
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final DataInitializer dataInitializer;
+    private final CatalogSearchIndex searchIndex;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.budget:PT60S}")
+    private Duration budget;
+
+    /** Appels de chaque capacité, répartis entre les threads */
+    @Value("${warmup.iterations:2000}")
+    private int iterations;
+
+    @Value("${warmup.threads:4}")
+    private int threads;
+
+    /** Commandes, factures et clients servant d'arguments */
+    @Value("${warmup.samples:50}")
+    private int samples;
+
+    /** Clients actifs dont l'identifiant naturel est résolu (cache natural-id) */
+    @Value("${warmup.max-customers:1000}")
+    private int maxCustomers;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        meterRegistry.gauge("warmup.completed", completed);
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        log.info("Préchauffage avant ouverture au trafic (budget {} s)", budget.toSeconds());
+
+        step("data", () -> awaitData(deadline));
+        WarmUpSamples arguments = stepValue("reference-data", this::preloadReferenceData);
+        step("capabilities", () -> exerciseCapabilities(arguments, deadline));
+        if (System.nanoTime() < deadline) {
+            step("portfolio-risk", () -> withWarmUpContext(() ->
+                call("scanPortfolioRisk", () -> capabilityHandler.scanPortfolioRisk(10))));
+        }
+
+        completed.set(1);
+        log.info("Préchauffage terminé en {} ms{}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            System.nanoTime() > deadline ? " (budget atteint)" : "");
+    }
+
+    private void awaitData(long deadline) {
+        try {
+            // Index de recherche compris : searchCustomers est appelé avec des noms réels
+            CompletableFuture.allOf(dataInitializer.completion(), searchIndex.ready())
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Préchauffage : données de démonstration toujours en cours de chargement");
+        } catch (ExecutionException e) {
+            log.warn("Préchauffage : échec de l'initialisation des données ({})", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Catalogue et clients actifs en cache ; renvoie les arguments des appels de capacités
+     */
+    private WarmUpSamples preloadReferenceData() {
+        List<Product> products = productRepository.findAll();
+        products.forEach(product -> productRepository.findByProductCode(product.getProductCode()));
+
+        // Au plus maxCustomers clients lus : le jeu de données volumineux en compte des dizaines de milliers
+        List<Customer> activeCustomers = customerRepository.findByStatus(Customer.CustomerStatus.ACTIVE,
+            PageRequest.of(0, Math.max(maxCustomers, samples), Sort.by("id")));
+        activeCustomers.stream()
+            .limit(maxCustomers)
+            .forEach(customer -> customerRepository.findByCustomerCode(customer.getCustomerCode()));
+
+        PageRequest page = PageRequest.of(0, samples);
+        return new WarmUpSamples(
+            orderRepository.findAll(page).map(Order::getOrderNumber).toList(),
+            invoiceRepository.findAll(page).map(Invoice::getInvoiceNumber).toList(),
+            activeCustomers.stream().limit(samples).map(Customer::getCustomerCode).toList(),
+            activeCustomers.stream().limit(samples).map(Customer::getCompanyName).toList(),
+            products.stream()
+                .filter(product -> product.getStatus() == Product.ProductStatus.ACTIVE)
+                .map(Product::getProductCode)
+                .limit(samples)
+                .toList());
+    }
+
+    private void exerciseCapabilities(WarmUpSamples arguments, long deadline) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable ->
+            new Thread(runnable, "warmup-" + threadCount.incrementAndGet()));
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int worker = 0; worker < threads; worker++) {
+                int first = worker;
+                workers.add(executor.submit(() -> runWorker(arguments, first, deadline)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            log.warn("Préchauffage des capacités interrompu: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runWorker(WarmUpSamples arguments, int first, long deadline) {
+        withWarmUpContext(() -> {
+            for (int i = first; i < iterations && System.nanoTime() < deadline; i += threads) {
+                // Un appel sur dix porte sur une référence inconnue (chemin « non trouvé »)
+                boolean unknown = i % 10 == 0;
+                String orderNumber = unknown ? UNKNOWN_ORDER : pick(arguments.orderNumbers(), i);
+                String invoiceNumber = unknown ? UNKNOWN_INVOICE : pick(arguments.invoiceNumbers(), i);
+                String customerCode = pick(arguments.customerCodes(), i);
+                String customerName = pick(arguments.customerNames(), i);
+
+                if (orderNumber != null) {
+                    call("findOrder", () -> capabilityHandler.findOrder(orderNumber));
+                }
+                if (invoiceNumber != null) {
+                    call("analyzeInvoice", () -> capabilityHandler.analyzeInvoice(invoiceNumber));
+                }
+                if (customerCode != null) {
+                    call("summarizeCustomerActivity", () -> capabilityHandler.summarizeCustomerActivity(customerCode));
+                    validateOrder(customerCode, arguments.productCodes(), i);
+                }
+                if (customerName != null) {
+                    // Nom tronqué une fois sur deux : recherche approximative
+                    String query = i % 2 == 0 ? customerName : customerName.substring(0, customerName.length() / 2 + 1);
+                    call("searchCustomers", () -> capabilityHandler.searchCustomers(query));
+                }
+            }
+        });
+    }
+
+    /**
+     * Exécute les appels dans une « requête » propre au thread, donc avec son propre contexte de sécurité
+     */
+    private void withWarmUpContext(Runnable calls) {
+        WarmUpRequestAttributes attributes = new WarmUpRequestAttributes();
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            securityContext.initializeWarmUp();
+            TrafficContext.runAs(TrafficClass.INTERACTIVE, calls);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            attributes.requestCompleted();
+        }
+    }
+
+    /**
+     * Chemin de validation et de chiffrage de createOrder, sans création ni confirmation en attente
+     */
+    private void validateOrder(String customerCode, List<String> productCodes, int iteration) {
+        if (productCodes.isEmpty()) {
+            return;
+        }
+        List<CreateOrderRequest.OrderLineRequest> lines = new ArrayList<>();
+        for (int line = 0; line <= iteration % 3; line++) {
+            lines.add(CreateOrderRequest.OrderLineRequest.builder()
+                .productCode(pick(productCodes, iteration + line))
+                .quantity(1 + line)
+                .build());
+        }
+        CreateOrderRequest request = CreateOrderRequest.builder()
+            .customerCode(customerCode)
+            .lines(lines)
+            .build();
+        try {
+            if (orderService.validateOrderRequest(request).isValid()) {
+                orderService.priceOrder(request);
+            }
+            counter("createOrder.validate").increment();
+        } catch (RuntimeException e) {
+            log.debug("Préchauffage de la validation de commande: {}", e.getMessage());
+        }
+    }
+
+    private void call(String toolName, Supplier<McpResponse> capability) {
+        try {
+            outputRenderer.renderOutput(toolName, capability.get());
+            counter(toolName).increment();
+        } catch (RuntimeException e) {
+            log.debug("Préchauffage de {}: {}", toolName, e.getMessage());
+        }
+    }
+
+    private Counter counter(String tool) {
+        return Counter.builder("warmup.calls").tag("tool", tool).register(meterRegistry);
+    }
+
+    private void step(String name, Runnable action) {
+        Timer.builder("warmup.step").tag("step", name).register(meterRegistry).record(action);
+    }
+
+    private <T> T stepValue(String name, Supplier<T> action) {
+        return Timer.builder("warmup.step").tag("step", name).register(meterRegistry).record(action);
+    }
+
+    private static String pick(List<String> values, int index) {
+        return values.isEmpty() ? null : values.get(index % values.size());
+    }
+
+    private record WarmUpSamples(
+        List<String> orderNumbers,
+        List<String> invoiceNumbers,
+        List<String> customerCodes,
+        List<String> customerNames,
+        List<String> productCodes
+    ) {}
+
+    /**
+     * Portée « requête » hors servlet, pour les beans @RequestScope (contexte de sécurité MCP)
+     */
+    private static final class WarmUpRequestAttributes implements RequestAttributes {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final List<Runnable> destructionCallbacks = new ArrayList<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            return attributes.keySet().toArray(String[]::new);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+            destructionCallbacks.add(callback);
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return null;
+        }
+
+        @Override
+        public String getSessionId() {
+            return "warmup";
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            return this;
+        }
+
+        void requestCompleted() {
+            destructionCallbacks.forEach(Runnable::run);
+        }
+    }
+}
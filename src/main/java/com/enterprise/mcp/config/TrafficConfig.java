@@ -0,0 +1,112 @@
+package com.enterprise.mcp.config;
+
+import com.enterprise.mcp.traffic.TrafficClass;
+import com.enterprise.mcp.traffic.TrafficContext;
+import com.enterprise.mcp.traffic.TrafficProperties;
+import com.enterprise.mcp.traffic.TrafficRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Cloisonnement du trafic : exécuteur des traitements de masse et pool de connexions partitionné
+ *
+ * - Les réponses asynchrones de Spring MVC (exports en flux) sont écrites
+ *   par un exécuteur dédié, borné par traffic.bulk.max-concurrent, dont les
+ *   threads ont la priorité minimale et puisent dans la partition BULK.
+ *   Aucun autre endpoint ne produit de réponse asynchrone par exécuteur :
+ *   les flux SSE n'en utilisent pas.
+ * - Avec traffic.partition-pools, chaque classe de trafic dispose de son
+ *   pool Hikari (traffic.<classe>.pool-size), configuré comme
+ *   spring.datasource.hikari pour le reste.
+ *
+ * L'admission des requêtes elles-mêmes est faite par TrafficAdmissionFilter.
+ */
+@Configuration
+@EnableConfigurationProperties(TrafficProperties.class)
+@Slf4j
+public class TrafficConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor bulkExecutor;
+
+    public TrafficConfig(TrafficProperties properties) {
+        TrafficProperties.ClassSettings bulk = properties.getBulk();
+
+        // Exécuteur hors contexte Spring : déclaré en bean, il remplacerait l'exécuteur applicatif par défaut
+        this.bulkExecutor = new ThreadPoolTaskExecutor();
+        bulkExecutor.setCorePoolSize(bulk.getMaxConcurrent());
+        bulkExecutor.setMaxPoolSize(bulk.getMaxConcurrent());
+        bulkExecutor.setQueueCapacity(Math.max(bulk.getMaxConcurrent(), bulk.getMaxQueued()));
+        bulkExecutor.setThreadNamePrefix("bulk-");
+        bulkExecutor.setThreadPriority(Thread.MIN_PRIORITY);
+        bulkExecutor.setDaemon(true);
+        bulkExecutor.setTaskDecorator(task -> () -> TrafficContext.runAs(TrafficClass.BULK, task));
+        bulkExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(bulkExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        bulkExecutor.shutdown();
+    }
+
+    /**
+     * Réglages Hikari communs aux partitions (spring.datasource.hikari.*)
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "traffic", name = "partition-pools", havingValue = "true", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig trafficHikariConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "traffic", name = "partition-pools", havingValue = "true", matchIfMissing = true)
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, HikariConfig trafficHikariConfig,
+                                 TrafficProperties properties, MeterRegistry meterRegistry) {
+        String poolName = trafficHikariConfig.getPoolName() != null ? trafficHikariConfig.getPoolName() : "enterprise-db";
+
+        Map<TrafficClass, HikariDataSource> partitions = new EnumMap<>(TrafficClass.class);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            TrafficProperties.ClassSettings settings = properties.settingsFor(trafficClass);
+
+            HikariConfig config = new HikariConfig();
+            trafficHikariConfig.copyStateTo(config);
+            config.setJdbcUrl(dataSourceProperties.determineUrl());
+            config.setUsername(dataSourceProperties.determineUsername());
+            config.setPassword(dataSourceProperties.determinePassword());
+            config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            config.setPoolName(poolName + "-" + trafficClass.name().toLowerCase());
+            // Partitions fixes : pas de création de connexion sous charge
+            config.setMaximumPoolSize(settings.getPoolSize());
+            config.setMinimumIdle(settings.getPoolSize());
+            config.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+            config.setMetricRegistry(meterRegistry);
+
+            partitions.put(trafficClass, new HikariDataSource(config));
+            log.info("Partition {} du pool de connexions: {} connexion(s)", trafficClass, settings.getPoolSize());
+        }
+        return new TrafficRoutingDataSource(partitions);
+    }
+}
@@ -0,0 +1,134 @@
+package com.enterprise.mcp.controller;
+
+import com.enterprise.mcp.chat.ChatResponseCache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Administration des caches : second niveau Hibernate et réponses du chat
+ *
+ * Expose les statistiques par région (hits, misses, taille) pour vérifier
+ * que les lectures de clients et produits ne sollicitent plus la base,
+ * et permet de vider les caches après une modification hors application.
+ *
+ * La collecte des statistiques Hibernate a un coût sur chaque session et
+ * requête : désactivée par défaut (generate_statistics), elle s'active à
+ * chaud le temps d'une vérification.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheAdminController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChatResponseCache chatResponseCache;
+
+    /**
+     * Statistiques globales et par région du cache de second niveau
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<CacheStatistics> getStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+
+        List<RegionStatistics> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+            .sorted()
+            .map(name -> RegionStatistics.of(name, statistics.getCacheRegionStatistics(name)))
+            .toList();
+
+        return ResponseEntity.ok(new CacheStatistics(
+            statistics.isStatisticsEnabled(),
+            statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(),
+            statistics.getSecondLevelCachePutCount(),
+            statistics.getNaturalIdCacheHitCount(),
+            statistics.getNaturalIdCacheMissCount(),
+            statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(),
+            statistics.getPrepareStatementCount(),
+            regions
+        ));
+    }
+
+    /**
+     * Active ou désactive la collecte des statistiques Hibernate
+     */
+    @PutMapping("/stats")
+    public ResponseEntity<Void> setStatisticsEnabled(@RequestParam boolean enabled) {
+        sessionFactory().getStatistics().setStatisticsEnabled(enabled);
+        log.info("Statistiques Hibernate {}", enabled ? "activées" : "désactivées");
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Vide toutes les régions du cache et remet les statistiques à zéro
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        SessionFactory sessionFactory = sessionFactory();
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        log.info("Cache de second niveau vidé");
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Statistiques du cache des réponses du chat
+     */
+    @GetMapping("/chat")
+    public ResponseEntity<ChatResponseCache.Statistics> getChatStatistics() {
+        return ResponseEntity.ok(chatResponseCache.getStatistics());
+    }
+
+    /**
+     * Vide le cache des réponses du chat
+     */
+    @DeleteMapping("/chat")
+    public ResponseEntity<Void> evictChatResponses() {
+        chatResponseCache.clear();
+        log.info("Cache des réponses du chat vidé");
+        return ResponseEntity.noContent().build();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public record CacheStatistics(
+        boolean statisticsEnabled,
+        long hitCount,
+        long missCount,
+        long putCount,
+        long naturalIdHitCount,
+        long naturalIdMissCount,
+        long queryHitCount,
+        long queryMissCount,
+        long jdbcStatementCount,
+        List<RegionStatistics> regions
+    ) {}
+
+    public record RegionStatistics(
+        String region,
+        long hitCount,
+        long missCount,
+        long putCount,
+        long elementCountInMemory
+    ) {
+        static RegionStatistics of(String region, CacheRegionStatistics statistics) {
+            if (statistics == null) {
+                return new RegionStatistics(region, 0, 0, 0, 0);
+            }
+            return new RegionStatistics(region, statistics.getHitCount(), statistics.getMissCount(),
+                statistics.getPutCount(), statistics.getElementCountInMemory());
+        }
+    }
+}
@@ -1,24 +1,36 @@
 package com.enterprise.mcp.controller;
 
+import com.enterprise.mcp.audit.McpAuditService;
+import com.enterprise.mcp.chat.ChatResponseCache;
+import com.enterprise.mcp.chat.ConversationStore;
+import com.enterprise.mcp.chat.ConversationTurn;
+import com.enterprise.mcp.chat.LlmGateway;
+import com.enterprise.mcp.chat.LlmUnavailableException;
+import com.enterprise.mcp.id.IdGenerator;
+import com.enterprise.mcp.mcp.AsyncJobManager;
 import com.enterprise.mcp.mcp.McpCapabilityHandler;
 import com.enterprise.mcp.mcp.McpResponse;
+import com.enterprise.mcp.mcp.RoleChatClients;
+import com.enterprise.mcp.mcp.ToolOutputRenderer;
 import com.enterprise.mcp.security.McpAccessDeniedException;
 import com.enterprise.mcp.security.McpCapability;
+import com.enterprise.mcp.security.McpRateLimitedException;
 import com.enterprise.mcp.security.McpRole;
 import com.enterprise.mcp.security.McpSecurityContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 /**
  * Contrôleur pour l'interface de chat avec l'IA
@@ -35,10 +47,16 @@ public class ChatController {
     
     private final McpCapabilityHandler capabilityHandler;
     private final McpSecurityContext securityContext;
-    private final ChatClient chatClient;
+    /** Clients LLM par rôle, créés au premier appel (@Lazy) : hors du chemin critique du démarrage */
+    private final ObjectProvider<RoleChatClients> roleChatClients;
+    private final ChatResponseCache responseCache;
+    private final ConversationStore conversationStore;
+    private final LlmGateway llmGateway;
+    private final IdGenerator idGenerator;
+    private final AsyncJobManager jobManager;
+    private final McpAuditService auditService;
+    private final ToolOutputRenderer outputRenderer;
 
-    private static final int MAX_TURNS_PER_CONVERSATION = 20;
-    private static final Map<String, Deque<ConversationTurn>> CONVERSATIONS = new ConcurrentHashMap<>();
     
     /**
      * Endpoint principal de chat
@@ -78,18 +96,32 @@ public class ChatController {
         log.info("LLM message reçu de {}: {}", authentication.getName(), request.message());
 
         String conversationId = (request.conversationId() == null || request.conversationId().isBlank())
-            ? UUID.randomUUID().toString()
+            ? idGenerator.nextIdString()
             : request.conversationId();
 
         String conversationKey = authentication.getName() + ":" + conversationId;
-        Deque<ConversationTurn> history = CONVERSATIONS.computeIfAbsent(conversationKey, k -> new ArrayDeque<>());
+        List<ConversationTurn> history = conversationStore.history(conversationKey);
 
         McpRole role = securityContext.getRole();
-        String allowedTools = role.getAllowedCapabilities().stream()
-            .map(McpCapability::getName)
-            .sorted()
-            .reduce((a, b) -> a + ", " + b)
-            .orElse("(aucun)");
+
+        // Seules les questions d'ouverture sont mises en cache : ensuite, la réponse dépend de l'historique
+        ChatResponseCache.PromptKey cacheKey = history.isEmpty()
+            ? responseCache.keyOf(role, request.message())
+            : null;
+        if (cacheKey != null) {
+            Optional<ChatResponseCache.CachedResponse> cached = responseCache.get(cacheKey);
+            if (cached.isPresent()) {
+                // Les données servies comptent comme les appels qui les ont produites : droits, quota et audit
+                for (McpCapability capability : cached.get().capabilities()) {
+                    securityContext.requireCapability(capability);
+                    auditService.logCachedChatResponse(securityContext, capability);
+                }
+                log.info("Réponse servie depuis le cache pour {}", authentication.getName());
+                String response = cached.get().response();
+                conversationStore.append(conversationKey, new ConversationTurn(request.message(), response));
+                return ResponseEntity.ok(new ChatResponse(response, null, conversationId));
+            }
+        }
 
         StringBuilder historyText = new StringBuilder();
         if (!history.isEmpty()) {
@@ -101,42 +133,46 @@ public class ChatController {
         }
 
         try {
-            String response = chatClient
+            // Préfixe précalculé pour le rôle, puis l'historique propre à la conversation
+            RoleChatClients.RoleChat roleChat = roleChatClients.getObject().forRole(role);
+            String response = llmGateway.execute(() -> roleChat.client()
                 .prompt()
-                .system(s -> s.text(
-                    "Tu es un assistant interne de gestion commerciale. " +
-                    "Contexte de sécurité: l'utilisateur courant a le rôle '" + role.name() + "'. " +
-                    "Outils AUTORISÉS pour ce rôle: " + allowedTools + ". " +
-                    "Règle impérative: n'appelle JAMAIS un outil en dehors de la liste AUTORISÉE, même si l'utilisateur le demande. " +
-                    "Si une action requiert un outil non autorisé, explique que l'utilisateur n'a pas les droits et propose une alternative (ex: consulter commandes/factures, ou demander un rôle MANAGER/ADMIN). " +
-                    "Pour les outils qui nécessitent confirmation (ex: createOrder), si tu es autorisé à l'appeler, appelle d'abord l'outil avec confirmed=false et demande confirmation avant de poursuivre.\n\n" +
-                    historyText))
+                .system(roleChat.systemPrompt() + historyText)
                 .user(request.message())
                 .call()
-                .content();
+                .content());
 
-            history.addLast(new ConversationTurn(request.message(), response));
-            while (history.size() > MAX_TURNS_PER_CONVERSATION) {
-                history.removeFirst();
+            conversationStore.append(conversationKey, new ConversationTurn(request.message(), response));
+
+            // Une réponse ayant sollicité une action (création, paiement...) n'est jamais rejouée
+            if (cacheKey != null && !securityContext.hasInvokedWriteCapability()) {
+                responseCache.put(cacheKey, response, securityContext.getInvokedCapabilities());
             }
 
             return ResponseEntity.ok(new ChatResponse(response, null, conversationId));
         } catch (McpAccessDeniedException e) {
             log.warn("Accès refusé pendant l'exécution LLM pour {}: {}", authentication.getName(), e.getMessage());
             return ResponseEntity.status(403).body(new ChatResponse(e.getMessage(), null, conversationId));
+        } catch (LlmUnavailableException e) {
+            // Réponse immédiate : le thread HTTP n'attend pas un fournisseur saturé ou en panne
+            long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(new ChatResponse(e.getMessage(), null, conversationId));
         }
     }
     
     /**
-     * Test direct de la capacité findOrder
+     * Test direct de la capacité findOrder (pageToken pour les lignes suivantes)
      */
     @GetMapping("/test/find-order/{orderNumber}")
     public ResponseEntity<McpResponse> testFindOrder(
             @PathVariable String orderNumber,
+            @RequestParam(required = false) String pageToken,
             Authentication authentication) {
         
         initializeSecurityContext(authentication);
-        return ResponseEntity.ok(capabilityHandler.findOrder(orderNumber));
+        return ResponseEntity.ok(withOutput("findOrder", capabilityHandler.findOrder(orderNumber, pageToken)));
     }
     
     /**
@@ -148,7 +184,7 @@ public class ChatController {
             Authentication authentication) {
         
         initializeSecurityContext(authentication);
-        return ResponseEntity.ok(capabilityHandler.analyzeInvoice(invoiceNumber));
+        return ResponseEntity.ok(withOutput("analyzeInvoice", capabilityHandler.analyzeInvoice(invoiceNumber)));
     }
     
     /**
@@ -160,7 +196,112 @@ public class ChatController {
             Authentication authentication) {
         
         initializeSecurityContext(authentication);
-        return ResponseEntity.ok(capabilityHandler.summarizeCustomerActivity(customerCode));
+        return ResponseEntity.ok(withOutput("summarizeCustomerActivity", capabilityHandler.summarizeCustomerActivity(customerCode)));
+    }
+    
+    /**
+     * Test direct de la capacité listCustomerInvoices (pageToken pour la page suivante)
+     */
+    @GetMapping("/test/customer-invoices/{customerCode}")
+    public ResponseEntity<McpResponse> testCustomerInvoices(
+            @PathVariable String customerCode,
+            @RequestParam(required = false) String pageToken,
+            Authentication authentication) {
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(withOutput("listCustomerInvoices", capabilityHandler.listCustomerInvoices(customerCode, pageToken)));
+    }
+    
+    /**
+     * Test direct de la capacité findOrders (numéros séparés par des virgules)
+     */
+    @GetMapping("/test/find-orders")
+    public ResponseEntity<McpResponse> testFindOrders(
+            @RequestParam List<String> numbers,
+            Authentication authentication) {
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(withOutput("findOrders", capabilityHandler.findOrders(numbers)));
+    }
+    
+    /**
+     * Test direct de la capacité analyzeInvoices (numéros séparés par des virgules)
+     */
+    @GetMapping("/test/analyze-invoices")
+    public ResponseEntity<McpResponse> testAnalyzeInvoices(
+            @RequestParam List<String> numbers,
+            Authentication authentication) {
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(withOutput("analyzeInvoices", capabilityHandler.analyzeInvoices(numbers)));
+    }
+    
+    /**
+     * Test direct de la capacité summarizeCustomers (codes séparés par des virgules)
+     */
+    @GetMapping("/test/customer-summaries")
+    public ResponseEntity<McpResponse> testCustomerSummaries(
+            @RequestParam List<String> codes,
+            Authentication authentication) {
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(withOutput("summarizeCustomers", capabilityHandler.summarizeCustomers(codes)));
+    }
+    
+    /**
+     * Test direct de la capacité searchCustomers
+     */
+    @GetMapping("/test/search-customers")
+    public ResponseEntity<McpResponse> testSearchCustomers(
+            @RequestParam String name,
+            Authentication authentication) {
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(withOutput("searchCustomers", capabilityHandler.searchCustomers(name)));
+    }
+    
+    /**
+     * Test direct de la capacité scanPortfolioRisk (async=true : en tâche de fond)
+     */
+    @GetMapping("/test/portfolio-risk")
+    public ResponseEntity<McpResponse> testPortfolioRisk(
+            @RequestParam(defaultValue = "10") int top,
+            @RequestParam(defaultValue = "false") boolean async,
+            Authentication authentication) {
+        
+        if (top < 1) {
+            return ResponseEntity.badRequest().body(McpResponse.validationFailed("top doit être au moins 1"));
+        }
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(withOutput("scanPortfolioRisk", async
+            ? capabilityHandler.startPortfolioRiskScan(top)
+            : capabilityHandler.scanPortfolioRisk(top)));
+    }
+    
+    /**
+     * Avancement ou résultat d'une tâche de fond (capacité getJobResult)
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<McpResponse> getJobResult(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        
+        initializeSecurityContext(authentication);
+        return ResponseEntity.ok(capabilityHandler.getJobResult(jobId));
+    }
+    
+    /**
+     * Flux SSE de l'avancement d'une tâche de fond : événements "progress", puis "result"
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        
+        return jobManager.find(jobId, authentication.getName())
+            .map(job -> ResponseEntity.ok(jobManager.subscribe(job)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
     /**
@@ -185,6 +326,24 @@ public class ChatController {
         ));
     }
     
+    /**
+     * Quota d'appels dépassé sur un endpoint de test : 429 avec délai avant nouvel essai
+     */
+    @ExceptionHandler(McpRateLimitedException.class)
+    public ResponseEntity<McpResponse> handleRateLimited(McpRateLimitedException e) {
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+            .body(McpResponse.rateLimited(e.getMessage()));
+    }
+    
+    /**
+     * Réponse d'un endpoint de test, avec le format et le nombre de tokens de la sortie qu'en recevrait le LLM
+     */
+    private McpResponse withOutput(String toolName, McpResponse response) {
+        return outputRenderer.withOutput(toolName, response);
+    }
+    
     /**
      * Initialise le contexte de sécurité MCP à partir de l'authentification Spring
      */
@@ -195,7 +354,7 @@ public class ChatController {
             authentication.getName(),
             authentication.getName(),
             role,
-            UUID.randomUUID().toString(),
+            idGenerator.nextIdString(),
             "127.0.0.1" // En production : récupérer la vraie IP
         );
     }
@@ -204,20 +363,10 @@ public class ChatController {
      * Convertit le rôle Spring Security en rôle MCP
      */
     private McpRole getRoleFromAuthentication(Authentication authentication) {
-        for (GrantedAuthority authority : authentication.getAuthorities()) {
-            String role = authority.getAuthority().replace("ROLE_", "");
-            try {
-                return McpRole.valueOf(role);
-            } catch (IllegalArgumentException ignored) {
-                // Continuer avec le prochain rôle
-            }
-        }
-        return McpRole.SUPPORT; // Rôle par défaut
+        return McpRole.from(authentication);
     }
     
     // DTOs
     public record ChatRequest(String message, String conversationId) {}
     public record ChatResponse(String response, String correlationId, String conversationId) {}
-
-    private record ConversationTurn(String userMessage, String assistantMessage) {}
 }
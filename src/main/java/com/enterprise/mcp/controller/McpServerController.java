@@ -0,0 +1,161 @@
+package com.enterprise.mcp.controller;
+
+import com.enterprise.mcp.mcp.JsonRpcException;
+import com.enterprise.mcp.mcp.McpProtocolServer;
+import com.enterprise.mcp.mcp.McpSessionStore;
+import com.enterprise.mcp.mcp.McpSessionStore.McpSession;
+import com.enterprise.mcp.security.McpRole;
+import com.enterprise.mcp.security.McpSecurityContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serveur MCP, transport HTTP "Streamable HTTP"
+ *
+ * - POST /mcp : un message JSON-RPC ou un lot (tableau) de messages ; les
+ *   réponses sont renvoyées ensemble, dans l'ordre des requêtes
+ * - GET /mcp : flux SSE des messages envoyés par le serveur à la session
+ * - DELETE /mcp : fermeture de la session
+ *
+ * initialize ouvre une session dont l'identifiant est renvoyé dans l'en-tête
+ * Mcp-Session-Id, à rappeler sur toutes les requêtes suivantes. Un agent
+ * peut ainsi réutiliser sa connexion et regrouper des dizaines de recherches
+ * dans un seul aller-retour HTTP.
+ *
+ * L'authentification est celle du reste de l'API ; les outils exposés et
+ * autorisés dépendent du rôle de l'utilisateur.
+ */
+@RestController
+@RequestMapping("/mcp")
+@Slf4j
+public class McpServerController {
+
+    public static final String SESSION_HEADER = "Mcp-Session-Id";
+
+    private final McpProtocolServer protocolServer;
+    private final McpSessionStore sessionStore;
+    private final McpSecurityContext securityContext;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+
+    public McpServerController(McpProtocolServer protocolServer,
+                               McpSessionStore sessionStore,
+                               McpSecurityContext securityContext,
+                               ObjectMapper objectMapper,
+                               @Value("${mcp.server.max-batch-size:100}") int maxBatchSize) {
+        this.protocolServer = protocolServer;
+        this.sessionStore = sessionStore;
+        this.securityContext = securityContext;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JsonNode> post(@RequestBody String body,
+                                         @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                         Authentication authentication,
+                                         HttpServletRequest httpRequest) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest()
+                .body(protocolServer.error(null, JsonRpcException.PARSE_ERROR, "JSON invalide: " + e.getOriginalMessage()));
+        }
+
+        boolean batch = payload.isArray();
+        List<JsonNode> messages = new ArrayList<>();
+        if (batch) {
+            payload.forEach(messages::add);
+        } else {
+            messages.add(payload);
+        }
+        if (messages.isEmpty() || messages.size() > maxBatchSize) {
+            return ResponseEntity.badRequest()
+                .body(protocolServer.error(null, JsonRpcException.INVALID_REQUEST,
+                    "Un lot doit contenir entre 1 et " + maxBatchSize + " messages"));
+        }
+
+        McpSession session;
+        if (messages.stream().anyMatch(McpProtocolServer::isInitialize)) {
+            session = sessionStore.create(authentication.getName(), McpRole.from(authentication));
+        } else if (sessionId == null) {
+            return ResponseEntity.badRequest()
+                .body(protocolServer.error(null, JsonRpcException.INVALID_REQUEST,
+                    "En-tête " + SESSION_HEADER + " manquant : appeler initialize"));
+        } else {
+            Optional<McpSession> existing = sessionStore.find(sessionId, authentication.getName());
+            if (existing.isEmpty()) {
+                // 404 : le client doit ouvrir une nouvelle session
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(protocolServer.error(null, JsonRpcException.INVALID_REQUEST, "Session MCP inconnue ou expirée"));
+            }
+            session = existing.get();
+        }
+
+        securityContext.initialize(
+            authentication.getName(),
+            authentication.getName(),
+            McpRole.from(authentication),
+            session.getId(),
+            httpRequest.getRemoteAddr()
+        );
+
+        // Les messages d'un lot partagent la requête HTTP, donc le contexte de sécurité et les quotas
+        ArrayNode responses = objectMapper.createArrayNode();
+        for (JsonNode message : messages) {
+            ObjectNode response = protocolServer.handle(message, session);
+            if (response != null) {
+                responses.add(response);
+            }
+        }
+        if (batch) {
+            log.debug("Lot MCP de {} message(s) traité pour la session {}", messages.size(), session.getId());
+        }
+
+        if (responses.isEmpty()) {
+            // Uniquement des notifications ou des réponses du client
+            return ResponseEntity.accepted().header(SESSION_HEADER, session.getId()).build();
+        }
+        return ResponseEntity.ok()
+            .header(SESSION_HEADER, session.getId())
+            .body(batch ? responses : responses.get(0));
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(SESSION_HEADER) String sessionId,
+                                             Authentication authentication) {
+        return sessionStore.find(sessionId, authentication.getName())
+            .map(session -> ResponseEntity.ok()
+                .header(SESSION_HEADER, session.getId())
+                .body(sessionStore.openStream(session)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> terminate(@RequestHeader(SESSION_HEADER) String sessionId,
+                                          Authentication authentication) {
+        if (sessionStore.find(sessionId, authentication.getName()).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        sessionStore.terminate(sessionId);
+        log.info("Session MCP {} fermée par {}", sessionId, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
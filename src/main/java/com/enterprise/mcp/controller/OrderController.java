@@ -0,0 +1,56 @@
+package com.enterprise.mcp.controller;
+
+import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.service.OrderExportService;
+import com.enterprise.mcp.service.OrderExportService.ExportFilter;
+import com.enterprise.mcp.service.OrderExportService.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Contrôleur REST pour les commandes
+ * 
+ * Expose l'export en masse des commandes pour les extractions BI.
+ * Comme les produits, cet export ne passe pas par MCP.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderController {
+    
+    private final OrderExportService orderExportService;
+    
+    /**
+     * Exporte les commandes en flux continu (CSV ou NDJSON)
+     * 
+     * La réponse est écrite au fil de la lecture : la mémoire serveur
+     * reste constante quel que soit le nombre de commandes exportées.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        ExportFilter filter = new ExportFilter(status, from, to);
+        StreamingResponseBody body = out -> orderExportService.export(filter, format, out);
+        
+        String filename = "orders-" + LocalDate.now() + "." + format.getExtension();
+        
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .body(body);
+    }
+}
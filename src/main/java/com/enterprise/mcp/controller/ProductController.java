@@ -1,14 +1,31 @@
 package com.enterprise.mcp.controller;
 
 import com.enterprise.mcp.domain.entity.Product;
+import com.enterprise.mcp.domain.repository.ProductCatalogVersion;
+import com.enterprise.mcp.domain.repository.ProductSummary;
 import com.enterprise.mcp.service.ProductService;
+import com.enterprise.mcp.service.ProductService.ProductFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Contrôleur REST pour la gestion des produits
@@ -23,22 +40,38 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    /** Propriétés de tri acceptées (champs de ProductSummary) */
+    private static final Set<String> SORTABLE = Set.of(
+        "id", "productCode", "name", "category", "unitPrice", "stockQuantity", "status", "updatedAt");
+    
     private final ProductService productService;
     
     /**
-     * Liste tous les produits
+     * Liste paginée des produits avec filtres optionnels
+     * (statut, catégorie, fourchette de prix, nom ou code)
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.findAll());
+    public ResponseEntity<Page<ProductSummary>> getAllProducts(
+            @RequestParam(required = false) Product.ProductStatus status,
+            @RequestParam(required = false) Product.ProductCategory category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String name,
+            @PageableDefault(size = 20, sort = "name") Pageable pageable,
+            WebRequest webRequest) {
+        return pageIfModified(new ProductFilter(status, category, minPrice, maxPrice, blankToNull(name)), 
+            pageable, webRequest);
     }
     
     /**
-     * Liste les produits actifs uniquement
+     * Liste paginée des produits actifs uniquement
      */
     @GetMapping("/active")
-    public ResponseEntity<List<Product>> getActiveProducts() {
-        return ResponseEntity.ok(productService.findActiveProducts());
+    public ResponseEntity<Page<ProductSummary>> getActiveProducts(
+            @PageableDefault(size = 20, sort = "name") Pageable pageable,
+            WebRequest webRequest) {
+        return pageIfModified(new ProductFilter(Product.ProductStatus.ACTIVE, null, null, null, null), 
+            pageable, webRequest);
     }
     
     /**
@@ -47,7 +80,7 @@ public class ProductController {
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         return productService.findById(id)
-            .map(ResponseEntity::ok)
+            .map(this::withValidators)
             .orElse(ResponseEntity.notFound().build());
     }
     
@@ -57,24 +90,39 @@ public class ProductController {
     @GetMapping("/code/{productCode}")
     public ResponseEntity<Product> getProductByCode(@PathVariable String productCode) {
         return productService.findByProductCode(productCode)
-            .map(ResponseEntity::ok)
+            .map(this::withValidators)
             .orElse(ResponseEntity.notFound().build());
     }
     
     /**
-     * Recherche des produits par catégorie
+     * Recherche paginée des produits par catégorie
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Product.ProductCategory category) {
-        return ResponseEntity.ok(productService.findByCategory(category));
+    public ResponseEntity<Page<ProductSummary>> getProductsByCategory(
+            @PathVariable Product.ProductCategory category,
+            @PageableDefault(size = 20, sort = "name") Pageable pageable,
+            WebRequest webRequest) {
+        return pageIfModified(new ProductFilter(null, category, null, null, null), pageable, webRequest);
     }
     
     /**
-     * Recherche des produits par nom
+     * Recherche paginée des produits par nom, code ou description, triée par pertinence
+     * (tolère les fautes de frappe) ; un paramètre sort est refusé, l'ordre étant celui du classement
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        return ResponseEntity.ok(productService.searchByName(name));
+    public ResponseEntity<Page<ProductSummary>> searchProducts(
+            @RequestParam String name,
+            @PageableDefault(size = 20) Pageable pageable,
+            WebRequest webRequest) {
+        String query = blankToNull(name);
+        if (query == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (pageable.getSort().isSorted()) {
+            log.warn("Tri refusé sur la recherche, ordonnée par pertinence: {}", pageable.getSort());
+            return ResponseEntity.badRequest().build();
+        }
+        return pageIfModified(query, pageable, webRequest, () -> productService.searchSummaries(query, pageable));
     }
     
     /**
@@ -118,4 +166,75 @@ public class ProductController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    /**
+     * Renvoie la page demandée, ou 304 si le catalogue n'a pas changé depuis
+     * la version connue du client (If-None-Match / If-Modified-Since).
+     * La vérification ne coûte qu'un agrégat MAX/COUNT : la page n'est relue
+     * que si le catalogue a évolué.
+     * 
+     * L'ETag est une empreinte SHA-256 de la version du catalogue, des critères
+     * et de la pagination : deux pages différentes ne partagent pas d'ETag.
+     * Un tri sur une propriété inconnue est refusé (400).
+     */
+    private ResponseEntity<Page<ProductSummary>> pageIfModified(ProductFilter filter, Pageable pageable, 
+                                                                 WebRequest webRequest) {
+        return pageIfModified(filter, pageable, webRequest, () -> productService.findSummaries(filter, pageable));
+    }
+    
+    private ResponseEntity<Page<ProductSummary>> pageIfModified(Object criteria, Pageable pageable, 
+                                                                 WebRequest webRequest,
+                                                                 Supplier<Page<ProductSummary>> pageLoader) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                log.warn("Tri refusé sur la propriété inconnue: {}", order.getProperty());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        ProductCatalogVersion version = productService.getCatalogVersion();
+        String etag = "\"" + sha256(version.lastUpdated() + "|" + version.productCount() + "|" + criteria + "|"
+            + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort()) + "\"";
+        long lastModified = toEpochMillis(version.lastUpdated());
+        
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null; // 304 Not Modified déjà positionné par Spring
+        }
+        
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .eTag(etag)
+            .lastModified(lastModified)
+            .body(pageLoader.get());
+    }
+    
+    /**
+     * Ajoute ETag et Last-Modified dérivés de updatedAt ; Spring répond 304
+     * automatiquement si le client possède déjà cette version.
+     */
+    private ResponseEntity<Product> withValidators(Product product) {
+        long lastModified = toEpochMillis(product.getUpdatedAt());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .eTag("\"" + product.getId() + "-" + lastModified + "\"")
+            .lastModified(lastModified)
+            .body(product);
+    }
+    
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+    
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+    
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 }
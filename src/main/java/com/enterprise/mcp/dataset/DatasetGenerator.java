@@ -0,0 +1,603 @@
+package com.enterprise.mcp.dataset;
+
+import com.enterprise.mcp.domain.entity.Customer;
+import com.enterprise.mcp.domain.entity.Invoice;
+import com.enterprise.mcp.domain.entity.Order;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Génération d'un jeu de données volumineux pour les tests de performance (profil dataset)
+ *
+ * Complète les données de démonstration par des clients, commandes, lignes et
+ * factures synthétiques aux volumes et distributions configurés (dataset.*) :
+ * - commandes réparties entre clients selon une loi de Zipf (gros comptes)
+ * - statut de commande dépendant de son ancienneté
+ * - factures selon une répartition des statuts de paiement
+ *
+ * Chargement en JDBC par lots (executeBatch), sans passer par Hibernate, en
+ * parallèle par tranches de commandes. Chaque tranche a son propre générateur
+ * aléatoire dérivé de la graine et sa propre plage d'identifiants : le résultat
+ * ne dépend ni du nombre de threads ni de l'ordre d'exécution.
+ *
+ * Le chargement utilise son propre pool de connexions, ouvert le temps de la
+ * génération : chaque thread garde une connexion pendant toute une tranche,
+ * ce que les partitions par classe de trafic (traffic.partition-pools),
+ * dimensionnées pour des requêtes courtes, ne permettent pas.
+ *
+ * Lancement : mvn spring-boot:run -Dspring-boot.run.profiles=prod,dataset
+ */
+@Component
+@Profile("dataset")
+@EnableConfigurationProperties(DatasetProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetGenerator implements CommandLineRunner, Ordered {
+
+    private static final String CUSTOMER_PREFIX = "CLI-G";
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.20");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final DateTimeFormatter ORDER_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final long CUSTOMER_STREAM = 1;
+    private static final long ORDER_STREAM = 2;
+
+    private static final String[] COMPANY_PREFIXES = {
+        "Atelier", "Groupe", "Société", "Compagnie", "Maison", "Cabinet", "Laboratoires", "Ets", "Studio", "Réseau"
+    };
+    private static final String[] COMPANY_SECTORS = {
+        "Numérique", "Industriel", "Logistique", "Conseil", "Santé", "Énergie", "Bâtiment", "Agroalimentaire",
+        "Transport", "Finance", "Distribution", "Médias", "Éducation", "Immobilier", "Textile", "Chimie"
+    };
+    private static final String[] COMPANY_REGIONS = {
+        "du Nord", "de l'Ouest", "du Sud", "de l'Est", "Alpes", "Atlantique", "Méditerranée", "Centre",
+        "Bretagne", "Provence", "Normandie", "Aquitaine", "Lorraine", "Bourgogne", "Picardie", "Savoie"
+    };
+    private static final String[] LEGAL_FORMS = {"SA", "SAS", "SARL", "SASU", "SNC"};
+    private static final String[] FIRST_NAMES = {
+        "Jean", "Marie", "Pierre", "Sophie", "Luc", "Claire", "Paul", "Julie", "Marc", "Anne",
+        "Louis", "Emma", "Hugo", "Léa", "Thomas", "Camille", "Nicolas", "Sarah", "Antoine", "Chloé"
+    };
+    private static final String[] LAST_NAMES = {
+        "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau",
+        "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux", "Vincent", "Fournier"
+    };
+    private static final String[] STREETS = {
+        "Rue de la République", "Avenue Victor Hugo", "Boulevard Pasteur", "Rue du Commerce", "Allée des Tilleuls",
+        "Rue de l'Industrie", "Avenue Jean Jaurès", "Quai de la Gare", "Rue des Lilas", "Place du Marché"
+    };
+    private static final String[][] CITIES = {
+        {"Paris", "75001"}, {"Lyon", "69002"}, {"Marseille", "13001"}, {"Toulouse", "31000"}, {"Nice", "06000"},
+        {"Nantes", "44000"}, {"Strasbourg", "67000"}, {"Montpellier", "34000"}, {"Bordeaux", "33000"},
+        {"Lille", "59000"}, {"Rennes", "35000"}, {"Grenoble", "38000"}, {"Dijon", "21000"}, {"Angers", "49000"}
+    };
+
+    private static final Distribution<Customer.CustomerSegment> SEGMENTS = Distribution.weighted(Map.of(
+        Customer.CustomerSegment.STANDARD, 0.60,
+        Customer.CustomerSegment.PREMIUM, 0.25,
+        Customer.CustomerSegment.ENTERPRISE, 0.10,
+        Customer.CustomerSegment.VIP, 0.05));
+    private static final Distribution<Customer.CustomerStatus> CUSTOMER_STATUSES = Distribution.weighted(Map.of(
+        Customer.CustomerStatus.ACTIVE, 0.90,
+        Customer.CustomerStatus.INACTIVE, 0.05,
+        Customer.CustomerStatus.PROSPECT, 0.03,
+        Customer.CustomerStatus.SUSPENDED, 0.02));
+
+    // Statut de commande selon son ancienneté
+    private static final Distribution<Order.OrderStatus> RECENT_ORDERS = Distribution.weighted(Map.of(
+        Order.OrderStatus.DRAFT, 0.2, Order.OrderStatus.PENDING_VALIDATION, 0.5, Order.OrderStatus.VALIDATED, 0.3));
+    private static final Distribution<Order.OrderStatus> PREPARED_ORDERS = Distribution.weighted(Map.of(
+        Order.OrderStatus.IN_PREPARATION, 0.6, Order.OrderStatus.SHIPPED, 0.4));
+    private static final Distribution<Order.OrderStatus> SHIPPED_ORDERS = Distribution.weighted(Map.of(
+        Order.OrderStatus.SHIPPED, 0.3, Order.OrderStatus.DELIVERED, 0.7));
+    private static final Distribution<Order.OrderStatus> CLOSED_ORDERS = Distribution.weighted(Map.of(
+        Order.OrderStatus.DELIVERED, 0.94, Order.OrderStatus.CANCELLED, 0.04, Order.OrderStatus.RETURNED, 0.02));
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO customers (id, customer_code, company_name, "
+        + "contact_name, email, phone, address, city, country, status, segment, credit_limit, created_at, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER = "INSERT INTO orders (id, order_number, customer_id, status, "
+        + "total_amount, tax_amount, shipping_address, billing_address, order_date, expected_delivery_date, "
+        + "actual_delivery_date, created_by, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_LINE = "INSERT INTO order_lines (id, order_id, product_code, "
+        + "product_name, quantity, unit_price, discount_percent, line_total) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INVOICE = "INSERT INTO invoices (id, invoice_number, order_id, customer_id, "
+        + "status, subtotal_amount, tax_amount, total_amount, paid_amount, remaining_amount, issue_date, due_date, "
+        + "paid_date, billing_address, payment_terms, created_at, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INVOICE_LINE = "INSERT INTO invoice_lines (id, invoice_id, description, "
+        + "quantity, unit_price, discount_percent, line_total) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final List<String> TABLES = List.of(
+        "customers", "orders", "order_lines", "invoices", "invoice_lines");
+
+    private final DataSourceProperties dataSourceProperties;
+    private final DatasetProperties properties;
+
+    /** Pool du chargement, ouvert pendant run() uniquement */
+    private HikariDataSource dataSource;
+
+    /**
+     * Après les données de démonstration (catalogue produits)
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        try (HikariDataSource pool = openPool()) {
+            this.dataSource = pool;
+            generate();
+        } finally {
+            this.dataSource = null;
+        }
+    }
+
+    private void generate() throws Exception {
+        if (queryLong("SELECT COUNT(*) FROM customers WHERE customer_code LIKE '" + CUSTOMER_PREFIX + "%'") > 0) {
+            log.info("Jeu de données synthétique déjà présent, génération ignorée");
+            return;
+        }
+
+        List<ProductRow> products = loadProducts();
+        if (products.isEmpty()) {
+            throw new IllegalStateException("Aucun produit actif : le catalogue doit être initialisé avant le jeu de données");
+        }
+
+        Plan plan = new Plan(
+            properties.effectiveReferenceDate(),
+            idBase("customers"),
+            idBase("orders"),
+            idBase("order_lines"),
+            idBase("invoices"),
+            idBase("invoice_lines"),
+            Distribution.zipf(LongStream.rangeClosed(1, properties.getCustomers()).boxed().toList(),
+                properties.getCustomerSkew()),
+            Distribution.zipf(products, properties.getProductSkew()),
+            Distribution.weighted(properties.getInvoiceStatuses()));
+
+        int threads = properties.effectiveThreads();
+        log.info("Génération du jeu de données (graine {}) : {} clients, {} commandes, {} threads",
+            properties.getSeed(), properties.getCustomers(), properties.getOrders(), threads);
+        long start = System.currentTimeMillis();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dataset-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            int customerChunks = chunkCount(properties.getCustomers());
+            runAll(executor, customerChunks, chunk -> loadCustomers(plan, chunk));
+            log.info("{} clients chargés en {} ms", properties.getCustomers(), System.currentTimeMillis() - start);
+
+            AtomicLong loadedOrders = new AtomicLong();
+            int orderChunks = chunkCount(properties.getOrders());
+            runAll(executor, orderChunks, chunk -> {
+                long loaded = loadedOrders.addAndGet(loadOrders(plan, chunk));
+                long previous = loaded - chunkLength(properties.getOrders(), chunk);
+                if (loaded * 10 / properties.getOrders() != previous * 10 / properties.getOrders()) {
+                    log.info("{} / {} commandes chargées", loaded, properties.getOrders());
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        resetSequences();
+
+        log.info("Jeu de données généré en {} s : {} clients, {} commandes, {} lignes, {} factures",
+            (System.currentTimeMillis() - start) / 1000,
+            queryLong("SELECT COUNT(*) FROM customers"), queryLong("SELECT COUNT(*) FROM orders"),
+            queryLong("SELECT COUNT(*) FROM order_lines"), queryLong("SELECT COUNT(*) FROM invoices"));
+    }
+
+    // ========== Clients ==========
+
+    private void loadCustomers(Plan plan, int chunk) throws SQLException {
+        SplittableRandom random = random(CUSTOMER_STREAM, chunk);
+        long first = (long) chunk * properties.getChunkSize();
+        long length = chunkLength(properties.getCustomers(), chunk);
+        LocalDateTime createdAt = plan.referenceDate().minusDays(properties.getHistoryDays()).atStartOfDay();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT_CUSTOMER)) {
+            connection.setAutoCommit(false);
+
+            for (long index = first; index < first + length; index++) {
+                Customer.CustomerSegment segment = SEGMENTS.sample(random);
+                String firstName = pick(FIRST_NAMES, random);
+                String lastName = pick(LAST_NAMES, random);
+                String code = customerCode(index);
+
+                int p = 0;
+                insert.setLong(++p, plan.customerBase() + index + 1);
+                insert.setString(++p, code);
+                insert.setString(++p, pick(COMPANY_PREFIXES, random) + " " + pick(COMPANY_SECTORS, random) + " "
+                    + pick(COMPANY_REGIONS, random) + " " + pick(LEGAL_FORMS, random));
+                insert.setString(++p, firstName + " " + lastName);
+                insert.setString(++p, "contact@" + code.toLowerCase() + ".example.fr");
+                insert.setString(++p, String.format("+33 %d %02d %02d %02d %02d", 1 + random.nextInt(5),
+                    random.nextInt(100), random.nextInt(100), random.nextInt(100), random.nextInt(100)));
+                insert.setString(++p, addressOf(index));
+                insert.setString(++p, CITIES[cityOf(index)][0]);
+                insert.setString(++p, "France");
+                insert.setString(++p, CUSTOMER_STATUSES.sample(random).name());
+                insert.setString(++p, segment.name());
+                insert.setDouble(++p, creditLimit(segment, random));
+                insert.setObject(++p, createdAt);
+                insert.setObject(++p, createdAt);
+                insert.addBatch();
+
+                if ((index - first + 1) % properties.getBatchSize() == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static double creditLimit(Customer.CustomerSegment segment, SplittableRandom random) {
+        int base = switch (segment) {
+            case STANDARD -> 20_000;
+            case PREMIUM -> 50_000;
+            case ENTERPRISE -> 100_000;
+            case VIP -> 500_000;
+        };
+        return base * (1 + random.nextInt(5));
+    }
+
+    // ========== Commandes, lignes et factures ==========
+
+    /**
+     * Charge une tranche de commandes avec leurs lignes et factures ; renvoie le nombre de commandes
+     */
+    private long loadOrders(Plan plan, int chunk) throws SQLException {
+        SplittableRandom random = random(ORDER_STREAM, chunk);
+        long first = (long) chunk * properties.getChunkSize();
+        long length = chunkLength(properties.getOrders(), chunk);
+
+        // Plages d'identifiants propres à la tranche : indépendantes de l'ordre d'exécution
+        long lineSlots = (long) properties.getChunkSize() * properties.getMaxLinesPerOrder();
+        long nextLineId = plan.orderLineBase() + chunk * lineSlots + 1;
+        long nextInvoiceId = plan.invoiceBase() + first + 1;
+        long nextInvoiceLineId = plan.invoiceLineBase() + chunk * lineSlots + 1;
+
+        double continueProbability = 1.0 - 1.0 / Math.max(1.0, properties.getMeanLinesPerOrder());
+        LocalDate referenceDate = plan.referenceDate();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement orders = connection.prepareStatement(INSERT_ORDER);
+             PreparedStatement orderLines = connection.prepareStatement(INSERT_ORDER_LINE);
+             PreparedStatement invoices = connection.prepareStatement(INSERT_INVOICE);
+             PreparedStatement invoiceLines = connection.prepareStatement(INSERT_INVOICE_LINE)) {
+            connection.setAutoCommit(false);
+            List<GeneratedLine> lines = new ArrayList<>(properties.getMaxLinesPerOrder());
+
+            for (long offset = first; offset < first + length; offset++) {
+                long orderId = plan.orderBase() + offset + 1;
+                int customerIndex = plan.customers().sampleIndex(random);
+                long customerId = plan.customerBase() + customerIndex + 1;
+                String address = addressOf(customerIndex);
+
+                int ageDays = random.nextInt(Math.max(1, properties.getHistoryDays()));
+                LocalDateTime orderDate = referenceDate.minusDays(ageDays)
+                    .atTime(8 + random.nextInt(10), random.nextInt(60));
+                Order.OrderStatus status = orderStatus(ageDays, random);
+
+                // Lignes : nombre suivant une loi géométrique, produits selon leur popularité
+                lines.clear();
+                BigDecimal subtotal = BigDecimal.ZERO;
+                do {
+                    ProductRow product = plan.products().sample(random);
+                    int quantity = 1 + (int) (Math.pow(random.nextDouble(), 3) * 50);
+                    BigDecimal discount = random.nextInt(10) == 0
+                        ? BigDecimal.valueOf(5L * (1 + random.nextInt(3))) : BigDecimal.ZERO;
+                    BigDecimal lineTotal = product.unitPrice().multiply(BigDecimal.valueOf(quantity))
+                        .multiply(HUNDRED.subtract(discount)).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+                    lines.add(new GeneratedLine(product, quantity, discount, lineTotal));
+                    subtotal = subtotal.add(lineTotal);
+                } while (lines.size() < properties.getMaxLinesPerOrder() && random.nextDouble() < continueProbability);
+                BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+
+                int p = 0;
+                orders.setLong(++p, orderId);
+                orders.setString(++p, "CMD-" + orderDate.format(ORDER_DATE) + "-G" + pad(offset + 1, 9));
+                orders.setLong(++p, customerId);
+                orders.setString(++p, status.name());
+                orders.setBigDecimal(++p, subtotal);
+                orders.setBigDecimal(++p, tax);
+                orders.setString(++p, address);
+                orders.setString(++p, address);
+                orders.setObject(++p, orderDate);
+                orders.setObject(++p, orderDate.plusDays(7));
+                orders.setObject(++p, status == Order.OrderStatus.DELIVERED
+                    ? orderDate.plusDays(3 + random.nextInt(8)) : null);
+                orders.setString(++p, "dataset");
+                orders.setObject(++p, orderDate);
+                orders.setObject(++p, orderDate);
+                orders.addBatch();
+
+                for (GeneratedLine line : lines) {
+                    p = 0;
+                    orderLines.setLong(++p, nextLineId++);
+                    orderLines.setLong(++p, orderId);
+                    orderLines.setString(++p, line.product().code());
+                    orderLines.setString(++p, line.product().name());
+                    orderLines.setInt(++p, line.quantity());
+                    orderLines.setBigDecimal(++p, line.product().unitPrice());
+                    orderLines.setBigDecimal(++p, line.discountPercent());
+                    orderLines.setBigDecimal(++p, line.lineTotal());
+                    orderLines.addBatch();
+                }
+
+                boolean invoiced = (status == Order.OrderStatus.DELIVERED || status == Order.OrderStatus.SHIPPED)
+                    && random.nextDouble() < properties.getInvoiceRatio();
+                if (invoiced) {
+                    long invoiceId = nextInvoiceId++;
+                    addInvoice(invoices, plan, random, invoiceId, offset, orderId, customerId, address,
+                        orderDate.toLocalDate(), subtotal, tax);
+                    for (GeneratedLine line : lines) {
+                        p = 0;
+                        invoiceLines.setLong(++p, nextInvoiceLineId++);
+                        invoiceLines.setLong(++p, invoiceId);
+                        invoiceLines.setString(++p, line.product().name() + " (" + line.product().code() + ")");
+                        invoiceLines.setInt(++p, line.quantity());
+                        invoiceLines.setBigDecimal(++p, line.product().unitPrice());
+                        invoiceLines.setBigDecimal(++p, line.discountPercent());
+                        invoiceLines.setBigDecimal(++p, line.lineTotal());
+                        invoiceLines.addBatch();
+                    }
+                }
+
+                if ((offset - first + 1) % properties.getBatchSize() == 0) {
+                    executeBatches(orders, orderLines, invoices, invoiceLines);
+                }
+            }
+            executeBatches(orders, orderLines, invoices, invoiceLines);
+            connection.commit();
+        }
+        return length;
+    }
+
+    private void addInvoice(PreparedStatement invoices, Plan plan, SplittableRandom random, long invoiceId,
+                            long orderOffset, long orderId, long customerId, String address,
+                            LocalDate orderDate, BigDecimal subtotal, BigDecimal tax) throws SQLException {
+        LocalDate referenceDate = plan.referenceDate();
+        Invoice.InvoiceStatus status = plan.invoiceStatuses().sample(random);
+        LocalDate issueDate = min(orderDate.plusDays(1 + random.nextInt(5)), referenceDate);
+        LocalDate dueDate = issueDate.plusDays(30);
+        if (status == Invoice.InvoiceStatus.OVERDUE && !dueDate.isBefore(referenceDate)) {
+            dueDate = referenceDate.minusDays(1 + random.nextInt(60));
+            issueDate = dueDate.minusDays(30);
+        }
+
+        BigDecimal total = subtotal.add(tax);
+        BigDecimal paid = switch (status) {
+            case PAID -> total;
+            case PARTIALLY_PAID -> total.multiply(BigDecimal.valueOf(20 + random.nextInt(61)))
+                .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            default -> BigDecimal.ZERO;
+        };
+        LocalDate paidDate = status == Invoice.InvoiceStatus.PAID
+            ? min(issueDate.plusDays(random.nextInt(45)), referenceDate) : null;
+
+        int p = 0;
+        invoices.setLong(++p, invoiceId);
+        invoices.setString(++p, "FAC-" + issueDate.getYear() + "-G" + pad(orderOffset + 1, 9));
+        invoices.setLong(++p, orderId);
+        invoices.setLong(++p, customerId);
+        invoices.setString(++p, status.name());
+        invoices.setBigDecimal(++p, subtotal);
+        invoices.setBigDecimal(++p, tax);
+        invoices.setBigDecimal(++p, total);
+        invoices.setBigDecimal(++p, paid);
+        invoices.setBigDecimal(++p, total.subtract(paid));
+        invoices.setObject(++p, issueDate);
+        invoices.setObject(++p, dueDate);
+        invoices.setObject(++p, paidDate);
+        invoices.setString(++p, address);
+        invoices.setString(++p, "Net 30 jours");
+        invoices.setObject(++p, issueDate.atStartOfDay());
+        invoices.setObject(++p, issueDate.atStartOfDay());
+        invoices.addBatch();
+    }
+
+    private static Order.OrderStatus orderStatus(int ageDays, SplittableRandom random) {
+        if (ageDays < 3) {
+            return RECENT_ORDERS.sample(random);
+        }
+        if (ageDays < 10) {
+            return PREPARED_ORDERS.sample(random);
+        }
+        if (ageDays < 20) {
+            return SHIPPED_ORDERS.sample(random);
+        }
+        return CLOSED_ORDERS.sample(random);
+    }
+
+    /**
+     * Ordre des clés étrangères : commandes, lignes, factures, lignes de facture
+     */
+    private static void executeBatches(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement statement : statements) {
+            statement.executeBatch();
+        }
+    }
+
+    // ========== Outils ==========
+
+    /**
+     * Une connexion par thread de chargement, plus une pour les requêtes de
+     * contrôle (resetSequences en tient deux à la fois)
+     */
+    private HikariDataSource openPool() {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        pool.setPoolName("dataset-loader");
+        pool.setMaximumPoolSize(properties.effectiveThreads() + 1);
+        return pool;
+    }
+
+    private List<ProductRow> loadProducts() throws SQLException {
+        List<ProductRow> products = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SELECT product_code, name, unit_price FROM products WHERE status = 'ACTIVE' ORDER BY id")) {
+            while (rs.next()) {
+                products.add(new ProductRow(rs.getString(1), rs.getString(2), rs.getBigDecimal(3)));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Les identifiants ayant été fournis explicitement, les séquences d'Hibernate
+     * repartent après la plus grande valeur chargée
+     */
+    private void resetSequences() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            for (String table : TABLES) {
+                long next = queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table);
+                statement.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + next);
+            }
+            // Statistiques de sélectivité à jour pour l'optimiseur
+            statement.execute("ANALYZE");
+        }
+    }
+
+    /**
+     * Dernier identifiant déjà utilisé ou réservé : l'optimiseur pooled-lo
+     * d'Hibernate peut détenir en mémoire un bloc non encore inséré
+     */
+    private long idBase(String table) throws SQLException {
+        long reserved = queryLong("SELECT NEXT VALUE FOR " + table + "_seq") - 1;
+        return Math.max(reserved, queryLong("SELECT COALESCE(MAX(id), 0) FROM " + table));
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void runAll(ExecutorService executor, int chunks, ChunkTask task) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int current = chunk;
+            futures.add(executor.submit(() -> {
+                task.run(current);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec du chargement du jeu de données", e.getCause());
+            }
+        }
+    }
+
+    private SplittableRandom random(long stream, int chunk) {
+        return new SplittableRandom(properties.getSeed() * 1_000_003L + stream * 0x9E3779B97F4A7C15L + chunk);
+    }
+
+    private int chunkCount(long total) {
+        return (int) ((total + properties.getChunkSize() - 1) / properties.getChunkSize());
+    }
+
+    private long chunkLength(long total, int chunk) {
+        return Math.min(properties.getChunkSize(), total - (long) chunk * properties.getChunkSize());
+    }
+
+    private static String customerCode(long index) {
+        return CUSTOMER_PREFIX + pad(index + 1, 7);
+    }
+
+    /**
+     * Adresse fonction du seul rang du client : les commandes la retrouvent sans lecture
+     */
+    private static String addressOf(long index) {
+        String[] city = CITIES[cityOf(index)];
+        return (1 + index % 199) + " " + STREETS[(int) (index / 199 % STREETS.length)] + ", " + city[1] + " " + city[0];
+    }
+
+    private static int cityOf(long index) {
+        return (int) (index * 7 % CITIES.length);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String pad(long value, int width) {
+        String digits = Long.toString(value);
+        return digits.length() >= width ? digits : "0".repeat(width - digits.length()) + digits;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk) throws Exception;
+    }
+
+    private record ProductRow(String code, String name, BigDecimal unitPrice) {}
+
+    private record GeneratedLine(ProductRow product, int quantity, BigDecimal discountPercent, BigDecimal lineTotal) {}
+
+    private record Plan(
+        LocalDate referenceDate,
+        long customerBase,
+        long orderBase,
+        long orderLineBase,
+        long invoiceBase,
+        long invoiceLineBase,
+        Distribution<Long> customers,
+        Distribution<ProductRow> products,
+        Distribution<Invoice.InvoiceStatus> invoiceStatuses
+    ) {}
+}
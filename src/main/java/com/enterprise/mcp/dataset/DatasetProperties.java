@@ -0,0 +1,71 @@
+package com.enterprise.mcp.dataset;
+
+import com.enterprise.mcp.domain.entity.Invoice;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Volumes et distributions du jeu de données synthétique (dataset.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "dataset")
+public class DatasetProperties {
+    
+    /** Graine : deux générations de même graine et même configuration produisent les mêmes données */
+    private long seed = 42L;
+    
+    private int customers = 100_000;
+    
+    private long orders = 10_000_000L;
+    
+    /** Nombre moyen de lignes par commande (loi géométrique, au moins une ligne) */
+    private double meanLinesPerOrder = 2.5;
+    
+    private int maxLinesPerOrder = 8;
+    
+    /** Exposant de Zipf pour la répartition des commandes par client (0 = uniforme) */
+    private double customerSkew = 1.0;
+    
+    /** Exposant de Zipf pour la popularité des produits (0 = uniforme) */
+    private double productSkew = 1.2;
+    
+    /** Profondeur de l'historique des commandes */
+    private int historyDays = 730;
+    
+    /** Date de référence de l'historique ; aujourd'hui si absente */
+    private LocalDate referenceDate;
+    
+    /** Part des commandes expédiées ou livrées qui ont une facture */
+    private double invoiceRatio = 0.9;
+    
+    /** Répartition des statuts de paiement des factures (poids relatifs) */
+    private Map<Invoice.InvoiceStatus, Double> invoiceStatuses = new EnumMap<>(Map.of(
+        Invoice.InvoiceStatus.PAID, 0.65,
+        Invoice.InvoiceStatus.SENT, 0.12,
+        Invoice.InvoiceStatus.PARTIALLY_PAID, 0.08,
+        Invoice.InvoiceStatus.OVERDUE, 0.10,
+        Invoice.InvoiceStatus.DISPUTED, 0.02,
+        Invoice.InvoiceStatus.CANCELLED, 0.03
+    ));
+    
+    /** Commandes générées (et validées en base) par lot */
+    private int chunkSize = 10_000;
+    
+    /** Lignes envoyées par appel JDBC executeBatch */
+    private int batchSize = 1_000;
+    
+    /** Lots chargés en parallèle ; nombre de processeurs si 0 */
+    private int threads = 0;
+    
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+    
+    public LocalDate effectiveReferenceDate() {
+        return referenceDate != null ? referenceDate : LocalDate.now();
+    }
+}
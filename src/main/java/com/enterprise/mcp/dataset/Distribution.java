@@ -0,0 +1,64 @@
+package com.enterprise.mcp.dataset;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Tirage pondéré d'une valeur parmi un ensemble fini
+ * 
+ * Les poids sont cumulés une fois ; chaque tirage est une recherche
+ * dichotomique. Immuable et partageable entre threads, l'aléa étant
+ * fourni par l'appelant.
+ */
+final class Distribution<T> {
+    
+    private final List<T> values;
+    private final double[] cumulative;
+    
+    private Distribution(List<T> values, double[] weights) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Distribution vide");
+        }
+        this.values = values;
+        this.cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+    
+    /**
+     * Poids relatifs par valeur, pris dans l'ordre des constantes de l'enum :
+     * le résultat ne dépend pas de l'ordre d'itération de la map
+     */
+    static <T extends Enum<T>> Distribution<T> weighted(Map<T, Double> weights) {
+        List<T> values = weights.keySet().stream().sorted().toList();
+        return new Distribution<>(values, values.stream().mapToDouble(weights::get).toArray());
+    }
+    
+    /**
+     * Loi de Zipf : la valeur de rang k a un poids 1/k^exponent
+     */
+    static <T> Distribution<T> zipf(List<T> values, double exponent) {
+        double[] weights = new double[values.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, exponent);
+        }
+        return new Distribution<>(values, weights);
+    }
+    
+    T sample(SplittableRandom random) {
+        return values.get(sampleIndex(random));
+    }
+    
+    int sampleIndex(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -5,14 +5,24 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
 /**
  * Entité Client - Représente un client dans le système commercial
+ * 
+ * Données de référence lues à chaque appel de capacité : l'entité et la
+ * résolution de son identifiant naturel (customerCode) sont en cache de second niveau.
  */
 @Entity
 @Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customer")
+@NaturalIdCache(region = "customer-natural-id")
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,9 +30,11 @@ import java.time.LocalDateTime;
 public class Customer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
     
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String customerCode;
     
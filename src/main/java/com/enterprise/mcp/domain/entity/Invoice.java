@@ -16,7 +16,12 @@ import java.util.List;
  * Entité Facture - Représente une facture liée à une commande
  */
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+    @Index(name = "idx_invoices_customer", columnList = "customer_id"),
+    @Index(name = "idx_invoices_customer_issue_date", columnList = "customer_id, issueDate"),
+    @Index(name = "idx_invoices_order", columnList = "order_id"),
+    @Index(name = "idx_invoices_status_due_date", columnList = "status, dueDate")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,7 +29,8 @@ import java.util.List;
 public class Invoice {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_seq")
+    @SequenceGenerator(name = "invoices_seq", sequenceName = "invoices_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
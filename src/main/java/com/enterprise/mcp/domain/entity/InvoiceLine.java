@@ -12,7 +12,7 @@ import java.math.BigDecimal;
  * Entité Ligne de facture - Détail d'un article dans une facture
  */
 @Entity
-@Table(name = "invoice_lines")
+@Table(name = "invoice_lines", indexes = @Index(name = "idx_invoice_lines_invoice", columnList = "invoice_id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +20,8 @@ import java.math.BigDecimal;
 public class InvoiceLine {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_lines_seq")
+    @SequenceGenerator(name = "invoice_lines_seq", sequenceName = "invoice_lines_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -15,7 +15,11 @@ import java.util.List;
  * Entité Commande - Représente une commande client
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_customer", columnList = "customer_id"),
+    @Index(name = "idx_orders_status", columnList = "status"),
+    @Index(name = "idx_orders_order_date", columnList = "orderDate")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,7 +27,8 @@ import java.util.List;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -38,6 +43,7 @@ public class Order {
     private OrderStatus status;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     @Builder.Default
     private List<OrderLine> lines = new ArrayList<>();
     
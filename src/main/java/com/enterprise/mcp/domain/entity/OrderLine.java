@@ -12,7 +12,7 @@ import java.math.BigDecimal;
  * Entité Ligne de commande - Détail d'un article dans une commande
  */
 @Entity
-@Table(name = "order_lines")
+@Table(name = "order_lines", indexes = @Index(name = "idx_order_lines_order", columnList = "order_id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +20,8 @@ import java.math.BigDecimal;
 public class OrderLine {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
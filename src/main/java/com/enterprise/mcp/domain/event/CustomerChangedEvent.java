@@ -0,0 +1,11 @@
+package com.enterprise.mcp.domain.event;
+
+import com.enterprise.mcp.domain.entity.Customer;
+
+/**
+ * Événement publié après la création ou la modification d'un client
+ *
+ * Les écouteurs transactionnels le reçoivent après commit, ce qui permet
+ * de maintenir les structures dérivées (index, caches) sans relire la base.
+ */
+public record CustomerChangedEvent(Customer customer) {}
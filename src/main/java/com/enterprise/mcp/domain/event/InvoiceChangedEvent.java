@@ -0,0 +1,23 @@
+package com.enterprise.mcp.domain.event;
+
+import com.enterprise.mcp.domain.entity.Invoice;
+
+/**
+ * Événement publié après la modification d'une facture (paiement, statut)
+ *
+ * Porte les identifiants métier plutôt que l'entité : client et commande sont
+ * chargés à la demande et ne seraient plus accessibles après la transaction.
+ */
+public record InvoiceChangedEvent(String invoiceNumber, String customerCode, String orderNumber) {
+
+    /**
+     * À appeler dans la transaction qui modifie la facture
+     */
+    public static InvoiceChangedEvent of(Invoice invoice) {
+        return new InvoiceChangedEvent(
+            invoice.getInvoiceNumber(),
+            invoice.getCustomer().getCustomerCode(),
+            invoice.getOrder() != null ? invoice.getOrder().getOrderNumber() : null
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.enterprise.mcp.domain.event;
+
+import com.enterprise.mcp.domain.entity.Order;
+
+/**
+ * Événement publié après la création ou la modification d'une commande
+ *
+ * Porte les identifiants métier plutôt que l'entité : le client est chargé
+ * à la demande et ne serait plus accessible une fois la transaction terminée.
+ */
+public record OrderChangedEvent(String orderNumber, String customerCode) {
+
+    /**
+     * À appeler dans la transaction qui modifie la commande
+     */
+    public static OrderChangedEvent of(Order order) {
+        return new OrderChangedEvent(order.getOrderNumber(), order.getCustomer().getCustomerCode());
+    }
+}
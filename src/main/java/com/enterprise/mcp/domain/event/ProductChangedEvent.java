@@ -0,0 +1,11 @@
+package com.enterprise.mcp.domain.event;
+
+import com.enterprise.mcp.domain.entity.Product;
+
+/**
+ * Événement publié après la création ou la modification d'un produit
+ *
+ * Les écouteurs transactionnels le reçoivent après commit, ce qui permet
+ * de maintenir les structures dérivées (index, caches) sans relire la base.
+ */
+public record ProductChangedEvent(Product product) {}
@@ -0,0 +1,18 @@
+package com.enterprise.mcp.domain.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégats de factures d'un client, calculés pour un lot de clients en une requête
+ *
+ * Les montants sont null quand aucune facture n'entre dans la somme ;
+ * « impayée » exclut les factures payées et annulées.
+ */
+public record CustomerInvoiceTotals(
+    Long customerId,
+    Long invoiceCount,
+    BigDecimal totalPaid,
+    BigDecimal totalOutstanding,
+    Long unpaidCount,
+    Long overdueCount
+) {}
@@ -0,0 +1,22 @@
+package com.enterprise.mcp.domain.repository;
+
+import com.enterprise.mcp.domain.entity.Customer;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Accès aux clients par leur identifiant naturel (code client)
+ *
+ * Contrairement à une requête dérivée, la résolution passe par l'API
+ * natural-id d'Hibernate et profite du cache de second niveau.
+ */
+public interface CustomerNaturalIdRepository {
+
+    Optional<Customer> findByCustomerCode(String customerCode);
+
+    /**
+     * Clients d'une liste de codes, dans l'ordre de la liste ; les codes inconnus sont ignorés
+     */
+    List<Customer> findAllByCustomerCodes(List<String> customerCodes);
+}
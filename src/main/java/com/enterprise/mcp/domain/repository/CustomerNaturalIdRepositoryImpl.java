@@ -0,0 +1,36 @@
+package com.enterprise.mcp.domain.repository;
+
+import com.enterprise.mcp.domain.entity.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class CustomerNaturalIdRepositoryImpl implements CustomerNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Customer> findByCustomerCode(String customerCode) {
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(Customer.class)
+            .loadOptional(customerCode);
+    }
+
+    @Override
+    public List<Customer> findAllByCustomerCodes(List<String> customerCodes) {
+        // Résolution groupée : cache natural-id d'abord, puis une requête IN pour les manquants
+        return entityManager.unwrap(Session.class)
+            .byMultipleNaturalId(Customer.class)
+            .multiLoad(customerCodes)
+            .stream()
+            .filter(Objects::nonNull)
+            .toList();
+    }
+}
@@ -0,0 +1,14 @@
+package com.enterprise.mcp.domain.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégats de commandes d'un client, calculés pour un lot de clients en une requête
+ *
+ * @param deliveredRevenue Chiffre d'affaires des commandes livrées, null si aucune
+ */
+public record CustomerOrderTotals(
+    Long customerId,
+    Long orderCount,
+    BigDecimal deliveredRevenue
+) {}
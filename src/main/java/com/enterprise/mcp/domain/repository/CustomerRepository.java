@@ -1,30 +1,39 @@
 package com.enterprise.mcp.domain.repository;
 
 import com.enterprise.mcp.domain.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Repository pour les opérations sur les clients
  */
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    
-    Optional<Customer> findByCustomerCode(String customerCode);
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerNaturalIdRepository {
     
     List<Customer> findByStatus(Customer.CustomerStatus status);
     
+    /**
+     * Premiers clients d'un statut, limités à la page demandée (sans comptage)
+     */
+    List<Customer> findByStatus(Customer.CustomerStatus status, Pageable pageable);
+    
     List<Customer> findBySegment(Customer.CustomerSegment segment);
     
     @Query("SELECT c FROM Customer c WHERE LOWER(c.companyName) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Customer> searchByCompanyName(@Param("name") String name);
     
+    /**
+     * Résultat en cache de requêtes, invalidé par Hibernate à chaque écriture sur la table
+     */
     @Query("SELECT c FROM Customer c WHERE c.status = 'ACTIVE' ORDER BY c.companyName")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Customer> findAllActiveCustomers();
     
     boolean existsByCustomerCode(String customerCode);
@@ -0,0 +1,18 @@
+package com.enterprise.mcp.domain.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projection légère d'une facture ouverte pour les analyses de portefeuille
+ *
+ * Seules les colonnes nécessaires au calcul d'exposition sont lues :
+ * aucune entité n'est attachée au contexte de persistance, ce qui permet
+ * de parcourir des millions de factures sans saturer la mémoire.
+ */
+public record InvoiceExposureRow(
+    Long invoiceId,
+    Long customerId,
+    BigDecimal remainingAmount,
+    LocalDate dueDate
+) {}
@@ -1,12 +1,14 @@
 package com.enterprise.mcp.domain.repository;
 
 import com.enterprise.mcp.domain.entity.Invoice;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,6 +45,59 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
     @Query("SELECT COUNT(i) FROM Invoice i WHERE i.customer.id = :customerId")
     Long countInvoicesByCustomer(@Param("customerId") Long customerId);
-    
+
+    /**
+     * Lecture par pagination keyset (id > lastId) des factures ouvertes.
+     * Contrairement à un OFFSET, le coût de chaque page reste constant
+     * quelle que soit la profondeur du parcours.
+     */
+    @Query("SELECT new com.enterprise.mcp.domain.repository.InvoiceExposureRow(i.id, i.customer.id, i.remainingAmount, i.dueDate) " +
+           "FROM Invoice i WHERE i.id > :lastId AND i.status != 'PAID' AND i.status != 'CANCELLED' ORDER BY i.id")
+    List<InvoiceExposureRow> findOpenExposureAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.status != 'PAID' AND i.status != 'CANCELLED'")
+    long countOpenInvoices();
+
+    /**
+     * Factures d'une liste de numéros, client chargé dans la même requête
+     */
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.customer WHERE i.invoiceNumber IN :invoiceNumbers")
+    List<Invoice> findAllByInvoiceNumberIn(@Param("invoiceNumbers") Collection<String> invoiceNumbers);
+
+    /**
+     * Dernières factures d'un client, limitées par la page demandée
+     */
+    @Query("SELECT i FROM Invoice i WHERE i.customer.id = :customerId ORDER BY i.issueDate DESC")
+    List<Invoice> findLatestInvoicesByCustomer(@Param("customerId") Long customerId, Pageable pageable);
+
+    /**
+     * Totaux payés, encours, impayés et retards de chaque client du lot, en un seul parcours
+     */
+    @Query("SELECT new com.enterprise.mcp.domain.repository.CustomerInvoiceTotals(i.customer.id, COUNT(i), " +
+           "SUM(CASE WHEN i.status = 'PAID' THEN i.totalAmount END), " +
+           "SUM(CASE WHEN i.status != 'PAID' AND i.status != 'CANCELLED' THEN i.remainingAmount END), " +
+           "SUM(CASE WHEN i.status != 'PAID' AND i.status != 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN i.status != 'PAID' AND i.status != 'CANCELLED' AND i.dueDate < :today THEN 1 ELSE 0 END)) " +
+           "FROM Invoice i WHERE i.customer.id IN :customerIds GROUP BY i.customer.id")
+    List<CustomerInvoiceTotals> getInvoiceTotalsByCustomers(@Param("customerIds") Collection<Long> customerIds,
+                                                            @Param("today") LocalDate today);
+
+    /**
+     * Première page de l'historique des factures d'un client, de la plus récente à la plus ancienne
+     */
+    @Query("SELECT i FROM Invoice i WHERE i.customer.id = :customerId ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findHistoryFirstPage(@Param("customerId") Long customerId, Pageable pageable);
+
+    /**
+     * Page suivante de l'historique par pagination keyset sur (date d'émission, id)
+     */
+    @Query("SELECT i FROM Invoice i WHERE i.customer.id = :customerId " +
+           "AND (i.issueDate < :issueDate OR (i.issueDate = :issueDate AND i.id < :lastId)) " +
+           "ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findHistoryPageAfter(@Param("customerId") Long customerId,
+                                       @Param("issueDate") LocalDate issueDate,
+                                       @Param("lastId") Long lastId,
+                                       Pageable pageable);
+
     boolean existsByInvoiceNumber(String invoiceNumber);
 }
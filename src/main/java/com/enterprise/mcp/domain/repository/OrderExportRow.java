@@ -0,0 +1,24 @@
+package com.enterprise.mcp.domain.repository;
+
+import com.enterprise.mcp.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'une commande pour les exports en masse
+ *
+ * Une projection n'est pas une entité gérée : une page écrite peut être
+ * libérée, même quand le contexte de persistance de la requête HTTP reste
+ * ouvert pendant tout l'export (open-in-view).
+ */
+public record OrderExportRow(
+    Long id,
+    String orderNumber,
+    String customerCode,
+    String customerName,
+    Order.OrderStatus status,
+    LocalDateTime orderDate,
+    BigDecimal totalAmount,
+    BigDecimal taxAmount
+) {}
@@ -0,0 +1,19 @@
+package com.enterprise.mcp.domain.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection d'une ligne de commande pour les exports en masse
+ *
+ * Porte l'identifiant de la commande parente afin de regrouper
+ * les lignes d'une page de commandes chargées en une seule requête.
+ */
+public record OrderLineExportRow(
+    Long orderId,
+    String productCode,
+    String productName,
+    Integer quantity,
+    BigDecimal unitPrice,
+    BigDecimal discountPercent,
+    BigDecimal lineTotal
+) {}
@@ -1,12 +1,15 @@
 package com.enterprise.mcp.domain.repository;
 
 import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.entity.OrderLine;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,5 +42,61 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.customer.id = :customerId AND o.status = 'DELIVERED'")
     Double getTotalRevenueByCustomer(@Param("customerId") Long customerId);
     
+    /**
+     * Page d'export par pagination keyset (id > lastId), projetée avec le client.
+     * Les filtres null sont ignorés.
+     */
+    @Query("SELECT new com.enterprise.mcp.domain.repository.OrderExportRow(" +
+           "o.id, o.orderNumber, c.customerCode, c.companyName, o.status, o.orderDate, o.totalAmount, o.taxAmount) " +
+           "FROM Order o JOIN o.customer c WHERE o.id > :lastId " +
+           "AND (:status IS NULL OR o.status = :status) " +
+           "AND (:startDate IS NULL OR o.orderDate >= :startDate) " +
+           "AND (:endDate IS NULL OR o.orderDate <= :endDate) ORDER BY o.id")
+    List<OrderExportRow> findExportPageAfter(
+        @Param("lastId") Long lastId,
+        @Param("status") Order.OrderStatus status,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        Pageable pageable
+    );
+    
+    /**
+     * Lignes d'un lot de commandes en une seule requête (évite le N+1 sur les lignes)
+     */
+    @Query("SELECT new com.enterprise.mcp.domain.repository.OrderLineExportRow(" +
+           "l.order.id, l.productCode, l.productName, l.quantity, l.unitPrice, l.discountPercent, l.lineTotal) " +
+           "FROM OrderLine l WHERE l.order.id IN :orderIds ORDER BY l.order.id, l.id")
+    List<OrderLineExportRow> findExportLines(@Param("orderIds") Collection<Long> orderIds);
+    
+    /**
+     * Commandes d'une liste de numéros, client chargé dans la même requête
+     * (les lignes, sans borne, sont lues page par page avec findLinesAfter)
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer WHERE o.orderNumber IN :orderNumbers")
+    List<Order> findAllByOrderNumberIn(@Param("orderNumbers") Collection<String> orderNumbers);
+    
+    /**
+     * Dernières commandes d'un client, limitées par la page demandée
+     */
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.orderDate DESC")
+    List<Order> findLatestOrdersByCustomer(@Param("customerId") Long customerId, Pageable pageable);
+    
+    /**
+     * Nombre de commandes et chiffre d'affaires livré de chaque client du lot
+     */
+    @Query("SELECT new com.enterprise.mcp.domain.repository.CustomerOrderTotals(o.customer.id, COUNT(o), " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN o.totalAmount END)) " +
+           "FROM Order o WHERE o.customer.id IN :customerIds GROUP BY o.customer.id")
+    List<CustomerOrderTotals> getOrderTotalsByCustomers(@Param("customerIds") Collection<Long> customerIds);
+    
+    /**
+     * Page de lignes d'une commande par pagination keyset (id > lastId)
+     */
+    @Query("SELECT l FROM OrderLine l WHERE l.order.id = :orderId AND l.id > :lastId ORDER BY l.id")
+    List<OrderLine> findLinesAfter(@Param("orderId") Long orderId, @Param("lastId") Long lastId, Pageable pageable);
+    
+    @Query("SELECT COUNT(l) FROM OrderLine l WHERE l.order.id = :orderId")
+    long countLines(@Param("orderId") Long orderId);
+    
     boolean existsByOrderNumber(String orderNumber);
 }
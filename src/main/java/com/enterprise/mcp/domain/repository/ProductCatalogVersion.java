@@ -0,0 +1,15 @@
+package com.enterprise.mcp.domain.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version courante du catalogue produits
+ *
+ * Toute création ou modification de produit fait évoluer la date de
+ * dernière mise à jour (et la création le nombre de produits) : ce couple
+ * suffit à valider le cache HTTP d'une liste sans relire la page.
+ */
+public record ProductCatalogVersion(
+    LocalDateTime lastUpdated,
+    Long productCount
+) {}
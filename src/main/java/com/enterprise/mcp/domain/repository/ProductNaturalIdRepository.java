@@ -0,0 +1,16 @@
+package com.enterprise.mcp.domain.repository;
+
+import com.enterprise.mcp.domain.entity.Product;
+
+import java.util.Optional;
+
+/**
+ * Accès aux produits par leur identifiant naturel (code produit)
+ *
+ * Contrairement à une requête dérivée, la résolution passe par l'API
+ * natural-id d'Hibernate et profite du cache de second niveau.
+ */
+public interface ProductNaturalIdRepository {
+
+    Optional<Product> findByProductCode(String productCode);
+}
@@ -0,0 +1,23 @@
+package com.enterprise.mcp.domain.repository;
+
+import com.enterprise.mcp.domain.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class ProductNaturalIdRepositoryImpl implements ProductNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Product> findByProductCode(String productCode) {
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(Product.class)
+            .loadOptional(productCode);
+    }
+}
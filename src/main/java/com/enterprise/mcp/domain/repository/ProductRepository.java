@@ -1,19 +1,32 @@
 package com.enterprise.mcp.domain.repository;
 
 import com.enterprise.mcp.domain.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Repository pour l'accès aux données des produits
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductNaturalIdRepository {
     
-    Optional<Product> findByProductCode(String productCode);
+    /**
+     * Filtres optionnels de la liste du catalogue (paramètre null = filtre ignoré)
+     */
+    String SUMMARY_FILTER =
+        "(:status IS NULL OR p.status = :status) " +
+        "AND (:category IS NULL OR p.category = :category) " +
+        "AND (:minPrice IS NULL OR p.unitPrice >= :minPrice) " +
+        "AND (:maxPrice IS NULL OR p.unitPrice <= :maxPrice) " +
+        "AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) " +
+        "     OR LOWER(p.productCode) LIKE LOWER(CONCAT('%', :name, '%')))";
     
     List<Product> findByStatus(Product.ProductStatus status);
     
@@ -23,5 +36,24 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByNameContainingIgnoreCase(String name);
     
+    /**
+     * Page filtrée du catalogue en projection légère (les filtres null sont ignorés)
+     */
+    @Query(value = "SELECT new com.enterprise.mcp.domain.repository.ProductSummary(" +
+                   "p.id, p.productCode, p.name, p.category, p.unitPrice, p.stockQuantity, p.status, p.unit, p.updatedAt) " +
+                   "FROM Product p WHERE " + SUMMARY_FILTER,
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE " + SUMMARY_FILTER)
+    Page<ProductSummary> findSummaries(
+        @Param("status") Product.ProductStatus status,
+        @Param("category") Product.ProductCategory category,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("name") String name,
+        Pageable pageable
+    );
+    
+    @Query("SELECT new com.enterprise.mcp.domain.repository.ProductCatalogVersion(MAX(p.updatedAt), COUNT(p)) FROM Product p")
+    ProductCatalogVersion findCatalogVersion();
+    
     boolean existsByProductCode(String productCode);
 }
@@ -0,0 +1,31 @@
+package com.enterprise.mcp.domain.repository;
+
+import com.enterprise.mcp.domain.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection légère d'un produit pour les listes du catalogue
+ *
+ * Ne contient que les colonnes affichées dans les grilles ; le détail
+ * complet (description...) reste accessible via la ressource unitaire.
+ */
+public record ProductSummary(
+    Long id,
+    String productCode,
+    String name,
+    Product.ProductCategory category,
+    BigDecimal unitPrice,
+    Integer stockQuantity,
+    Product.ProductStatus status,
+    String unit,
+    LocalDateTime updatedAt
+) {
+
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(product.getId(), product.getProductCode(), product.getName(),
+            product.getCategory(), product.getUnitPrice(), product.getStockQuantity(),
+            product.getStatus(), product.getUnit(), product.getUpdatedAt());
+    }
+}
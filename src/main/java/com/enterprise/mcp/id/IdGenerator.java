@@ -0,0 +1,128 @@
+package com.enterprise.mcp.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur d'identifiants ordonnés dans le temps (style Snowflake)
+ *
+ * Un identifiant tient sur 64 bits :
+ * - 41 bits : millisecondes écoulées depuis le 01/01/2024 (~69 ans)
+ * - 10 bits : numéro de nœud (ids.node-id, 0 à 1023), unique par instance
+ * - 12 bits : séquence dans la milliseconde (4096 identifiants par ms)
+ *
+ * Aucun recours à SecureRandom ni verrou : l'état (horodatage + séquence)
+ * tient dans un AtomicLong mis à jour par compare-and-set. Les identifiants
+ * sont strictement croissants sur un nœud, même si l'horloge recule : on
+ * continue alors sur le dernier horodatage émis. Si la séquence d'une
+ * milliseconde est épuisée, l'horodatage logique avance d'une milliseconde.
+ *
+ * Forme textuelle : 13 caractères en base 32 de Crockford, de largeur fixe,
+ * donc triables comme les nombres qu'ils représentent. Les index sur ces
+ * identifiants (audit, numéros de commande) sont alimentés en fin d'index.
+ *
+ * Deux instances de même numéro de nœud émettraient les mêmes identifiants
+ * (et donc les mêmes numéros de commande) : en déploiement multi-instances
+ * (state.backend=hazelcast), ids.node-id est obligatoire et le démarrage
+ * échoue s'il n'est pas renseigné. Une instance seule prend le nœud 0.
+ */
+@Component
+@Slf4j
+public class IdGenerator {
+
+    /** 2024-01-01T00:00:00Z */
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+
+    /** Dernier état émis : (millisecondes depuis l'époque << 12) | séquence */
+    private final AtomicLong lastState = new AtomicLong();
+
+    public IdGenerator(@Value("${ids.node-id:}") String configuredNodeId,
+                       @Value("${state.backend:memory}") String stateBackend) {
+        long nodeId = resolveNodeId(configuredNodeId, stateBackend);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("ids.node-id doit être compris entre 0 et " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        log.info("Générateur d'identifiants initialisé (nœud {})", nodeId);
+    }
+
+    private static long resolveNodeId(String configuredNodeId, String stateBackend) {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            try {
+                return Long.parseLong(configuredNodeId.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ids.node-id doit être un entier : " + configuredNodeId, e);
+            }
+        }
+        if ("hazelcast".equalsIgnoreCase(stateBackend)) {
+            throw new IllegalStateException("ids.node-id (NODE_ID) doit être renseigné, et différent sur chaque "
+                + "instance, avec state.backend=hazelcast : sinon deux instances émettent les mêmes identifiants");
+        }
+        return 0L;
+    }
+
+    /**
+     * Nouvel identifiant numérique, strictement croissant sur ce nœud
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            // Horloge en avance : séquence remise à zéro ; sinon (même ms ou recul) : état suivant
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Nouvel identifiant sous forme textuelle (13 caractères, triable)
+     */
+    public String nextIdString() {
+        return encode(nextId());
+    }
+
+    /**
+     * Encode un identifiant en base 32 de Crockford, sur 13 caractères
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Instant d'émission d'un identifiant
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    /**
+     * Date d'émission d'un identifiant dans le fuseau donné
+     */
+    public static LocalDate dateOf(long id, ZoneId zone) {
+        return LocalDate.ofInstant(timestampOf(id), zone);
+    }
+}
@@ -0,0 +1,340 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.id.IdGenerator;
+import com.enterprise.mcp.security.McpCapability;
+import com.enterprise.mcp.service.ProgressListener;
+import com.enterprise.mcp.traffic.TrafficClass;
+import com.enterprise.mcp.traffic.TrafficContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tâches de fond des capacités longues (analyse du portefeuille...)
+ *
+ * Une capacité longue ne bloque plus le thread HTTP jusqu'à la fin du
+ * traitement : elle est confiée à un pool borné (mcp.jobs.threads, au plus
+ * mcp.jobs.max-queued en attente) et l'appelant reçoit un identifiant de
+ * tâche. Si la tâche se termine pendant un court délai de grâce
+ * (mcp.jobs.inline-wait), son résultat est renvoyé directement.
+ *
+ * L'avancement est diffusé :
+ * - sur le flux SSE de la session MCP (notifications/progress), si le
+ *   client a fourni un progressToken dans _meta de tools/call,
+ * - aux abonnés du flux SSE de la tâche (GET /api/chat/jobs/{jobId}/events).
+ *
+ * Une tâche et son résultat restent consultables pendant mcp.jobs.result-ttl
+ * après la fin du traitement, par l'utilisateur qui l'a lancée uniquement.
+ * Le nombre de tâches non terminées de chaque utilisateur est tenu par un
+ * compteur, incrémenté au lancement et décrémenté à la fin du traitement.
+ *
+ * Métriques : mcp.jobs.active et mcp.jobs.queued.
+ */
+@Component
+@Slf4j
+public class AsyncJobManager implements DisposableBean {
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Tâche de fond d'un utilisateur
+     */
+    @Getter
+    public static class Job {
+        private final String id;
+        private final String username;
+        private final McpCapability capability;
+        private final String sessionId;
+        /** Jeton d'avancement fourni par le client MCP (chaîne ou nombre), null sinon */
+        private final JsonNode progressToken;
+        private final Instant createdAt = Instant.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile long progress;
+        private volatile Long total;
+        private volatile String message = "En attente d'exécution";
+        private volatile McpResponse result;
+        private volatile Instant finishedAt;
+        @Getter(AccessLevel.NONE)
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        @Getter(AccessLevel.NONE)
+        private final CompletableFuture<McpResponse> completion = new CompletableFuture<>();
+
+        Job(String id, String username, McpCapability capability, String sessionId, JsonNode progressToken) {
+            this.id = id;
+            this.username = username;
+            this.capability = capability;
+            this.sessionId = sessionId;
+            this.progressToken = progressToken;
+        }
+
+        public boolean isFinished() {
+            return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+        }
+
+        /**
+         * Vue de l'état de la tâche, sans le résultat
+         */
+        public JobView toView() {
+            return new JobView(id, capability.getName(), status, progress, total, message);
+        }
+    }
+
+    /**
+     * État d'une tâche tel qu'exposé au client
+     */
+    public record JobView(String jobId, String capability, JobStatus status, long progress, Long total, String message) {}
+
+    private final Cache<String, Job> jobs;
+    /** Tâches non terminées par utilisateur ; un utilisateur sans tâche en cours n'y figure pas */
+    private final Map<String, Integer> activeByUser = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final IdGenerator idGenerator;
+    private final McpSessionStore sessionStore;
+    private final ObjectMapper objectMapper;
+    private final Duration inlineWait;
+    private final int maxActivePerUser;
+
+    public AsyncJobManager(IdGenerator idGenerator,
+                           McpSessionStore sessionStore,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${mcp.jobs.threads:2}") int threads,
+                           @Value("${mcp.jobs.max-queued:20}") int maxQueued,
+                           @Value("${mcp.jobs.max-active-per-user:3}") int maxActivePerUser,
+                           @Value("${mcp.jobs.inline-wait:PT1S}") Duration inlineWait,
+                           @Value("${mcp.jobs.result-ttl:PT30M}") Duration resultTtl,
+                           @Value("${mcp.jobs.max-jobs:10000}") long maxJobs) {
+        this.idGenerator = idGenerator;
+        this.sessionStore = sessionStore;
+        this.objectMapper = objectMapper;
+        this.inlineWait = inlineWait;
+        this.maxActivePerUser = maxActivePerUser;
+        this.jobs = Caffeine.newBuilder()
+            .maximumSize(maxJobs)
+            .expireAfterWrite(resultTtl)
+            .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                Thread thread = new Thread(runnable, "mcp-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        Gauge.builder("mcp.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Tâches de fond en cours d'exécution")
+            .register(meterRegistry);
+        Gauge.builder("mcp.jobs.queued", executor, e -> e.getQueue().size())
+            .description("Tâches de fond en attente d'un thread")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Lance une tâche de fond
+     *
+     * Le traitement ne doit pas dépendre du contexte de la requête HTTP
+     * (contexte MCP, transaction) : tout ce dont il a besoin est capturé
+     * avant l'appel.
+     *
+     * @param progressToken Jeton d'avancement fourni par le client MCP (optionnel)
+     * @param work Traitement, qui signale son avancement et renvoie le résultat de la capacité
+     * @return La tâche lancée
+     * @throws RejectedExecutionException si l'utilisateur ou le pool a atteint sa limite de tâches
+     */
+    public Job submit(String username, String sessionId, JsonNode progressToken, McpCapability capability,
+                      Function<ProgressListener, McpResponse> work) {
+        boolean[] reserved = new boolean[1];
+        activeByUser.compute(username, (user, active) -> {
+            int current = active != null ? active : 0;
+            if (current >= maxActivePerUser) {
+                return active;
+            }
+            reserved[0] = true;
+            return current + 1;
+        });
+        if (!reserved[0]) {
+            throw new RejectedExecutionException(String.format(
+                "%d tâches déjà en cours : attendre leur fin avant d'en lancer une autre", maxActivePerUser));
+        }
+
+        Job job = new Job("JOB-" + idGenerator.nextIdString(), username, capability, sessionId, progressToken);
+        jobs.put(job.getId(), job);
+        try {
+            // Analyses longues : partition BULK du pool de connexions, le trafic interactif garde la sienne
+            executor.execute(() -> TrafficContext.runAs(TrafficClass.BULK, () -> run(job, work)));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            releaseSlot(username);
+            throw new RejectedExecutionException("Trop de tâches de fond en attente, réessayer dans quelques instants", e);
+        }
+        log.info("Tâche {} ({}) lancée pour {}", job.getId(), capability.getName(), username);
+        return job;
+    }
+
+    /**
+     * Attend la fin de la tâche pendant le délai de grâce
+     *
+     * @return Une copie du résultat si la tâche s'est terminée à temps
+     */
+    public Optional<McpResponse> awaitInline(Job job) {
+        if (inlineWait.isZero()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(job.completion.get(inlineWait.toNanos(), TimeUnit.NANOSECONDS).toBuilder().build());
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Tâche de l'utilisateur ; vide si inconnue, expirée ou lancée par un autre utilisateur
+     */
+    public Optional<Job> find(String jobId, String username) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId))
+            .filter(job -> job.getUsername().equals(username));
+    }
+
+    /**
+     * Ouvre un flux SSE d'avancement de la tâche : événements "progress",
+     * puis un événement "result" à la fin, après lequel le flux est fermé
+     */
+    public SseEmitter subscribe(Job job) {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> job.subscribers.remove(emitter));
+        emitter.onTimeout(() -> job.subscribers.remove(emitter));
+        emitter.onError(e -> job.subscribers.remove(emitter));
+
+        job.subscribers.add(emitter);
+        send(job, emitter, "progress", job.toView());
+        if (job.isFinished() && job.subscribers.remove(emitter)) {
+            // Tâche terminée avant l'abonnement
+            send(job, emitter, "result", job.getResult());
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, Function<ProgressListener, McpResponse> work) {
+        job.status = JobStatus.RUNNING;
+        job.message = "Démarrage";
+        publishProgress(job);
+
+        McpResponse result;
+        try {
+            result = work.apply((done, total, message) -> {
+                job.progress = done;
+                job.total = total;
+                job.message = message;
+                publishProgress(job);
+            });
+        } catch (RuntimeException e) {
+            log.error("Tâche {} en échec", job.getId(), e);
+            result = McpResponse.error("La tâche a échoué: " + e.getMessage());
+        }
+
+        job.result = result;
+        releaseSlot(job.getUsername());
+        job.status = result.isSuccess() ? JobStatus.COMPLETED : JobStatus.FAILED;
+        job.message = result.isSuccess() ? "Terminée" : "En échec";
+        job.finishedAt = Instant.now();
+        if (job.total != null) {
+            job.progress = job.total;
+        }
+        // La durée de conservation du résultat court à partir de la fin du traitement
+        jobs.put(job.getId(), job);
+        job.completion.complete(result);
+
+        publishProgress(job);
+        for (SseEmitter emitter : job.subscribers) {
+            if (job.subscribers.remove(emitter)) {
+                send(job, emitter, "result", result);
+                emitter.complete();
+            }
+        }
+        log.info("Tâche {} terminée ({}) en {} ms", job.getId(), job.status,
+            Duration.between(job.getCreatedAt(), job.finishedAt).toMillis());
+    }
+
+    private void releaseSlot(String username) {
+        activeByUser.computeIfPresent(username, (user, active) -> active > 1 ? active - 1 : null);
+    }
+
+    private void publishProgress(Job job) {
+        if (job.getSessionId() != null && job.getProgressToken() != null) {
+            ObjectNode notification = objectMapper.createObjectNode();
+            notification.put("jsonrpc", "2.0");
+            notification.put("method", "notifications/progress");
+            ObjectNode params = notification.putObject("params");
+            params.set("progressToken", job.getProgressToken());
+            params.put("progress", job.progress);
+            if (job.total != null) {
+                params.put("total", job.total);
+            }
+            params.put("message", job.message);
+            sessionStore.publish(job.getSessionId(), notification);
+        }
+
+        JobView view = job.toView();
+        for (SseEmitter emitter : job.subscribers) {
+            send(job, emitter, "progress", view);
+        }
+    }
+
+    private void send(Job job, SseEmitter emitter, String event, Object data) {
+        try {
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Flux SSE de la tâche {} interrompu: {}", job.getId(), e.getMessage());
+            job.subscribers.remove(emitter);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpCapability;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Réponses rejouables partagées entre instances (IMap Hazelcast)
+ *
+ * Un doublon concurrent, sur cette instance ou une autre, attend sur le
+ * verrou de la clé que le premier appel ait conservé sa réponse ; le verrou
+ * d'un membre qui quitte le cluster est libéré. Durée de vie et taille
+ * maximale : voir HazelcastStateConfig (mcp.idempotency.*).
+ *
+ * Les données structurées (vues des formats compacts) ne sont pas
+ * conservées : la réponse rejouée garde son texte, suffisant pour le LLM.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "hazelcast")
+@Slf4j
+public class HazelcastIdempotencyStore implements IdempotencyStore {
+
+    public static final String MAP_NAME = "mcp-idempotency";
+
+    private final IMap<String, McpResponse> responses;
+
+    public HazelcastIdempotencyStore(HazelcastInstance hazelcast) {
+        this.responses = hazelcast.getMap(MAP_NAME);
+    }
+
+    @Override
+    public McpResponse execute(String username, McpCapability capability, String key,
+                               Supplier<McpResponse> action, Runnable onReplay) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String scopedKey = IdempotencyStore.scopedKey(username, capability, key);
+
+        McpResponse stored = responses.get(scopedKey);
+        if (stored == null) {
+            responses.lock(scopedKey);
+            try {
+                // Un doublon a pu se terminer entre la lecture et l'obtention du verrou
+                stored = responses.get(scopedKey);
+                if (stored == null) {
+                    McpResponse response = action.get();
+                    if (IdempotencyStore.isReplayable(response)) {
+                        responses.set(scopedKey, response.toBuilder().data(null).build());
+                    }
+                    return response.toBuilder().build();
+                }
+            } finally {
+                responses.unlock(scopedKey);
+            }
+        }
+
+        log.info("Appel {} rejoué pour la clé d'idempotence {}", capability.getName(), key);
+        onReplay.run();
+        return stored.toBuilder().build();
+    }
+}
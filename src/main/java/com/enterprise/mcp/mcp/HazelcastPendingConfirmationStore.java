@@ -0,0 +1,70 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.service.dto.PricedOrder;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Commandes en attente de confirmation partagées entre instances (IMap Hazelcast)
+ *
+ * Les transitions d'état s'exécutent sur le membre propriétaire de l'entrée
+ * (entry processor) : deux confirmations simultanées reçues par deux
+ * instances ne peuvent pas réserver la même commande. Durée de vie et taille
+ * maximale : voir HazelcastStateConfig (mcp.confirmation.*).
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "hazelcast")
+public class HazelcastPendingConfirmationStore implements PendingConfirmationStore {
+
+    public static final String MAP_NAME = "mcp-pending-confirmations";
+
+    private final IMap<String, PendingOrder> pending;
+
+    public HazelcastPendingConfirmationStore(HazelcastInstance hazelcast) {
+        this.pending = hazelcast.getMap(MAP_NAME);
+    }
+
+    @Override
+    public void register(String correlationId, String username, PricedOrder order) {
+        pending.set(correlationId, new PendingOrder(correlationId, username, order, State.PENDING, null));
+    }
+
+    @Override
+    public Optional<PendingOrder> claim(String correlationId, String username) {
+        PendingOrder previous = pending.executeOnKey(correlationId, entry -> {
+            PendingOrder current = entry.getValue();
+            if (current == null || !current.username().equals(username)) {
+                return null;
+            }
+            if (current.state() == State.PENDING) {
+                entry.setValue(current.withState(State.CONFIRMING, null));
+            }
+            return current;
+        });
+        return Optional.ofNullable(previous);
+    }
+
+    @Override
+    public void complete(String correlationId, String orderNumber) {
+        pending.executeOnKey(correlationId, entry -> {
+            if (entry.getValue() != null) {
+                entry.setValue(entry.getValue().withState(State.COMPLETED, orderNumber));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void release(String correlationId) {
+        pending.executeOnKey(correlationId, entry -> {
+            if (entry.getValue() != null && entry.getValue().state() == State.CONFIRMING) {
+                entry.setValue(entry.getValue().withState(State.PENDING, null));
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpCapability;
+
+import java.util.function.Supplier;
+
+/**
+ * Réponses des capacités d'écriture, indexées par clé d'idempotence
+ *
+ * Les LLM rejouent volontiers un appel d'outil (délai, erreur réseau, doute) :
+ * un second createOrder identique créerait une seconde commande. Quand l'appel
+ * porte une clé d'idempotence, la réponse est conservée et un nouvel appel
+ * avec la même clé la renvoie telle quelle, avant tout accès à la base.
+ *
+ * Les clés sont propres à un utilisateur et à une capacité. Un doublon qui
+ * arrive pendant l'exécution du premier appel attend son résultat plutôt que
+ * de refaire le travail. Seuls les aboutissements sont conservés (succès,
+ * demande de confirmation) : après une erreur, un refus ou une validation
+ * échouée, un nouvel essai est réellement exécuté.
+ *
+ * Chaque appel reçoit sa propre copie de la réponse : le rendu pour le LLM
+ * ne doit pas modifier celle qui est conservée.
+ *
+ * Deux implémentations, choisies par state.backend :
+ * - memory (défaut) : dans le tas de l'instance
+ * - hazelcast : partagées entre les instances, un appel rejoué sur une autre
+ *   instance que le premier est lui aussi reconnu
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Exécute l'action une seule fois par clé, ou renvoie la réponse déjà obtenue
+     *
+     * @param username   Utilisateur à l'origine de l'appel
+     * @param capability Capacité appelée
+     * @param key        Clé d'idempotence ; sans clé, l'action est toujours exécutée
+     * @param action     Traitement de la capacité
+     * @param onReplay   Appelé quand la réponse est rejouée (audit)
+     */
+    McpResponse execute(String username, McpCapability capability, String key,
+                        Supplier<McpResponse> action, Runnable onReplay);
+
+    static String scopedKey(String username, McpCapability capability, String key) {
+        return username + '|' + capability.getName() + '|' + key;
+    }
+
+    static boolean isReplayable(McpResponse response) {
+        return response.getStatus() == McpResponse.ResponseStatus.SUCCESS
+            || response.getStatus() == McpResponse.ResponseStatus.REQUIRES_CONFIRMATION;
+    }
+}
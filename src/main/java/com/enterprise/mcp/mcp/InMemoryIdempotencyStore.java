@@ -0,0 +1,90 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpCapability;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Réponses rejouables dans le tas de l'instance
+ *
+ * Les réponses expirent après mcp.idempotency.ttl ; un doublon concurrent
+ * attend le résultat du premier appel sur un futur local.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, McpResponse> responses;
+    private final Map<String, CompletableFuture<McpResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public InMemoryIdempotencyStore(@Value("${mcp.idempotency.ttl:PT24H}") Duration ttl,
+                                    @Value("${mcp.idempotency.max-entries:10000}") long maxEntries) {
+        this.responses = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    @Override
+    public McpResponse execute(String username, McpCapability capability, String key,
+                               Supplier<McpResponse> action, Runnable onReplay) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String scopedKey = IdempotencyStore.scopedKey(username, capability, key);
+
+        McpResponse stored = responses.getIfPresent(scopedKey);
+        if (stored != null) {
+            log.info("Appel {} rejoué pour la clé d'idempotence {}", capability.getName(), key);
+            onReplay.run();
+            return stored.toBuilder().build();
+        }
+
+        CompletableFuture<McpResponse> mine = new CompletableFuture<>();
+        CompletableFuture<McpResponse> running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            log.info("Appel {} en double pendant son exécution, attente du résultat (clé {})",
+                capability.getName(), key);
+            McpResponse response = awaitResult(running);
+            onReplay.run();
+            return response.toBuilder().build();
+        }
+
+        try {
+            // Le premier appel a pu se terminer entre la lecture du cache et l'inscription
+            stored = responses.getIfPresent(scopedKey);
+            McpResponse response = stored != null ? stored : action.get();
+            if (stored == null && IdempotencyStore.isReplayable(response)) {
+                responses.put(scopedKey, response);
+            }
+            mine.complete(response);
+            return response.toBuilder().build();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    private static McpResponse awaitResult(CompletableFuture<McpResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.service.dto.PricedOrder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Commandes en attente de confirmation dans le tas de l'instance
+ *
+ * Les transitions d'état sont atomiques (compute sur l'entrée) ; au plus
+ * mcp.confirmation.max-pending entrées sont conservées.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPendingConfirmationStore implements PendingConfirmationStore {
+
+    private final Cache<String, PendingOrder> pending;
+
+    public InMemoryPendingConfirmationStore(@Value("${mcp.confirmation.ttl:PT15M}") Duration ttl,
+                                            @Value("${mcp.confirmation.max-pending:10000}") long maxPending) {
+        this.pending = Caffeine.newBuilder()
+            .maximumSize(maxPending)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    @Override
+    public void register(String correlationId, String username, PricedOrder order) {
+        pending.put(correlationId, new PendingOrder(correlationId, username, order, State.PENDING, null));
+    }
+
+    @Override
+    public Optional<PendingOrder> claim(String correlationId, String username) {
+        PendingOrder[] previous = new PendingOrder[1];
+        pending.asMap().computeIfPresent(correlationId, (id, entry) -> {
+            if (!entry.username().equals(username)) {
+                return entry;
+            }
+            previous[0] = entry;
+            return entry.state() == State.PENDING ? entry.withState(State.CONFIRMING, null) : entry;
+        });
+        return Optional.ofNullable(previous[0]);
+    }
+
+    @Override
+    public void complete(String correlationId, String orderNumber) {
+        pending.asMap().computeIfPresent(correlationId,
+            (id, entry) -> entry.withState(State.COMPLETED, orderNumber));
+    }
+
+    @Override
+    public void release(String correlationId) {
+        pending.asMap().computeIfPresent(correlationId,
+            (id, entry) -> entry.state() == State.CONFIRMING ? entry.withState(State.PENDING, null) : entry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.enterprise.mcp.mcp;
+
+import lombok.Getter;
+
+/**
+ * Erreur JSON-RPC renvoyée au client MCP dans le champ "error" de la réponse
+ *
+ * Les erreurs métier d'un outil (introuvable, accès refusé, quota...) ne
+ * passent pas par là : ce sont des résultats d'outil avec isError=true.
+ */
+@Getter
+public class JsonRpcException extends RuntimeException {
+
+    public static final int PARSE_ERROR = -32700;
+    public static final int INVALID_REQUEST = -32600;
+    public static final int METHOD_NOT_FOUND = -32601;
+    public static final int INVALID_PARAMS = -32602;
+    public static final int INTERNAL_ERROR = -32603;
+
+    private final int code;
+
+    public JsonRpcException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+}
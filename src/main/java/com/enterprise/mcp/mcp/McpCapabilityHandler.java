@@ -1,24 +1,46 @@
 package com.enterprise.mcp.mcp;
 
 import com.enterprise.mcp.audit.McpAuditService;
+import com.enterprise.mcp.domain.entity.Customer;
+import com.enterprise.mcp.domain.entity.Invoice;
 import com.enterprise.mcp.domain.entity.Order;
-import com.enterprise.mcp.domain.entity.Product;
+import com.enterprise.mcp.domain.entity.OrderLine;
+import com.enterprise.mcp.report.ReportBuilder;
 import com.enterprise.mcp.security.McpCapability;
 import com.enterprise.mcp.security.McpSecurityContext;
 import com.enterprise.mcp.service.CustomerService;
 import com.enterprise.mcp.service.InvoiceService;
 import com.enterprise.mcp.service.OrderService;
-import com.enterprise.mcp.service.ProductService;
+import com.enterprise.mcp.service.PortfolioRiskService;
+import com.enterprise.mcp.service.ProgressListener;
+import com.enterprise.mcp.service.dto.BatchView;
 import com.enterprise.mcp.service.dto.CreateOrderRequest;
 import com.enterprise.mcp.service.dto.CustomerActivitySummary;
+import com.enterprise.mcp.service.dto.CustomerMatch;
 import com.enterprise.mcp.service.dto.InvoiceAnalysis;
+import com.enterprise.mcp.service.dto.InvoiceHistoryPage;
+import com.enterprise.mcp.service.dto.OrderLinesPage;
 import com.enterprise.mcp.service.dto.OrderValidationResult;
+import com.enterprise.mcp.service.dto.OrderView;
+import com.enterprise.mcp.service.dto.PortfolioRiskReport;
+import com.enterprise.mcp.service.dto.PricedOrder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Gestionnaire central des capacités MCP
@@ -36,12 +58,33 @@ import java.util.Optional;
 @Slf4j
 public class McpCapabilityHandler {
     
+    /** Taille moyenne d'une ligne de commande rédigée, pour dimensionner le tampon */
+    private static final int ORDER_LINE_LENGTH = 96;
+    /** Taille moyenne d'une ligne de l'historique des factures */
+    private static final int INVOICE_ROW_LENGTH = 112;
+    private static final String UNKNOWN_PAGE_TOKEN = "Jeton de page inconnu ou expiré : relancer sans pageToken";
+    private static final String INVALID_TOP_COUNT = "topCount doit être au moins 1";
+    private static final BigDecimal VAT_RATE = new BigDecimal("0.20");
+    private static final BigDecimal VAT_INCLUDED_FACTOR = new BigDecimal("1.20");
+    
     private final OrderService orderService;
     private final InvoiceService invoiceService;
     private final CustomerService customerService;
-    private final ProductService productService;
+    private final PortfolioRiskService portfolioRiskService;
     private final McpAuditService auditService;
     private final McpSecurityContext securityContext;
+    private final PendingConfirmationStore confirmationStore;
+    private final IdempotencyStore idempotencyStore;
+    private final PageCursorStore pageCursorStore;
+    private final AsyncJobManager jobManager;
+    
+    /** Nombre maximum d'identifiants par appel d'une capacité multi-identifiants */
+    @Value("${mcp.batch.max-keys:20}")
+    private int maxBatchKeys;
+    
+    /** Nombre d'éléments par page des résultats paginés (lignes de commande, factures) */
+    @Value("${mcp.pagination.page-size:50}")
+    private int pageSize;
     
     /**
      * Capacité : Rechercher une commande
@@ -50,6 +93,21 @@ public class McpCapabilityHandler {
      * @return Informations sur la commande formatées pour l'IA
      */
     public McpResponse findOrder(String orderNumber) {
+        return findOrder(orderNumber, null);
+    }
+    
+    /**
+     * Capacité : Rechercher une commande, lignes paginées
+     * 
+     * La première page porte l'en-tête de la commande et ses pageSize
+     * premières lignes ; les pages suivantes, obtenues avec le jeton renvoyé,
+     * ne contiennent que les lignes.
+     * 
+     * @param orderNumber Numéro de la commande à rechercher
+     * @param pageToken Jeton de la page suivante (optionnel)
+     * @return Informations sur la commande formatées pour l'IA
+     */
+    public McpResponse findOrder(String orderNumber, String pageToken) {
         McpCapability capability = McpCapability.FIND_ORDER;
         
         // Vérification des droits
@@ -57,10 +115,16 @@ public class McpCapabilityHandler {
         
         // Audit - début
         String correlationId = auditService.startCapabilityCall(
-            securityContext, capability, Map.of("orderNumber", orderNumber)
+            securityContext, capability, pageToken == null
+                ? Map.of("orderNumber", orderNumber)
+                : Map.of("orderNumber", orderNumber, "pageToken", pageToken)
         );
         
         try {
+            if (pageToken != null) {
+                return nextOrderLines(orderNumber, pageToken, correlationId);
+            }
+            
             Optional<Order> orderOpt = orderService.findByOrderNumber(orderNumber);
             
             if (orderOpt.isEmpty()) {
@@ -70,12 +134,13 @@ public class McpCapabilityHandler {
             }
             
             Order order = orderOpt.get();
-            String formattedResult = formatOrderForAI(order);
+            OrderPage page = firstOrderPage(order);
+            String formattedResult = formatOrderForAI(order, page.lines(), page.totalLines());
             
             auditService.completeCapabilityCall(correlationId, capability, 
                 "Commande trouvée: " + orderNumber);
             
-            return McpResponse.success(formattedResult);
+            return McpResponse.page(formattedResult, OrderView.of(order, page.lines()), page.nextPageToken());
             
         } catch (Exception e) {
             auditService.failCapabilityCall(correlationId, capability, e.getMessage());
@@ -113,7 +178,7 @@ public class McpCapabilityHandler {
             auditService.completeCapabilityCall(correlationId, capability, 
                 "Facture analysée: " + invoiceNumber + " - Risque: " + analysis.getRiskLevel());
             
-            return McpResponse.success(formattedResult);
+            return McpResponse.success(formattedResult, analysis.toCompactView());
             
         } catch (Exception e) {
             auditService.failCapabilityCall(correlationId, capability, e.getMessage());
@@ -151,7 +216,7 @@ public class McpCapabilityHandler {
             auditService.completeCapabilityCall(correlationId, capability, 
                 "Résumé généré pour: " + customerCode);
             
-            return McpResponse.success(formattedResult);
+            return McpResponse.success(formattedResult, summary.toCompactView());
             
         } catch (Exception e) {
             auditService.failCapabilityCall(correlationId, capability, e.getMessage());
@@ -159,27 +224,344 @@ public class McpCapabilityHandler {
         }
     }
     
+    /**
+     * Capacité : Lister les factures d'un client, par pages
+     * 
+     * Historique de la plus récente à la plus ancienne, pageSize factures par
+     * page ; la page suivante est lue par keyset (date d'émission, ID) à
+     * partir de la position mémorisée sous le jeton.
+     * 
+     * @param customerCode Code du client
+     * @param pageToken Jeton de la page suivante (optionnel)
+     * @return Une page de l'historique des factures
+     */
+    public McpResponse listCustomerInvoices(String customerCode, String pageToken) {
+        McpCapability capability = McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY;
+        
+        securityContext.requireCapability(capability);
+        
+        String correlationId = auditService.startCapabilityCall(
+            securityContext, capability, pageToken == null
+                ? Map.of("customerCode", customerCode)
+                : Map.of("customerCode", customerCode, "pageToken", pageToken)
+        );
+        
+        try {
+            PageCursorStore.PageCursor cursor = null;
+            Long customerId;
+            long total;
+            if (pageToken != null) {
+                Optional<PageCursorStore.PageCursor> cursorOpt = findCursor(pageToken, "listCustomerInvoices", customerCode);
+                if (cursorOpt.isEmpty()) {
+                    auditService.completeCapabilityCall(correlationId, capability, UNKNOWN_PAGE_TOKEN);
+                    return McpResponse.validationFailed(UNKNOWN_PAGE_TOKEN);
+                }
+                cursor = cursorOpt.get();
+                customerId = cursor.targetId();
+                total = cursor.total();
+            } else {
+                Optional<Customer> customerOpt = customerService.findByCode(customerCode);
+                if (customerOpt.isEmpty()) {
+                    String result = String.format("Aucun client trouvé avec le code: %s", customerCode);
+                    auditService.completeCapabilityCall(correlationId, capability, result);
+                    return McpResponse.notFound(result);
+                }
+                customerId = customerOpt.get().getId();
+                total = invoiceService.countByCustomer(customerId);
+            }
+            
+            List<Invoice> invoices = cursor == null
+                ? invoiceService.findHistoryPage(customerId, null, null, pageSize + 1)
+                : invoiceService.findHistoryPage(customerId, cursor.lastDate(), cursor.lastId(), pageSize + 1);
+            int served = cursor == null ? 0 : cursor.served();
+            
+            String nextPageToken = null;
+            if (invoices.size() > pageSize) {
+                invoices = invoices.subList(0, pageSize);
+                Invoice last = invoices.get(pageSize - 1);
+                nextPageToken = pageCursorStore.open(new PageCursorStore.PageCursor(
+                    securityContext.getUsername(), "listCustomerInvoices", customerCode, customerId,
+                    last.getIssueDate(), last.getId(), served + pageSize, total));
+            }
+            
+            int from = served + 1;
+            String formattedResult = formatInvoiceHistory(customerCode, invoices, from, total);
+            
+            auditService.completeCapabilityCall(correlationId, capability, 
+                String.format("Factures %d à %d sur %d pour: %s", from, served + invoices.size(), total, customerCode));
+            
+            return McpResponse.page(formattedResult,
+                new InvoiceHistoryPage(customerCode, from, total, invoices.stream().map(InvoiceHistoryPage.Row::of).toList()),
+                nextPageToken);
+            
+        } catch (Exception e) {
+            auditService.failCapabilityCall(correlationId, capability, e.getMessage());
+            return McpResponse.error("Erreur lors de la lecture des factures: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Capacité : Analyser le risque crédit du portefeuille
+     * 
+     * @param topCount Nombre de clients les plus exposés à détailler
+     * @return Synthèse de l'exposition du portefeuille formatée pour l'IA
+     */
+    public McpResponse scanPortfolioRisk(int topCount) {
+        McpCapability capability = McpCapability.SCAN_PORTFOLIO_RISK;
+        
+        securityContext.requireCapability(capability);
+        
+        if (topCount < 1) {
+            return McpResponse.validationFailed(INVALID_TOP_COUNT);
+        }
+        
+        String correlationId = auditService.startCapabilityCall(
+            securityContext, capability, Map.of("topCount", topCount)
+        );
+        
+        return runPortfolioRiskScan(topCount, ProgressListener.NONE, correlationId);
+    }
+    
+    /**
+     * Capacité : Analyser le risque crédit du portefeuille, en tâche de fond
+     * 
+     * Même analyse que scanPortfolioRisk, exécutée hors du thread de la
+     * requête. Si elle se termine pendant le délai de grâce, son résultat
+     * est renvoyé directement ; sinon la réponse donne l'identifiant de la
+     * tâche, à passer à getJobResult.
+     * 
+     * @param topCount Nombre de clients les plus exposés à détailler
+     * @return Le résultat de l'analyse, ou l'état de la tâche lancée
+     */
+    public McpResponse startPortfolioRiskScan(int topCount) {
+        McpCapability capability = McpCapability.SCAN_PORTFOLIO_RISK;
+        
+        securityContext.requireCapability(capability);
+        
+        if (topCount < 1) {
+            return McpResponse.validationFailed(INVALID_TOP_COUNT);
+        }
+        
+        String correlationId = auditService.startCapabilityCall(
+            securityContext, capability, Map.of("topCount", topCount, "async", true)
+        );
+        
+        AsyncJobManager.Job job;
+        try {
+            // Le traitement ne reçoit que des valeurs : le contexte MCP est lié à la requête
+            job = jobManager.submit(securityContext.getUsername(), securityContext.getSessionId(),
+                securityContext.getProgressToken(), capability,
+                progress -> runPortfolioRiskScan(topCount, progress, correlationId));
+        } catch (RejectedExecutionException e) {
+            auditService.failCapabilityCall(correlationId, capability, e.getMessage());
+            return McpResponse.rateLimited(e.getMessage());
+        }
+        
+        return jobManager.awaitInline(job)
+            .orElseGet(() -> McpResponse.success(formatJobStatus(job), job.toView()));
+    }
+    
+    /**
+     * Capacité : Consulter une tâche de fond
+     * 
+     * @param jobId Identifiant renvoyé au lancement de la tâche
+     * @return Le résultat de la capacité si la tâche est terminée, son avancement sinon
+     */
+    public McpResponse getJobResult(String jobId) {
+        McpCapability capability = McpCapability.GET_JOB_RESULT;
+        
+        securityContext.requireCapability(capability);
+        
+        String correlationId = auditService.startCapabilityCall(
+            securityContext, capability, Map.of("jobId", jobId)
+        );
+        
+        Optional<AsyncJobManager.Job> jobOpt = jobManager.find(jobId, securityContext.getUsername());
+        if (jobOpt.isEmpty()) {
+            String result = String.format("Aucune tâche trouvée avec l'identifiant: %s (inconnue ou expirée)", jobId);
+            auditService.completeCapabilityCall(correlationId, capability, result);
+            return McpResponse.notFound(result);
+        }
+        
+        AsyncJobManager.Job job = jobOpt.get();
+        auditService.completeCapabilityCall(correlationId, capability, 
+            "Tâche " + jobId + ": " + job.getStatus());
+        
+        if (!job.isFinished()) {
+            return McpResponse.success(formatJobStatus(job), job.toView());
+        }
+        // Copie : le rendu de la réponse renseigne ses métadonnées
+        return job.getResult().toBuilder().build();
+    }
+    
+    /**
+     * Capacité : Rechercher des clients par nom
+     * 
+     * Permet à l'IA de retrouver le code client à partir d'un nom approximatif
+     * (faute de frappe, accent manquant, nom partiel).
+     * 
+     * @param name Nom (ou partie du nom) de l'entreprise
+     * @return Clients correspondants, du plus pertinent au moins pertinent
+     */
+    public McpResponse searchCustomers(String name) {
+        McpCapability capability = McpCapability.SEARCH_CUSTOMERS;
+        
+        securityContext.requireCapability(capability);
+        
+        String correlationId = auditService.startCapabilityCall(
+            securityContext, capability, Map.of("name", name)
+        );
+        
+        try {
+            List<Customer> customers = customerService.searchByCompanyName(name);
+            
+            if (customers.isEmpty()) {
+                String result = String.format("Aucun client trouvé pour: %s", name);
+                auditService.completeCapabilityCall(correlationId, capability, result);
+                return McpResponse.notFound(result);
+            }
+            
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== Clients correspondant à \"").append(name).append("\" ===\n\n");
+            for (Customer customer : customers) {
+                sb.append("- ").append(customer.getCompanyName())
+                  .append(" (").append(customer.getCustomerCode()).append(")")
+                  .append(" | Segment: ").append(customer.getSegment())
+                  .append(" | Statut: ").append(customer.getStatus())
+                  .append("\n");
+            }
+            
+            auditService.completeCapabilityCall(correlationId, capability, 
+                customers.size() + " client(s) trouvé(s) pour: " + name);
+            
+            return McpResponse.success(sb.toString(), customers.stream().map(CustomerMatch::of).toList());
+            
+        } catch (Exception e) {
+            auditService.failCapabilityCall(correlationId, capability, e.getMessage());
+            return McpResponse.error("Erreur lors de la recherche de clients: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Capacité : Rechercher plusieurs commandes en un appel
+     * 
+     * Mêmes droits et même audit (une entrée par numéro) que findOrder ;
+     * les commandes sont lues en une requête, client compris, puis les
+     * pageSize premières lignes de chacune par keyset. Au-delà, la commande
+     * est tronquée et accompagnée du jeton de page que findOrder reprend.
+     * 
+     * @param orderNumbers Numéros des commandes à rechercher
+     * @return Les commandes trouvées et la liste des numéros inconnus
+     */
+    public McpResponse findOrders(List<String> orderNumbers) {
+        return lookupMany(McpCapability.FIND_ORDER, "orderNumber", orderNumbers,
+            keys -> orderService.findByOrderNumbers(keys).stream()
+                .collect(Collectors.toMap(Order::getOrderNumber, Function.identity())),
+            order -> {
+                OrderPage page = firstOrderPage(order);
+                String report = formatOrderForAI(order, page.lines(), page.totalLines());
+                if (page.nextPageToken() != null) {
+                    report += "\n[Suite des lignes : rappeler findOrder avec orderNumber=" + order.getOrderNumber()
+                        + " et pageToken=" + page.nextPageToken() + "]";
+                }
+                return new BatchItem(report, OrderView.of(order, page.lines(), page.nextPageToken()),
+                    "Commande trouvée: " + order.getOrderNumber());
+            },
+            "Aucune commande trouvée avec le numéro: %s");
+    }
+    
+    /**
+     * Capacité : Analyser plusieurs factures en un appel
+     * 
+     * Mêmes droits et même audit (une entrée par numéro) qu'analyzeInvoice ;
+     * l'historique des clients concernés est calculé en une requête groupée.
+     * 
+     * @param invoiceNumbers Numéros des factures à analyser
+     * @return Les analyses des factures trouvées et la liste des numéros inconnus
+     */
+    public McpResponse analyzeInvoices(List<String> invoiceNumbers) {
+        return lookupMany(McpCapability.ANALYZE_INVOICE, "invoiceNumber", invoiceNumbers,
+            keys -> invoiceService.analyzeInvoices(keys).stream()
+                .collect(Collectors.toMap(InvoiceAnalysis::getInvoiceNumber, Function.identity())),
+            analysis -> new BatchItem(analysis.toNaturalLanguageReport(), analysis.toCompactView(),
+                "Facture analysée: " + analysis.getInvoiceNumber() + " - Risque: " + analysis.getRiskLevel()),
+            "Aucune facture trouvée avec le numéro: %s");
+    }
+    
+    /**
+     * Capacité : Résumer l'activité de plusieurs clients en un appel
+     * 
+     * Mêmes droits et même audit (une entrée par code) que summarizeCustomerActivity ;
+     * les compteurs et montants de tous les clients sont calculés par requêtes groupées.
+     * 
+     * @param customerCodes Codes des clients à résumer
+     * @return Les résumés des clients trouvés et la liste des codes inconnus
+     */
+    public McpResponse summarizeCustomers(List<String> customerCodes) {
+        return lookupMany(McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY, "customerCode", customerCodes,
+            keys -> customerService.summarizeActivities(List.copyOf(keys)).stream()
+                .collect(Collectors.toMap(summary -> summary.getCustomer().getCustomerCode(), Function.identity())),
+            summary -> new BatchItem(summary.toNaturalLanguageSummary(), summary.toCompactView(),
+                "Résumé généré pour: " + summary.getCustomer().getCustomerCode()),
+            "Aucun client trouvé avec le code: %s");
+    }
+    
     /**
      * Capacité : Créer une commande (AVEC CONFIRMATION)
      * 
      * Cette capacité est en deux étapes :
-     * 1. Validation et demande de confirmation
-     * 2. Création effective après confirmation
+     * 1. Validation et demande de confirmation : la commande chiffrée est
+     *    conservée sous le correlationId renvoyé
+     * 2. Création effective après confirmation : si le correlationId est fourni,
+     *    la commande conservée est créée sans nouvelle validation complète
      * 
      * @param request Données de la commande à créer
+     * @param confirmed True si l'utilisateur a confirmé la création
+     * @param confirmationId correlationId de la demande de confirmation (optionnel)
+     * @param idempotencyKey Clé d'idempotence : un appel rejoué avec la même clé
+     *                       renvoie la réponse du premier (optionnel)
      * @return Résultat de la validation ou confirmation de création
      */
-    public McpResponse createOrder(CreateOrderRequest request, boolean confirmed) {
+    public McpResponse createOrder(CreateOrderRequest request, boolean confirmed,
+                                   String confirmationId, String idempotencyKey) {
         McpCapability capability = McpCapability.CREATE_ORDER;
         
         securityContext.requireCapability(capability);
         
+        // La clé vaut pour une étape : la demande, puis la confirmation qui la suit,
+        // même si l'appelant réutilise la clé. Sans clé explicite, une confirmation
+        // est identifiée par la demande qu'elle confirme.
+        String phase = confirmed ? "confirm:" + confirmationId : "request";
+        String key = idempotencyKey != null ? idempotencyKey + '|' + phase
+            : (confirmed && confirmationId != null ? phase : null);
+        
+        return idempotent(capability, key, () -> executeCreateOrder(request, confirmed, confirmationId));
+    }
+    
+    public McpResponse createOrder(CreateOrderRequest request, boolean confirmed) {
+        return createOrder(request, confirmed, null, null);
+    }
+    
+    private McpResponse executeCreateOrder(CreateOrderRequest request, boolean confirmed, String confirmationId) {
+        McpCapability capability = McpCapability.CREATE_ORDER;
+        
         String correlationId = auditService.startCapabilityCall(
             securityContext, capability, 
-            Map.of("customerCode", request.getCustomerCode(), "confirmed", confirmed)
+            Map.of("customerCode", request.getCustomerCode(), "confirmed", confirmed,
+                "confirmationId", String.valueOf(confirmationId))
         );
         
         try {
+            if (confirmed && confirmationId != null) {
+                Optional<PendingConfirmationStore.PendingOrder> pending =
+                    confirmationStore.claim(confirmationId, securityContext.getUsername());
+                if (pending.isPresent()) {
+                    return confirmPendingOrder(pending.get(), correlationId, capability);
+                }
+                // Demande inconnue ou expirée : validation complète comme pour une première demande
+                log.info("Confirmation {} introuvable ou expirée, validation complète", confirmationId);
+            }
+            
             // Étape 1 : Validation
             OrderValidationResult validation = orderService.validateOrderRequest(request);
             
@@ -191,13 +573,17 @@ public class McpCapabilityHandler {
             
             // Si non confirmé, demander confirmation avec détails produits enrichis
             if (!confirmed) {
-                String confirmationSummary = generateEnrichedConfirmationSummary(request);
+                PricedOrder pricedOrder = orderService.priceOrder(request);
+                confirmationStore.register(correlationId, securityContext.getUsername(), pricedOrder);
+                
+                String confirmationSummary = generateEnrichedConfirmationSummary(pricedOrder);
                 auditService.logConfirmationRequired(correlationId, capability, confirmationSummary);
                 
                 return McpResponse.requiresConfirmation(
                     correlationId,
                     confirmationSummary + "\n\n" + validation.toExplanation() +
-                    "\n\n⚠️ Confirmez-vous la création de cette commande?"
+                    "\n\n⚠️ Confirmez-vous la création de cette commande? " +
+                    "(rappeler createOrder avec confirmed=true et confirmationId=" + correlationId + ")"
                 );
             }
             
@@ -206,23 +592,10 @@ public class McpCapabilityHandler {
             
             Order createdOrder = orderService.createOrder(request, securityContext.getUsername());
             
-            String successMessage = String.format(
-                "✅ Commande créée avec succès!\n\n" +
-                "Numéro de commande: %s\n" +
-                "Client: %s\n" +
-                "Montant total: %,.2f €\n" +
-                "Statut: %s\n\n" +
-                "La commande est en attente de validation.",
-                createdOrder.getOrderNumber(),
-                createdOrder.getCustomer().getCompanyName(),
-                createdOrder.getTotalAmount(),
-                createdOrder.getStatus()
-            );
-            
             auditService.completeCapabilityCall(correlationId, capability, 
                 "Commande créée: " + createdOrder.getOrderNumber());
             
-            return McpResponse.success(successMessage);
+            return McpResponse.success(formatCreatedOrder(createdOrder));
             
         } catch (Exception e) {
             auditService.failCapabilityCall(correlationId, capability, e.getMessage());
@@ -231,92 +604,348 @@ public class McpCapabilityHandler {
     }
     
     /**
-     * Formate une commande pour l'affichage IA
+     * Crée la commande conservée lors de la demande de confirmation
+     * 
+     * Une confirmation en double ne crée pas de seconde commande : elle renvoie
+     * le numéro de la commande déjà créée, ou signale que la création est en cours.
      */
-    private String formatOrderForAI(Order order) {
-        StringBuilder sb = new StringBuilder();
-        
-        sb.append("=== Commande ").append(order.getOrderNumber()).append(" ===\n\n");
-        sb.append("**Client:** ").append(order.getCustomer().getCompanyName()).append("\n");
-        sb.append("**Statut:** ").append(order.getStatus()).append("\n");
-        sb.append("**Date de commande:** ").append(order.getOrderDate().toLocalDate()).append("\n");
-        
-        if (order.getExpectedDeliveryDate() != null) {
-            sb.append("**Livraison prévue:** ").append(order.getExpectedDeliveryDate().toLocalDate()).append("\n");
+    private McpResponse confirmPendingOrder(PendingConfirmationStore.PendingOrder pending,
+                                            String correlationId, McpCapability capability) {
+        switch (pending.state()) {
+            case COMPLETED -> {
+                auditService.completeCapabilityCall(correlationId, capability,
+                    "Confirmation en double, commande déjà créée: " + pending.orderNumber());
+                return McpResponse.success("✅ Cette commande a déjà été créée: " + pending.orderNumber()
+                    + "\nAucune nouvelle commande n'a été enregistrée.");
+            }
+            case CONFIRMING -> {
+                auditService.completeCapabilityCall(correlationId, capability,
+                    "Confirmation en double, création en cours: " + pending.correlationId());
+                return McpResponse.error("La création de cette commande est déjà en cours.");
+            }
+            default -> {
+                // PENDING : la réservation vient d'être obtenue
+            }
         }
         
-        sb.append("\n**Lignes de commande:**\n");
-        order.getLines().forEach(line -> {
-            sb.append("- ").append(line.getProductName())
-              .append(" (").append(line.getProductCode()).append(")")
-              .append(" x ").append(line.getQuantity())
-              .append(" @ ").append(String.format("%,.2f €", line.getUnitPrice()))
-              .append(" = ").append(String.format("%,.2f €", line.getLineTotal()))
-              .append("\n");
-        });
-        
-        sb.append("\n**Total HT:** ").append(String.format("%,.2f €", order.getTotalAmount())).append("\n");
-        sb.append("**TVA:** ").append(String.format("%,.2f €", order.getTaxAmount())).append("\n");
-        sb.append("**Total TTC:** ").append(String.format("%,.2f €", 
-            order.getTotalAmount().add(order.getTaxAmount()))).append("\n");
-        
-        if (order.getNotes() != null && !order.getNotes().isBlank()) {
-            sb.append("\n**Notes:** ").append(order.getNotes()).append("\n");
+        auditService.logConfirmationReceived(correlationId, true, securityContext.getUsername());
+        
+        Order createdOrder;
+        try {
+            createdOrder = orderService.createOrder(pending.order(), securityContext.getUsername());
+        } catch (RuntimeException e) {
+            confirmationStore.release(pending.correlationId());
+            throw e;
         }
+        confirmationStore.complete(pending.correlationId(), createdOrder.getOrderNumber());
         
-        sb.append("\n**Adresse de livraison:** ").append(order.getShippingAddress()).append("\n");
+        auditService.completeCapabilityCall(correlationId, capability, 
+            "Commande créée: " + createdOrder.getOrderNumber() + " (confirmation " + pending.correlationId() + ")");
         
-        return sb.toString();
+        return McpResponse.success(formatCreatedOrder(createdOrder));
     }
     
     /**
-     * Génère un résumé de confirmation enrichi avec les détails des produits
-     * récupérés depuis la base de données
+     * Rapport, vue compacte et résumé d'audit d'un élément d'une capacité multi-identifiants
+     */
+    private record BatchItem(String report, Object view, String auditSummary) {}
+    
+    /**
+     * Déroulé commun des capacités multi-identifiants
+     * 
+     * Les identifiants sont dédoublonnés dans l'ordre de la demande. Chacun
+     * compte comme un appel unitaire pour les droits, le quota et l'audit ;
+     * la lecture, elle, est faite en une fois pour tout le lot.
      */
-    private String generateEnrichedConfirmationSummary(CreateOrderRequest request) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("=== Confirmation de commande ===\n\n");
-        sb.append("**Client:** ").append(request.getCustomerCode()).append("\n");
+    private <T> McpResponse lookupMany(McpCapability capability, String keyName, List<String> keys,
+                                       Function<Set<String>, Map<String, T>> loader,
+                                       Function<T, BatchItem> render, String notFoundFormat) {
+        Set<String> uniqueKeys = keys == null ? Set.of() : keys.stream()
+            .filter(key -> key != null && !key.isBlank())
+            .map(String::trim)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        
+        if (uniqueKeys.isEmpty()) {
+            return McpResponse.validationFailed("Aucun identifiant fourni");
+        }
+        if (uniqueKeys.size() > maxBatchKeys) {
+            return McpResponse.validationFailed(String.format(
+                "%d identifiants demandés : %d au maximum par appel", uniqueKeys.size(), maxBatchKeys));
+        }
         
-        if (request.getShippingAddress() != null) {
-            sb.append("**Adresse de livraison:** ").append(request.getShippingAddress()).append("\n");
+        for (int i = 0; i < uniqueKeys.size(); i++) {
+            securityContext.requireCapability(capability);
         }
         
-        sb.append("\n**Articles:**\n");
-        java.math.BigDecimal total = java.math.BigDecimal.ZERO;
+        Map<String, String> pending = new LinkedHashMap<>();
+        for (String key : uniqueKeys) {
+            pending.put(key, auditService.startCapabilityCall(
+                securityContext, capability, Map.of(keyName, key, "batchSize", uniqueKeys.size())));
+        }
         
-        for (CreateOrderRequest.OrderLineRequest line : request.getLines()) {
-            // Récupérer les infos produit depuis la base
-            Product product = productService.findByProductCode(line.getProductCode()).orElse(null);
+        try {
+            Map<String, T> found = loader.apply(uniqueKeys);
+            
+            StringBuilder sb = new StringBuilder();
+            List<Object> views = new ArrayList<>();
+            List<String> notFound = new ArrayList<>();
+            for (String key : uniqueKeys) {
+                T item = found.get(key);
+                if (item == null) {
+                    notFound.add(key);
+                    auditService.completeCapabilityCall(pending.remove(key), capability, String.format(notFoundFormat, key));
+                    continue;
+                }
+                BatchItem rendered = render.apply(item);
+                sb.append(rendered.report()).append("\n\n");
+                views.add(rendered.view());
+                auditService.completeCapabilityCall(pending.remove(key), capability, rendered.auditSummary());
+            }
+            
+            if (views.isEmpty()) {
+                return McpResponse.notFound(notFound.stream()
+                    .map(key -> String.format(notFoundFormat, key))
+                    .collect(Collectors.joining("\n")));
+            }
+            if (!notFound.isEmpty()) {
+                sb.append("Introuvables: ").append(String.join(", ", notFound)).append('\n');
+            }
+            
+            return McpResponse.success(sb.toString().stripTrailing(), new BatchView(views, notFound));
+            
+        } catch (Exception e) {
+            pending.values().forEach(correlationId -> auditService.failCapabilityCall(correlationId, capability, e.getMessage()));
+            return McpResponse.error("Erreur lors de la lecture groupée: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Exécute une capacité d'écriture au plus une fois par clé d'idempotence
+     */
+    private McpResponse idempotent(McpCapability capability, String idempotencyKey, Supplier<McpResponse> action) {
+        return idempotencyStore.execute(securityContext.getUsername(), capability, idempotencyKey, action,
+            () -> auditService.logIdempotentReplay(securityContext, capability, idempotencyKey));
+    }
+    
+    /**
+     * Analyse du portefeuille et fin de l'audit, sur le thread de la requête ou d'une tâche de fond
+     */
+    private McpResponse runPortfolioRiskScan(int topCount, ProgressListener progress, String correlationId) {
+        McpCapability capability = McpCapability.SCAN_PORTFOLIO_RISK;
+        try {
+            PortfolioRiskReport report = portfolioRiskService.scanPortfolio(topCount, progress);
+            
+            auditService.completeCapabilityCall(correlationId, capability, 
+                "Portefeuille analysé: " + report.getScannedInvoices() + " factures, " + 
+                report.getCustomersOverLimit() + " clients hors limite");
+            
+            return McpResponse.success(report.toNaturalLanguageReport(), report.toCompactView());
+            
+        } catch (Exception e) {
+            auditService.failCapabilityCall(correlationId, capability, e.getMessage());
+            return McpResponse.error("Erreur lors de l'analyse du portefeuille: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Première page des lignes d'une commande et, si elle est tronquée, le jeton de la suite
+     */
+    private record OrderPage(List<OrderLine> lines, long totalLines, String nextPageToken) {}
+    
+    private OrderPage firstOrderPage(Order order) {
+        // Une ligne de plus que la page pour savoir s'il y a une suite sans compter
+        List<OrderLine> lines = orderService.findLinesAfter(order.getId(), 0L, pageSize + 1);
+        if (lines.size() <= pageSize) {
+            return new OrderPage(lines, lines.size(), null);
+        }
+        lines = lines.subList(0, pageSize);
+        long totalLines = orderService.countLines(order.getId());
+        String nextPageToken = pageCursorStore.open(new PageCursorStore.PageCursor(
+            securityContext.getUsername(), "findOrder", order.getOrderNumber(), order.getId(),
+            null, lines.get(pageSize - 1).getId(), pageSize, totalLines));
+        return new OrderPage(lines, totalLines, nextPageToken);
+    }
+    
+    private String formatJobStatus(AsyncJobManager.Job job) {
+        try (ReportBuilder report = ReportBuilder.acquire(256)) {
+            report.text("Tâche ").text(job.getId()).text(" (").text(job.getCapability().getName()).text(") : ");
+            report.text(job.getStatus() == AsyncJobManager.JobStatus.QUEUED ? "en attente" : "en cours");
+            if (job.getTotal() != null && job.getTotal() > 0) {
+                report.text(", ").number(Math.min(100, job.getProgress() * 100 / job.getTotal())).text(" %");
+            }
+            report.text(" - ").text(job.getMessage()).text("\n\n");
+            report.text("Le traitement continue en arrière-plan : appeler getJobResult avec jobId=")
+                  .text(job.getId()).text(" pour obtenir le résultat.");
+            return report.build();
+        }
+    }
+    
+    private String formatCreatedOrder(Order createdOrder) {
+        try (ReportBuilder report = ReportBuilder.acquire(256)) {
+            return report
+                .text("✅ Commande créée avec succès!\n\n")
+                .text("Numéro de commande: ").text(createdOrder.getOrderNumber()).newline()
+                .text("Client: ").text(createdOrder.getCustomer().getCompanyName()).newline()
+                .text("Montant total: ").money(createdOrder.getTotalAmount()).newline()
+                .text("Statut: ").text(createdOrder.getStatus()).text("\n\n")
+                .text("La commande est en attente de validation.")
+                .build();
+        }
+    }
+    
+    /**
+     * Formate une commande pour l'affichage IA
+     * 
+     * @param lines Lignes à afficher : toutes, ou la première page
+     * @param totalLines Nombre total de lignes de la commande
+     */
+    private String formatOrderForAI(Order order, List<OrderLine> lines, long totalLines) {
+        try (ReportBuilder report = ReportBuilder.acquire(512 + lines.size() * ORDER_LINE_LENGTH)) {
+            report.text("=== Commande ").text(order.getOrderNumber()).text(" ===\n\n");
+            report.text("**Client:** ").text(order.getCustomer().getCompanyName()).newline();
+            report.text("**Statut:** ").text(order.getStatus()).newline();
+            report.text("**Date de commande:** ").text(order.getOrderDate().toLocalDate()).newline();
+            
+            if (order.getExpectedDeliveryDate() != null) {
+                report.text("**Livraison prévue:** ").text(order.getExpectedDeliveryDate().toLocalDate()).newline();
+            }
+            
+            if (lines.size() < totalLines) {
+                report.text("\n**Lignes de commande (1 à ").number(lines.size())
+                      .text(" sur ").number(totalLines).text("):**\n");
+            } else {
+                report.text("\n**Lignes de commande:**\n");
+            }
+            appendOrderLines(report, lines);
             
-            String productName = product != null ? product.getName() : line.getProductCode();
-            java.math.BigDecimal unitPrice = line.getUnitPrice() != null ? line.getUnitPrice() 
-                : (product != null ? product.getUnitPrice() : java.math.BigDecimal.ZERO);
-            int quantity = line.getQuantity() != null ? line.getQuantity() : 1;
+            report.text("\n**Total HT:** ").money(order.getTotalAmount()).newline();
+            report.text("**TVA:** ").money(order.getTaxAmount()).newline();
+            report.text("**Total TTC:** ").money(order.getTotalAmount().add(order.getTaxAmount())).newline();
             
-            java.math.BigDecimal lineTotal = unitPrice.multiply(new java.math.BigDecimal(quantity));
-            if (line.getDiscountPercent() != null && line.getDiscountPercent().compareTo(java.math.BigDecimal.ZERO) > 0) {
-                java.math.BigDecimal discount = lineTotal.multiply(line.getDiscountPercent()).divide(new java.math.BigDecimal("100"));
-                lineTotal = lineTotal.subtract(discount);
+            if (order.getNotes() != null && !order.getNotes().isBlank()) {
+                report.text("\n**Notes:** ").text(order.getNotes()).newline();
             }
-            total = total.add(lineTotal);
-            
-            sb.append("- **").append(productName).append("** (")
-              .append(line.getProductCode()).append(")")
-              .append(" x ").append(quantity)
-              .append(" @ ").append(String.format("%,.2f €", unitPrice))
-              .append(" = ").append(String.format("%,.2f €", lineTotal))
-              .append("\n");
+            
+            report.text("\n**Adresse de livraison:** ").text(order.getShippingAddress()).newline();
+            
+            return report.build();
         }
+    }
+    
+    /**
+     * Page suivante des lignes d'une commande, à partir du curseur du jeton
+     */
+    private McpResponse nextOrderLines(String orderNumber, String pageToken, String correlationId) {
+        McpCapability capability = McpCapability.FIND_ORDER;
         
-        sb.append("\n**Total HT:** ").append(String.format("%,.2f €", total));
-        sb.append("\n**TVA (20%):** ").append(String.format("%,.2f €", total.multiply(new java.math.BigDecimal("0.20"))));
-        sb.append("\n**Total TTC:** ").append(String.format("%,.2f €", total.multiply(new java.math.BigDecimal("1.20"))));
+        Optional<PageCursorStore.PageCursor> cursorOpt = findCursor(pageToken, "findOrder", orderNumber);
+        if (cursorOpt.isEmpty()) {
+            auditService.completeCapabilityCall(correlationId, capability, UNKNOWN_PAGE_TOKEN);
+            return McpResponse.validationFailed(UNKNOWN_PAGE_TOKEN);
+        }
+        PageCursorStore.PageCursor cursor = cursorOpt.get();
         
-        if (request.getNotes() != null && !request.getNotes().isBlank()) {
-            sb.append("\n\n**Notes:** ").append(request.getNotes());
+        List<OrderLine> lines = orderService.findLinesAfter(cursor.targetId(), cursor.lastId(), pageSize + 1);
+        String nextPageToken = null;
+        if (lines.size() > pageSize) {
+            lines = lines.subList(0, pageSize);
+            nextPageToken = pageCursorStore.open(new PageCursorStore.PageCursor(
+                cursor.username(), cursor.tool(), orderNumber, cursor.targetId(),
+                null, lines.get(pageSize - 1).getId(), cursor.served() + pageSize, cursor.total()));
         }
         
-        return sb.toString();
+        int from = cursor.served() + 1;
+        int to = cursor.served() + lines.size();
+        try (ReportBuilder report = ReportBuilder.acquire(128 + lines.size() * ORDER_LINE_LENGTH)) {
+            report.text("=== Commande ").text(orderNumber).text(" — lignes ").number(from)
+                  .text(" à ").number(to).text(" sur ").number(cursor.total()).text(" ===\n\n");
+            appendOrderLines(report, lines);
+            
+            auditService.completeCapabilityCall(correlationId, capability, 
+                String.format("Lignes %d à %d de la commande: %s", from, to, orderNumber));
+            
+            return McpResponse.page(report.build(),
+                new OrderLinesPage(orderNumber, from, cursor.total(), lines.stream().map(OrderView.Line::of).toList()),
+                nextPageToken);
+        }
+    }
+    
+    private void appendOrderLines(ReportBuilder report, List<OrderLine> lines) {
+        for (OrderLine line : lines) {
+            report.text("- ").text(line.getProductName())
+                  .text(" (").text(line.getProductCode()).text(')')
+                  .text(" x ").text(line.getQuantity())
+                  .text(" @ ").money(line.getUnitPrice())
+                  .text(" = ").money(line.getLineTotal())
+                  .newline();
+        }
+    }
+    
+    /**
+     * Curseur d'un jeton de page, s'il a été obtenu par l'utilisateur courant sur le même outil et le même identifiant
+     */
+    private Optional<PageCursorStore.PageCursor> findCursor(String pageToken, String tool, String key) {
+        return pageCursorStore.find(pageToken, securityContext.getUsername(), tool)
+            .filter(cursor -> cursor.key().equals(key));
+    }
+    
+    /**
+     * Formate une page de l'historique des factures, une ligne par facture
+     */
+    private String formatInvoiceHistory(String customerCode, List<Invoice> invoices, int from, long total) {
+        try (ReportBuilder report = ReportBuilder.acquire(128 + invoices.size() * INVOICE_ROW_LENGTH)) {
+            report.text("=== Factures du client ").text(customerCode);
+            if (invoices.isEmpty()) {
+                return report.text(" ===\n\nAucune facture.").build();
+            }
+            report.text(" — ").number(from).text(" à ").number(from + invoices.size() - 1)
+                  .text(" sur ").number(total).text(" ===\n\n");
+            for (Invoice invoice : invoices) {
+                report.text("- ").text(invoice.getInvoiceNumber())
+                      .text(" | émise le ").text(invoice.getIssueDate())
+                      .text(" | échéance ").text(invoice.getDueDate())
+                      .text(" | ").text(invoice.getStatus())
+                      .text(" | total ").money(invoice.getTotalAmount())
+                      .text(" | reste ").money(invoice.getRemainingAmount())
+                      .newline();
+            }
+            return report.build();
+        }
+    }
+    
+    /**
+     * Génère un résumé de confirmation à partir de la commande chiffrée
+     * (noms et prix issus de la base, tels qu'ils seront enregistrés)
+     */
+    private String generateEnrichedConfirmationSummary(PricedOrder order) {
+        try (ReportBuilder report = ReportBuilder.acquire(256 + order.lines().size() * ORDER_LINE_LENGTH)) {
+            report.text("=== Confirmation de commande ===\n\n");
+            report.text("**Client:** ").text(order.customerCode()).newline();
+            
+            if (order.shippingAddress() != null) {
+                report.text("**Adresse de livraison:** ").text(order.shippingAddress()).newline();
+            }
+            
+            report.text("\n**Articles:**\n");
+            for (PricedOrder.Line line : order.lines()) {
+                report.text("- **").text(line.productName()).text("** (")
+                      .text(line.productCode()).text(')')
+                      .text(" x ").number(line.quantity())
+                      .text(" @ ").money(line.unitPrice())
+                      .text(" = ").money(line.lineTotal())
+                      .newline();
+            }
+            
+            BigDecimal total = order.totalAmount();
+            report.text("\n**Total HT:** ").money(total);
+            report.text("\n**TVA (20%):** ").money(total.multiply(VAT_RATE));
+            report.text("\n**Total TTC:** ").money(total.multiply(VAT_INCLUDED_FACTOR));
+            
+            if (order.notes() != null && !order.notes().isBlank()) {
+                report.text("\n\n**Notes:** ").text(order.notes());
+            }
+            
+            return report.build();
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpSecurityContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Traitement des messages JSON-RPC du protocole MCP
+ *
+ * Méthodes prises en charge : initialize, ping, tools/list, tools/call et
+ * les notifications du client (ignorées). Le transport HTTP, les lots et
+ * les sessions sont gérés par McpServerController ; ici, un message donne
+ * au plus une réponse.
+ */
+@Component
+@Slf4j
+public class McpProtocolServer {
+
+    public static final String LATEST_PROTOCOL_VERSION = "2025-03-26";
+    private static final List<String> SUPPORTED_PROTOCOL_VERSIONS = List.of(LATEST_PROTOCOL_VERSION, "2024-11-05");
+
+    private final McpToolRegistry toolRegistry;
+    private final ToolOutputRenderer outputRenderer;
+    private final McpSecurityContext securityContext;
+    private final ObjectMapper objectMapper;
+    private final String serverName;
+    private final String serverVersion;
+
+    public McpProtocolServer(McpToolRegistry toolRegistry,
+                             ToolOutputRenderer outputRenderer,
+                             McpSecurityContext securityContext,
+                             ObjectMapper objectMapper,
+                             @Value("${mcp.server.name:enterprise-commercial-mcp}") String serverName,
+                             @Value("${mcp.server.version:1.0.0}") String serverVersion) {
+        this.toolRegistry = toolRegistry;
+        this.outputRenderer = outputRenderer;
+        this.securityContext = securityContext;
+        this.objectMapper = objectMapper;
+        this.serverName = serverName;
+        this.serverVersion = serverVersion;
+    }
+
+    public static boolean isInitialize(JsonNode message) {
+        return message.isObject() && "initialize".equals(message.path("method").asText());
+    }
+
+    /**
+     * Traite un message JSON-RPC
+     *
+     * @return La réponse, ou null pour une notification ou une réponse du client
+     */
+    public ObjectNode handle(JsonNode message, McpSessionStore.McpSession session) {
+        if (!message.isObject() || !"2.0".equals(message.path("jsonrpc").asText())) {
+            return error(message.isObject() ? message.get("id") : null,
+                JsonRpcException.INVALID_REQUEST, "Requête JSON-RPC 2.0 invalide");
+        }
+
+        String method = message.path("method").asText(null);
+        if (method == null) {
+            // Réponse du client à une requête du serveur : aucune n'est émise pour l'instant
+            return null;
+        }
+
+        JsonNode id = message.get("id");
+        boolean notification = id == null;
+        if (notification && method.startsWith("notifications/")) {
+            log.debug("Notification MCP {} (session {})", method, session.getId());
+            return null;
+        }
+
+        try {
+            JsonNode params = message.path("params");
+            JsonNode result = switch (method) {
+                case "initialize" -> initialize(params, session);
+                case "ping" -> objectMapper.createObjectNode();
+                case "tools/list" -> objectMapper.createObjectNode()
+                    .set("tools", toolRegistry.listTools(securityContext.getRole()));
+                case "tools/call" -> callTool(params);
+                default -> throw new JsonRpcException(JsonRpcException.METHOD_NOT_FOUND, "Méthode inconnue: " + method);
+            };
+            return notification ? null : success(id, result);
+        } catch (JsonRpcException e) {
+            return notification ? null : error(id, e.getCode(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Erreur MCP sur {} (session {})", method, session.getId(), e);
+            return notification ? null : error(id, JsonRpcException.INTERNAL_ERROR, "Erreur interne du serveur MCP");
+        }
+    }
+
+    public ObjectNode error(JsonNode id, int code, String message) {
+        ObjectNode response = envelope(id);
+        response.putObject("error")
+            .put("code", code)
+            .put("message", message);
+        return response;
+    }
+
+    private ObjectNode initialize(JsonNode params, McpSessionStore.McpSession session) {
+        String requested = params.path("protocolVersion").asText("");
+        String version = SUPPORTED_PROTOCOL_VERSIONS.contains(requested) ? requested : LATEST_PROTOCOL_VERSION;
+        session.setProtocolVersion(version);
+        session.setClientName(params.path("clientInfo").path("name").asText(null));
+        log.info("Session MCP {} ouverte pour {} (client: {}, protocole: {})",
+            session.getId(), session.getUsername(), session.getClientName(), version);
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("protocolVersion", version);
+        result.putObject("capabilities").putObject("tools").put("listChanged", false);
+        result.putObject("serverInfo")
+            .put("name", serverName)
+            .put("version", serverVersion);
+        return result;
+    }
+
+    private ObjectNode callTool(JsonNode params) {
+        String toolName = params.path("name").asText(null);
+        if (toolName == null) {
+            throw new JsonRpcException(JsonRpcException.INVALID_PARAMS, "Nom d'outil manquant");
+        }
+
+        JsonNode progressToken = params.path("_meta").get("progressToken");
+        McpResponse response = toolRegistry.call(toolName, params.get("arguments"),
+            progressToken != null && !progressToken.isNull() ? progressToken : null);
+        ToolOutputRenderer.RenderedOutput output = outputRenderer.renderOutput(toolName, response);
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.putArray("content").addObject()
+            .put("type", "text")
+            .put("text", output.text());
+        result.put("isError", !response.isSuccess() && !response.isRequiresConfirmation());
+        result.putObject("_meta")
+            .put("format", output.format().name())
+            .put("tokenEstimate", output.tokenEstimate());
+        return result;
+    }
+
+    private ObjectNode success(JsonNode id, JsonNode result) {
+        ObjectNode response = envelope(id);
+        response.set("result", result);
+        return response;
+    }
+
+    private ObjectNode envelope(JsonNode id) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id != null ? id : objectMapper.nullNode());
+        return response;
+    }
+}
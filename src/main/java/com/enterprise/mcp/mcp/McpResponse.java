@@ -3,30 +3,50 @@ package com.enterprise.mcp.mcp;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.Serializable;
+
 /**
  * Réponse standardisée pour les capacités MCP
  * 
  * Cette classe encapsule toutes les réponses MCP de manière uniforme.
  * Elle permet à l'IA de comprendre facilement le résultat de ses appels.
+ * Sérialisable pour être partagée entre instances (réponses rejouées par clé
+ * d'idempotence avec state.backend=hazelcast).
  */
 @Data
-@Builder
-public class McpResponse {
+@Builder(toBuilder = true)
+public class McpResponse implements Serializable {
     
     private ResponseStatus status;
     private String content;
     private String correlationId;
     private boolean requiresConfirmation;
     
+    // Données structurées du résultat, utilisées par les formats compacts (JSON, TOON)
+    private Object data;
+    
+    // Pagination : jeton de la page suivante, absent sur la dernière page
+    private String nextPageToken;
+    private boolean hasMore;
+    
+    // Sortie envoyée au LLM : renseignée sur une copie par ToolOutputRenderer, jamais sur la réponse partagée
+    private Output output;
+    
     public enum ResponseStatus {
         SUCCESS,
         NOT_FOUND,
         VALIDATION_FAILED,
         REQUIRES_CONFIRMATION,
         ERROR,
-        ACCESS_DENIED
+        ACCESS_DENIED,
+        RATE_LIMITED
     }
     
+    /**
+     * Format de la sortie envoyée au LLM et nombre de tokens estimé
+     */
+    public record Output(OutputFormat format, int tokenEstimate) implements Serializable {}
+    
     /**
      * Crée une réponse de succès
      */
@@ -38,6 +58,32 @@ public class McpResponse {
             .build();
     }
     
+    /**
+     * Crée une réponse de succès accompagnée de ses données structurées
+     */
+    public static McpResponse success(String content, Object data) {
+        return McpResponse.builder()
+            .status(ResponseStatus.SUCCESS)
+            .content(content)
+            .data(data)
+            .requiresConfirmation(false)
+            .build();
+    }
+    
+    /**
+     * Crée une page de résultat ; nextPageToken est null sur la dernière page
+     */
+    public static McpResponse page(String content, Object data, String nextPageToken) {
+        return McpResponse.builder()
+            .status(ResponseStatus.SUCCESS)
+            .content(content)
+            .data(data)
+            .nextPageToken(nextPageToken)
+            .hasMore(nextPageToken != null)
+            .requiresConfirmation(false)
+            .build();
+    }
+    
     /**
      * Crée une réponse "non trouvé"
      */
@@ -94,6 +140,17 @@ public class McpResponse {
             .build();
     }
     
+    /**
+     * Crée une réponse de quota dépassé : l'appel peut être retenté plus tard
+     */
+    public static McpResponse rateLimited(String message) {
+        return McpResponse.builder()
+            .status(ResponseStatus.RATE_LIMITED)
+            .content(message)
+            .requiresConfirmation(false)
+            .build();
+    }
+    
     /**
      * Vérifie si la réponse est un succès
      */
@@ -110,6 +167,9 @@ public class McpResponse {
         switch (status) {
             case SUCCESS:
                 sb.append(content);
+                if (hasMore) {
+                    sb.append("\n\n[Suite disponible : rappeler l'outil avec pageToken=").append(nextPageToken).append("]");
+                }
                 break;
             case NOT_FOUND:
                 sb.append("❌ Élément non trouvé\n\n").append(content);
@@ -129,6 +189,10 @@ public class McpResponse {
             case ACCESS_DENIED:
                 sb.append("🚫 Accès refusé\n\n").append(content);
                 break;
+            case RATE_LIMITED:
+                sb.append("⏳ Quota d'appels dépassé\n\n").append(content)
+                  .append("\nNe pas relancer l'outil immédiatement : informer l'utilisateur.");
+                break;
         }
         
         return sb.toString();
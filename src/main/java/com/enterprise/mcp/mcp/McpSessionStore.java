@@ -0,0 +1,154 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.id.IdGenerator;
+import com.enterprise.mcp.security.McpRole;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Sessions du serveur MCP (en-tête Mcp-Session-Id)
+ *
+ * Une session est ouverte par initialize et réservée à l'utilisateur qui
+ * l'a ouverte ; elle expire après mcp.server.session.ttl sans activité.
+ * Elle peut porter un flux SSE (GET /mcp) par lequel le serveur envoie ses
+ * notifications au client.
+ */
+@Component
+@Slf4j
+public class McpSessionStore {
+
+    /**
+     * Session MCP d'un client
+     */
+    @Getter
+    public static class McpSession {
+        private final String id;
+        private final String username;
+        private final McpRole role;
+        private final Instant createdAt = Instant.now();
+        @Setter
+        private volatile String protocolVersion;
+        @Setter
+        private volatile String clientName;
+        private volatile SseEmitter stream;
+
+        McpSession(String id, String username, McpRole role) {
+            this.id = id;
+            this.username = username;
+            this.role = role;
+        }
+    }
+
+    private final Cache<String, McpSession> sessions;
+    private final IdGenerator idGenerator;
+    private final Duration ttl;
+
+    public McpSessionStore(IdGenerator idGenerator,
+                           @Value("${mcp.server.session.ttl:PT30M}") Duration ttl,
+                           @Value("${mcp.server.session.max-sessions:10000}") long maxSessions) {
+        this.idGenerator = idGenerator;
+        this.ttl = ttl;
+        this.sessions = Caffeine.newBuilder()
+            .maximumSize(maxSessions)
+            .expireAfterAccess(ttl)
+            .removalListener((String id, McpSession session, RemovalCause cause) -> {
+                if (session != null) {
+                    closeStream(session);
+                    log.debug("Session MCP {} fermée ({})", id, cause);
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Ouvre une session pour l'utilisateur authentifié
+     */
+    public McpSession create(String username, McpRole role) {
+        McpSession session = new McpSession(idGenerator.nextIdString(), username, role);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Session active de l'utilisateur ; vide si inconnue, expirée ou ouverte par un autre utilisateur
+     */
+    public Optional<McpSession> find(String sessionId, String username) {
+        McpSession session = sessions.getIfPresent(sessionId);
+        if (session == null || !session.getUsername().equals(username)) {
+            return Optional.empty();
+        }
+        return Optional.of(session);
+    }
+
+    /**
+     * Ferme une session à la demande du client (DELETE /mcp)
+     */
+    public void terminate(String sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    /**
+     * Ouvre le flux SSE de la session, en remplaçant le précédent
+     */
+    public SseEmitter openStream(McpSession session) {
+        SseEmitter emitter = new SseEmitter(ttl.toMillis());
+        emitter.onCompletion(() -> clearStream(session, emitter));
+        emitter.onTimeout(() -> clearStream(session, emitter));
+        emitter.onError(e -> clearStream(session, emitter));
+
+        closeStream(session);
+        session.stream = emitter;
+        return emitter;
+    }
+
+    /**
+     * Envoie un message JSON-RPC sur le flux SSE de la session, s'il est ouvert
+     *
+     * @return false si la session n'a pas de flux ou si l'envoi a échoué
+     */
+    public boolean publish(String sessionId, JsonNode message) {
+        McpSession session = sessions.getIfPresent(sessionId);
+        SseEmitter emitter = session != null ? session.stream : null;
+        if (emitter == null) {
+            return false;
+        }
+        try {
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name("message").data(message, MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Flux SSE de la session {} interrompu: {}", sessionId, e.getMessage());
+            clearStream(session, emitter);
+            return false;
+        }
+    }
+
+    private void closeStream(McpSession session) {
+        SseEmitter previous = session.stream;
+        if (previous != null) {
+            session.stream = null;
+            previous.complete();
+        }
+    }
+
+    private void clearStream(McpSession session, SseEmitter emitter) {
+        if (session.stream == emitter) {
+            session.stream = null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpAccessDeniedException;
+import com.enterprise.mcp.security.McpCapability;
+import com.enterprise.mcp.security.McpRateLimitedException;
+import com.enterprise.mcp.security.McpRole;
+import com.enterprise.mcp.security.McpSecurityContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Catalogue des outils exposés par le serveur MCP (tools/list, tools/call)
+ *
+ * Mêmes outils, mêmes descriptions et mêmes paramètres que les fonctions
+ * Spring AI de {@link McpToolsConfiguration} ; chaque appel passe par
+ * {@link McpCapabilityHandler}, donc par le contrôle des droits, les quotas
+ * et l'audit.
+ *
+ * La liste des outils est calculée une fois par rôle, dans l'ordre
+ * alphabétique des noms.
+ */
+@Component
+public class McpToolRegistry {
+
+    /**
+     * Outil MCP : capacité, description, schéma JSON des arguments et appel du handler
+     */
+    record ToolDefinition(
+        McpCapability capability,
+        String description,
+        ObjectNode inputSchema,
+        Function<JsonNode, McpResponse> invoker
+    ) {}
+
+    private final ObjectMapper objectMapper;
+    private final McpSecurityContext securityContext;
+    private final Map<String, ToolDefinition> tools = new LinkedHashMap<>();
+    private final Map<McpRole, ArrayNode> toolLists = new EnumMap<>(McpRole.class);
+
+    public McpToolRegistry(McpCapabilityHandler capabilityHandler, ObjectMapper objectMapper,
+                           McpSecurityContext securityContext) {
+        this.objectMapper = objectMapper;
+        this.securityContext = securityContext;
+
+        register("findOrder", McpCapability.FIND_ORDER, McpToolsConfiguration.FIND_ORDER_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"orderNumber": {"type": "string", "description": "Numéro de la commande (ex: CMD-20240115-ABC123)"},
+                            "pageToken": {"type": "string", "description": "Jeton de la page suivante des lignes, renvoyé par l'appel précédent (optionnel)"}},
+             "required": ["orderNumber"]}
+            """, McpToolsConfiguration.FindOrderRequest.class,
+            request -> capabilityHandler.findOrder(request.orderNumber(), request.pageToken()));
+
+        register("analyzeInvoice", McpCapability.ANALYZE_INVOICE, McpToolsConfiguration.ANALYZE_INVOICE_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"invoiceNumber": {"type": "string", "description": "Numéro de la facture (ex: FAC-2024-001234)"}},
+             "required": ["invoiceNumber"]}
+            """, McpToolsConfiguration.AnalyzeInvoiceRequest.class,
+            request -> capabilityHandler.analyzeInvoice(request.invoiceNumber()));
+
+        register("summarizeCustomerActivity", McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY, McpToolsConfiguration.SUMMARIZE_CUSTOMER_ACTIVITY_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"customerCode": {"type": "string", "description": "Code unique du client (ex: CLI-001)"}},
+             "required": ["customerCode"]}
+            """, McpToolsConfiguration.SummarizeCustomerRequest.class,
+            request -> capabilityHandler.summarizeCustomerActivity(request.customerCode()));
+
+        register("listCustomerInvoices", McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY, McpToolsConfiguration.LIST_CUSTOMER_INVOICES_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"customerCode": {"type": "string", "description": "Code unique du client (ex: CLI-001)"},
+                            "pageToken": {"type": "string", "description": "Jeton de la page suivante, renvoyé par l'appel précédent (optionnel)"}},
+             "required": ["customerCode"]}
+            """, McpToolsConfiguration.ListCustomerInvoicesRequest.class,
+            request -> capabilityHandler.listCustomerInvoices(request.customerCode(), request.pageToken()));
+
+        register("findOrders", McpCapability.FIND_ORDER, McpToolsConfiguration.FIND_ORDERS_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"orderNumbers": {"type": "array", "items": {"type": "string"}, "minItems": 1,
+                                             "description": "Numéros des commandes (ex: CMD-20240115-ABC123)"}},
+             "required": ["orderNumbers"]}
+            """, McpToolsConfiguration.FindOrdersRequest.class,
+            request -> capabilityHandler.findOrders(request.orderNumbers()));
+
+        register("analyzeInvoices", McpCapability.ANALYZE_INVOICE, McpToolsConfiguration.ANALYZE_INVOICES_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"invoiceNumbers": {"type": "array", "items": {"type": "string"}, "minItems": 1,
+                                               "description": "Numéros des factures (ex: FAC-2024-001234)"}},
+             "required": ["invoiceNumbers"]}
+            """, McpToolsConfiguration.AnalyzeInvoicesRequest.class,
+            request -> capabilityHandler.analyzeInvoices(request.invoiceNumbers()));
+
+        register("summarizeCustomers", McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY, McpToolsConfiguration.SUMMARIZE_CUSTOMERS_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"customerCodes": {"type": "array", "items": {"type": "string"}, "minItems": 1,
+                                              "description": "Codes des clients (ex: CLI-001, CLI-004)"}},
+             "required": ["customerCodes"]}
+            """, McpToolsConfiguration.SummarizeCustomersRequest.class,
+            request -> capabilityHandler.summarizeCustomers(request.customerCodes()));
+
+        register("searchCustomers", McpCapability.SEARCH_CUSTOMERS, McpToolsConfiguration.SEARCH_CUSTOMERS_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"name": {"type": "string", "description": "Nom ou partie du nom de l'entreprise (ex: TechCorp)"}},
+             "required": ["name"]}
+            """, McpToolsConfiguration.SearchCustomersRequest.class,
+            request -> capabilityHandler.searchCustomers(request.name()));
+
+        register("scanPortfolioRisk", McpCapability.SCAN_PORTFOLIO_RISK, McpToolsConfiguration.SCAN_PORTFOLIO_RISK_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"topCount": {"type": "integer", "minimum": 1, "description": "Nombre de clients les plus exposés à détailler (10 par défaut)"}}}
+            """, McpToolsConfiguration.PortfolioRiskToolRequest.class,
+            request -> capabilityHandler.startPortfolioRiskScan(request.topCountOrDefault()));
+
+        register("getJobResult", McpCapability.GET_JOB_RESULT, McpToolsConfiguration.GET_JOB_RESULT_DESCRIPTION, """
+            {"type": "object",
+             "properties": {"jobId": {"type": "string", "description": "Identifiant de la tâche renvoyé au lancement (ex: JOB-123456789)"}},
+             "required": ["jobId"]}
+            """, McpToolsConfiguration.GetJobResultRequest.class,
+            request -> capabilityHandler.getJobResult(request.jobId()));
+
+        register("createOrder", McpCapability.CREATE_ORDER, McpToolsConfiguration.CREATE_ORDER_DESCRIPTION, """
+            {"type": "object",
+             "properties": {
+               "customerCode": {"type": "string", "description": "Code du client pour la commande"},
+               "lines": {"type": "array", "minItems": 1, "description": "Lignes de commande",
+                         "items": {"type": "object",
+                                   "properties": {"productCode": {"type": "string", "description": "Code produit (ex: PROD-001, P-LAPTOP-001)"},
+                                                  "quantity": {"type": "integer", "minimum": 1, "description": "Quantité commandée"}},
+                                   "required": ["productCode", "quantity"]}},
+               "shippingAddress": {"type": "string", "description": "Adresse de livraison (optionnel)"},
+               "notes": {"type": "string", "description": "Notes additionnelles (optionnel)"},
+               "confirmed": {"type": "boolean", "description": "True si l'utilisateur a confirmé la création"},
+               "confirmationId": {"type": "string", "description": "correlationId renvoyé par la demande de confirmation (avec confirmed=true)"},
+               "idempotencyKey": {"type": "string", "description": "Identifiant unique de l'action, identique en cas de nouvel essai (optionnel)"}},
+             "required": ["customerCode", "lines"]}
+            """, McpToolsConfiguration.CreateOrderToolRequest.class,
+            request -> capabilityHandler.createOrder(McpToolsConfiguration.convertToServiceRequest(request),
+                request.confirmed(), request.confirmationId(), request.idempotencyKey()));
+
+        for (McpRole role : McpRole.values()) {
+            ArrayNode list = objectMapper.createArrayNode();
+            tools.entrySet().stream()
+                .filter(entry -> role.hasCapability(entry.getValue().capability()))
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> list.addObject()
+                    .put("name", entry.getKey())
+                    .put("description", entry.getValue().description())
+                    .set("inputSchema", entry.getValue().inputSchema()));
+            toolLists.put(role, list);
+        }
+    }
+
+    /**
+     * Outils visibles pour un rôle, au format attendu par tools/list
+     *
+     * Le nœud est partagé entre les requêtes : il ne doit pas être modifié.
+     */
+    public ArrayNode listTools(McpRole role) {
+        return toolLists.get(role);
+    }
+
+    /**
+     * Appelle un outil avec les arguments reçus du client MCP
+     *
+     * @param progressToken Jeton d'avancement (_meta.progressToken) fourni par le client, ou null :
+     *                      les tâches de fond lancées par l'appel ne notifient leur avancement qu'avec lui
+     * @throws JsonRpcException si l'outil est inconnu ou si les arguments sont invalides
+     */
+    public McpResponse call(String toolName, JsonNode arguments, JsonNode progressToken) {
+        ToolDefinition tool = tools.get(toolName);
+        if (tool == null) {
+            throw new JsonRpcException(JsonRpcException.INVALID_PARAMS, "Outil inconnu: " + toolName);
+        }
+
+        JsonNode args = arguments == null || arguments.isNull() || arguments.isMissingNode()
+            ? objectMapper.createObjectNode()
+            : arguments;
+        if (!args.isObject()) {
+            throw new JsonRpcException(JsonRpcException.INVALID_PARAMS, "Les arguments doivent être un objet JSON");
+        }
+        for (JsonNode required : tool.inputSchema().path("required")) {
+            JsonNode value = args.get(required.asText());
+            if (value == null || value.isNull()) {
+                throw new JsonRpcException(JsonRpcException.INVALID_PARAMS,
+                    "Paramètre obligatoire manquant: " + required.asText());
+            }
+        }
+
+        // Un lot JSON-RPC partage le contexte de la requête : le jeton ne vaut que pour cet appel
+        securityContext.setProgressToken(progressToken);
+        try {
+            return tool.invoker().apply(args);
+        } catch (McpAccessDeniedException e) {
+            return McpResponse.accessDenied(e.getMessage());
+        } catch (McpRateLimitedException e) {
+            return McpResponse.rateLimited(e.getMessage());
+        } finally {
+            securityContext.setProgressToken(null);
+        }
+    }
+
+    private <T> void register(String name, McpCapability capability, String description, String inputSchema,
+                              Class<T> argumentType, Function<T, McpResponse> call) {
+        ObjectNode schema;
+        try {
+            schema = (ObjectNode) objectMapper.readTree(inputSchema);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Schéma invalide pour l'outil " + name, e);
+        }
+
+        tools.put(name, new ToolDefinition(capability, description, schema,
+            arguments -> call.apply(convert(arguments, argumentType))));
+    }
+
+    private <T> T convert(JsonNode arguments, Class<T> argumentType) {
+        try {
+            return objectMapper.treeToValue(arguments, argumentType);
+        } catch (JsonProcessingException e) {
+            throw new JsonRpcException(JsonRpcException.INVALID_PARAMS,
+                "Arguments invalides: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.enterprise.mcp.mcp;
 
+import com.enterprise.mcp.chat.LlmGatewayProperties;
+import com.enterprise.mcp.security.McpCapability;
+import com.enterprise.mcp.security.McpRateLimitedException;
 import com.enterprise.mcp.service.dto.CreateOrderRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Configuration des outils MCP exposés à Spring AI
@@ -21,36 +28,71 @@ import java.util.function.Function;
  * Les outils sont automatiquement découverts par Spring AI et proposés au LLM.
  */
 @Configuration
+@EnableConfigurationProperties({ToolOutputProperties.class, LlmGatewayProperties.class})
 @RequiredArgsConstructor
 @Slf4j
 public class McpToolsConfiguration {
     
     private final McpCapabilityHandler capabilityHandler;
+    private final ToolOutputRenderer outputRenderer;
+    private final MeterRegistry meterRegistry;
 
-    @Bean
-    public ChatClient chatClient(ChatClient.Builder builder) {
-        return builder
-            .defaultFunctions(
-                "findOrder",
-                "analyzeInvoice",
-                "summarizeCustomerActivity",
-                "createOrder"
-            )
-            .build();
-    }
+    /**
+     * Outils Spring AI (un bean Function par outil) et capacité dont chacun relève
+     *
+     * Les variantes multi-identifiants (findOrders...) relèvent de la même
+     * capacité que l'outil unitaire. Chaque rôle ne reçoit que les outils de
+     * ses capacités, voir {@link RoleChatClients}.
+     */
+    static final Map<String, McpCapability> TOOLS = Map.ofEntries(
+        Map.entry("findOrder", McpCapability.FIND_ORDER),
+        Map.entry("findOrders", McpCapability.FIND_ORDER),
+        Map.entry("analyzeInvoice", McpCapability.ANALYZE_INVOICE),
+        Map.entry("analyzeInvoices", McpCapability.ANALYZE_INVOICE),
+        Map.entry("summarizeCustomerActivity", McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY),
+        Map.entry("summarizeCustomers", McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY),
+        Map.entry("listCustomerInvoices", McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY),
+        Map.entry("searchCustomers", McpCapability.SEARCH_CUSTOMERS),
+        Map.entry("createOrder", McpCapability.CREATE_ORDER),
+        Map.entry("scanPortfolioRisk", McpCapability.SCAN_PORTFOLIO_RISK),
+        Map.entry("getJobResult", McpCapability.GET_JOB_RESULT)
+    );
     
+    // Descriptions partagées entre les outils Spring AI et le serveur MCP (McpToolRegistry)
+    static final String FIND_ORDER_DESCRIPTION =
+        "Recherche une commande par son numéro. Retourne les détails complets de la commande incluant le client, les lignes, les montants et le statut. Les lignes sont paginées : si une suite est signalée, rappeler avec le même numéro et le pageToken fourni.";
+    static final String ANALYZE_INVOICE_DESCRIPTION =
+        "Analyse une facture en profondeur. Retourne le statut de paiement, les indicateurs de risque, les recommandations d'action et l'historique du client.";
+    static final String SUMMARIZE_CUSTOMER_ACTIVITY_DESCRIPTION =
+        "Génère un résumé complet de l'activité d'un client incluant ses commandes récentes, ses factures, sa situation financière et ses indicateurs de fidélité.";
+    static final String FIND_ORDERS_DESCRIPTION =
+        "Recherche plusieurs commandes en un seul appel à partir de leurs numéros. À préférer à plusieurs appels de findOrder. Retourne les détails de chaque commande trouvée et la liste des numéros introuvables. Les lignes d'une commande tronquée se lisent avec findOrder et le pageToken indiqué pour cette commande.";
+    static final String ANALYZE_INVOICES_DESCRIPTION =
+        "Analyse plusieurs factures en un seul appel à partir de leurs numéros. À préférer à plusieurs appels d'analyzeInvoice. Retourne l'analyse de chaque facture trouvée et la liste des numéros introuvables.";
+    static final String SUMMARIZE_CUSTOMERS_DESCRIPTION =
+        "Résume l'activité de plusieurs clients en un seul appel à partir de leurs codes, par exemple pour les comparer. À préférer à plusieurs appels de summarizeCustomerActivity. Retourne le résumé de chaque client trouvé et la liste des codes introuvables.";
+    static final String LIST_CUSTOMER_INVOICES_DESCRIPTION =
+        "Liste les factures d'un client, de la plus récente à la plus ancienne, par pages : numéro, dates d'émission et d'échéance, statut, montant total et reste à payer. Pour la page suivante, rappeler avec le même code client et le pageToken fourni.";
+    static final String SEARCH_CUSTOMERS_DESCRIPTION =
+        "Recherche des clients par nom d'entreprise, même approximatif (fautes de frappe, nom partiel). Retourne les clients correspondants avec leur code, segment et statut, du plus pertinent au moins pertinent.";
+    static final String SCAN_PORTFOLIO_RISK_DESCRIPTION =
+        "Analyse le risque crédit de l'ensemble du portefeuille clients. Retourne l'encours total, la répartition des retards et les clients les plus exposés (encours vs limite de crédit) avec les actions recommandées. L'analyse peut durer : si la réponse indique une tâche en cours, appeler getJobResult avec le jobId fourni.";
+    static final String GET_JOB_RESULT_DESCRIPTION =
+        "Donne le résultat d'une tâche de fond lancée par un autre outil (ex: scanPortfolioRisk), ou son avancement si elle n'est pas terminée. Nécessite le jobId renvoyé au lancement.";
+    static final String CREATE_ORDER_DESCRIPTION =
+        "Crée une nouvelle commande pour un client. Nécessite le code client et les lignes de commande (code produit et quantité uniquement - les détails produit sont récupérés automatiquement). Demande confirmation avant création effective : pour confirmer, rappeler avec confirmed=true et le confirmationId renvoyé.";
+
     /**
      * Outil : Rechercher une commande
      * 
      * Le LLM peut appeler cet outil pour rechercher une commande par son numéro.
      */
     @Bean
-    @Description("Recherche une commande par son numéro. Retourne les détails complets de la commande incluant le client, les lignes, les montants et le statut.")
+    @Description(FIND_ORDER_DESCRIPTION)
     public Function<FindOrderRequest, String> findOrder() {
         return request -> {
             log.info("Tool findOrder appelé avec: {}", request.orderNumber());
-            McpResponse response = capabilityHandler.findOrder(request.orderNumber());
-            return response.toAIFormat();
+            return invoke("findOrder", () -> capabilityHandler.findOrder(request.orderNumber(), request.pageToken()));
         };
     }
     
@@ -60,12 +102,11 @@ public class McpToolsConfiguration {
      * Le LLM peut appeler cet outil pour obtenir une analyse détaillée d'une facture.
      */
     @Bean
-    @Description("Analyse une facture en profondeur. Retourne le statut de paiement, les indicateurs de risque, les recommandations d'action et l'historique du client.")
+    @Description(ANALYZE_INVOICE_DESCRIPTION)
     public Function<AnalyzeInvoiceRequest, String> analyzeInvoice() {
         return request -> {
             log.info("Tool analyzeInvoice appelé avec: {}", request.invoiceNumber());
-            McpResponse response = capabilityHandler.analyzeInvoice(request.invoiceNumber());
-            return response.toAIFormat();
+            return invoke("analyzeInvoice", () -> capabilityHandler.analyzeInvoice(request.invoiceNumber()));
         };
     }
     
@@ -75,12 +116,111 @@ public class McpToolsConfiguration {
      * Le LLM peut appeler cet outil pour obtenir un résumé complet de l'activité d'un client.
      */
     @Bean
-    @Description("Génère un résumé complet de l'activité d'un client incluant ses commandes récentes, ses factures, sa situation financière et ses indicateurs de fidélité.")
+    @Description(SUMMARIZE_CUSTOMER_ACTIVITY_DESCRIPTION)
     public Function<SummarizeCustomerRequest, String> summarizeCustomerActivity() {
         return request -> {
             log.info("Tool summarizeCustomerActivity appelé avec: {}", request.customerCode());
-            McpResponse response = capabilityHandler.summarizeCustomerActivity(request.customerCode());
-            return response.toAIFormat();
+            return invoke("summarizeCustomerActivity", () -> capabilityHandler.summarizeCustomerActivity(request.customerCode()));
+        };
+    }
+    
+    /**
+     * Outil : Rechercher plusieurs commandes
+     * 
+     * Un seul aller-retour avec le LLM au lieu d'un appel de findOrder par commande.
+     */
+    @Bean
+    @Description(FIND_ORDERS_DESCRIPTION)
+    public Function<FindOrdersRequest, String> findOrders() {
+        return request -> {
+            log.info("Tool findOrders appelé avec: {}", request.orderNumbers());
+            return invoke("findOrders", () -> capabilityHandler.findOrders(request.orderNumbers()));
+        };
+    }
+    
+    /**
+     * Outil : Analyser plusieurs factures
+     * 
+     * Un seul aller-retour avec le LLM au lieu d'un appel d'analyzeInvoice par facture.
+     */
+    @Bean
+    @Description(ANALYZE_INVOICES_DESCRIPTION)
+    public Function<AnalyzeInvoicesRequest, String> analyzeInvoices() {
+        return request -> {
+            log.info("Tool analyzeInvoices appelé avec: {}", request.invoiceNumbers());
+            return invoke("analyzeInvoices", () -> capabilityHandler.analyzeInvoices(request.invoiceNumbers()));
+        };
+    }
+    
+    /**
+     * Outil : Résumer l'activité de plusieurs clients
+     * 
+     * Un seul aller-retour avec le LLM pour comparer des clients.
+     */
+    @Bean
+    @Description(SUMMARIZE_CUSTOMERS_DESCRIPTION)
+    public Function<SummarizeCustomersRequest, String> summarizeCustomers() {
+        return request -> {
+            log.info("Tool summarizeCustomers appelé avec: {}", request.customerCodes());
+            return invoke("summarizeCustomers", () -> capabilityHandler.summarizeCustomers(request.customerCodes()));
+        };
+    }
+    
+    /**
+     * Outil : Lister les factures d'un client
+     * 
+     * Historique paginé : le LLM ne lit que les pages dont il a besoin.
+     */
+    @Bean
+    @Description(LIST_CUSTOMER_INVOICES_DESCRIPTION)
+    public Function<ListCustomerInvoicesRequest, String> listCustomerInvoices() {
+        return request -> {
+            log.info("Tool listCustomerInvoices appelé avec: {}", request.customerCode());
+            return invoke("listCustomerInvoices",
+                () -> capabilityHandler.listCustomerInvoices(request.customerCode(), request.pageToken()));
+        };
+    }
+    
+    /**
+     * Outil : Rechercher des clients par nom
+     * 
+     * Le LLM peut appeler cet outil pour retrouver le code d'un client à partir de son nom.
+     */
+    @Bean
+    @Description(SEARCH_CUSTOMERS_DESCRIPTION)
+    public Function<SearchCustomersRequest, String> searchCustomers() {
+        return request -> {
+            log.info("Tool searchCustomers appelé avec: {}", request.name());
+            return invoke("searchCustomers", () -> capabilityHandler.searchCustomers(request.name()));
+        };
+    }
+    
+    /**
+     * Outil : Analyser le risque du portefeuille
+     * 
+     * Le LLM peut appeler cet outil pour obtenir une vue consolidée du risque crédit de tous les clients.
+     */
+    @Bean
+    @Description(SCAN_PORTFOLIO_RISK_DESCRIPTION)
+    public Function<PortfolioRiskToolRequest, String> scanPortfolioRisk() {
+        return request -> {
+            int topCount = request.topCountOrDefault();
+            log.info("Tool scanPortfolioRisk appelé (top {})", topCount);
+            return invoke("scanPortfolioRisk", () -> capabilityHandler.startPortfolioRiskScan(topCount));
+        };
+    }
+    
+    /**
+     * Outil : Consulter une tâche de fond
+     * 
+     * Le LLM peut appeler cet outil pour récupérer le résultat d'une analyse lancée en tâche de fond.
+     */
+    @Bean
+    @Description(GET_JOB_RESULT_DESCRIPTION)
+    public Function<GetJobResultRequest, String> getJobResult() {
+        return request -> {
+            log.info("Tool getJobResult appelé avec: {}", request.jobId());
+            return invoke("getJobResult", () -> capabilityHandler.getJobResult(request.jobId()));
         };
     }
     
@@ -91,7 +231,7 @@ public class McpToolsConfiguration {
      * ATTENTION : Cet outil nécessite une confirmation utilisateur.
      */
     @Bean
-    @Description("Crée une nouvelle commande pour un client. Nécessite le code client et les lignes de commande (code produit et quantité uniquement - les détails produit sont récupérés automatiquement). Demande confirmation avant création effective.")
+    @Description(CREATE_ORDER_DESCRIPTION)
     public Function<CreateOrderToolRequest, String> createOrder() {
         return request -> {
             log.info("Tool createOrder appelé pour client: {}", request.customerCode());
@@ -99,16 +239,40 @@ public class McpToolsConfiguration {
             // Conversion de la requête tool vers la requête service
             CreateOrderRequest serviceRequest = convertToServiceRequest(request);
             
-            McpResponse response = capabilityHandler.createOrder(serviceRequest, request.confirmed());
-            return response.toAIFormat();
+            return invoke("createOrder", () -> capabilityHandler.createOrder(serviceRequest, request.confirmed(),
+                request.confirmationId(), request.idempotencyKey()));
         };
     }
     
+    /**
+     * Exécute une capacité et met en forme sa réponse pour le LLM
+     * 
+     * Un dépassement de quota est renvoyé comme une réponse RATE_LIMITED que
+     * le LLM peut expliquer, au lieu d'interrompre toute la conversation.
+     * Spring AI ne transmet que le texte : le nombre de tokens estimé est
+     * relevé par outil et par format (mcp.tool.output.tokens).
+     */
+    private String invoke(String toolName, Supplier<McpResponse> call) {
+        McpResponse response;
+        try {
+            response = call.get();
+        } catch (McpRateLimitedException e) {
+            response = McpResponse.rateLimited(e.getMessage());
+        }
+        ToolOutputRenderer.RenderedOutput output = outputRenderer.renderOutput(toolName, response);
+        DistributionSummary.builder("mcp.tool.output.tokens")
+            .tag("tool", toolName)
+            .tag("format", output.format().name())
+            .register(meterRegistry)
+            .record(output.tokenEstimate());
+        return output.text();
+    }
+    
     /**
      * Convertit une requête tool en requête service
      * Les détails produit (nom, prix) seront récupérés par le service depuis la base de données
      */
-    private CreateOrderRequest convertToServiceRequest(CreateOrderToolRequest toolRequest) {
+    static CreateOrderRequest convertToServiceRequest(CreateOrderToolRequest toolRequest) {
         List<CreateOrderRequest.OrderLineRequest> lines = toolRequest.lines().stream()
             .map(line -> CreateOrderRequest.OrderLineRequest.builder()
                 .productCode(line.productCode())
@@ -129,9 +293,11 @@ public class McpToolsConfiguration {
     /**
      * Paramètres pour la recherche de commande
      * @param orderNumber Numéro de la commande à rechercher (ex: CMD-20240115-ABC123)
+     * @param pageToken Jeton de la page suivante des lignes, renvoyé par l'appel précédent (optionnel)
      */
     public record FindOrderRequest(
-        String orderNumber
+        String orderNumber,
+        String pageToken
     ) {}
     
     /**
@@ -150,6 +316,68 @@ public class McpToolsConfiguration {
         String customerCode
     ) {}
     
+    /**
+     * Paramètres pour la recherche de plusieurs commandes
+     * @param orderNumbers Numéros des commandes à rechercher (ex: ["CMD-20240115-ABC123", "CMD-20240116-DEF456"])
+     */
+    public record FindOrdersRequest(
+        List<String> orderNumbers
+    ) {}
+    
+    /**
+     * Paramètres pour l'analyse de plusieurs factures
+     * @param invoiceNumbers Numéros des factures à analyser (ex: ["FAC-2024-001234", "FAC-2024-001235"])
+     */
+    public record AnalyzeInvoicesRequest(
+        List<String> invoiceNumbers
+    ) {}
+    
+    /**
+     * Paramètres pour le résumé de plusieurs clients
+     * @param customerCodes Codes des clients à résumer (ex: ["CLI-001", "CLI-004"])
+     */
+    public record SummarizeCustomersRequest(
+        List<String> customerCodes
+    ) {}
+    
+    /**
+     * Paramètres pour la liste des factures d'un client
+     * @param customerCode Code unique du client (ex: CLI-001)
+     * @param pageToken Jeton de la page suivante, renvoyé par l'appel précédent (optionnel)
+     */
+    public record ListCustomerInvoicesRequest(
+        String customerCode,
+        String pageToken
+    ) {}
+    
+    /**
+     * Paramètres pour la recherche de clients
+     * @param name Nom ou partie du nom de l'entreprise (ex: TechCorp)
+     */
+    public record SearchCustomersRequest(
+        String name
+    ) {}
+    
+    /**
+     * Paramètres pour l'analyse du risque portefeuille
+     * @param topCount Nombre de clients les plus exposés à détailler (optionnel, 10 par défaut)
+     */
+    public record PortfolioRiskToolRequest(
+        Integer topCount
+    ) {
+        int topCountOrDefault() {
+            return topCount != null && topCount > 0 ? topCount : 10;
+        }
+    }
+    
+    /**
+     * Paramètres pour la consultation d'une tâche de fond
+     * @param jobId Identifiant de la tâche renvoyé au lancement (ex: JOB-123456789)
+     */
+    public record GetJobResultRequest(
+        String jobId
+    ) {}
+    
     /**
      * Paramètres pour la création de commande
      * @param customerCode Code du client pour la commande
@@ -157,13 +385,17 @@ public class McpToolsConfiguration {
      * @param shippingAddress Adresse de livraison (optionnel)
      * @param notes Notes additionnelles (optionnel)
      * @param confirmed True si l'utilisateur a confirmé la création
+     * @param confirmationId correlationId renvoyé par la demande de confirmation (à fournir avec confirmed=true)
+     * @param idempotencyKey Identifiant unique de l'action, identique en cas de nouvel essai (optionnel)
      */
     public record CreateOrderToolRequest(
         String customerCode,
         List<OrderLineToolRequest> lines,
         String shippingAddress,
         String notes,
-        boolean confirmed
+        boolean confirmed,
+        String confirmationId,
+        String idempotencyKey
     ) {}
     
     /**
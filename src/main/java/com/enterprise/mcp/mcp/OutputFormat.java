@@ -0,0 +1,24 @@
+package com.enterprise.mcp.mcp;
+
+/**
+ * Formats de sortie des outils MCP renvoyés au LLM
+ */
+public enum OutputFormat {
+    
+    /**
+     * Texte rédigé en markdown (lisible, le plus verbeux)
+     */
+    TEXT,
+    
+    /**
+     * JSON compact : données structurées sans libellés ni mise en forme
+     */
+    JSON,
+    
+    /**
+     * TOON (Token-Oriented Object Notation) : indentation à la YAML et
+     * tableaux d'objets en lignes CSV sous un en-tête unique de champs.
+     * Le plus économe en tokens pour les lignes de commande et les factures.
+     */
+    TOON
+}
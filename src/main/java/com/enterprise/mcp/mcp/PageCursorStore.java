@@ -0,0 +1,78 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.id.IdGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Curseurs des résultats paginés, indexés par jeton de page (pageToken)
+ *
+ * Un curseur mémorise la position keyset atteinte (dernière date et dernier
+ * ID renvoyés) : la page suivante reprend par une requête « après cette
+ * position », au coût constant quelle que soit sa profondeur, là où un
+ * OFFSET relirait toutes les lignes précédentes.
+ *
+ * Chaque page émet un nouveau jeton ; un jeton reste valable jusqu'à son
+ * expiration (mcp.pagination.cursor-ttl), ce qui permet de rejouer une page.
+ * Il n'est utilisable que par l'utilisateur et l'outil qui l'ont obtenu.
+ */
+@Component
+public class PageCursorStore {
+
+    /**
+     * Position d'un parcours paginé
+     *
+     * @param key Identifiant fonctionnel parcouru (numéro de commande, code client)
+     * @param targetId ID technique correspondant
+     * @param lastDate Date du dernier élément renvoyé, null si le tri est sur l'ID seul
+     * @param lastId ID du dernier élément renvoyé
+     * @param served Nombre d'éléments déjà renvoyés
+     * @param total Nombre total d'éléments au début du parcours
+     */
+    public record PageCursor(
+        String username,
+        String tool,
+        String key,
+        Long targetId,
+        LocalDate lastDate,
+        Long lastId,
+        int served,
+        long total
+    ) {}
+
+    private final Cache<String, PageCursor> cursors;
+    private final IdGenerator idGenerator;
+
+    public PageCursorStore(IdGenerator idGenerator,
+                           @Value("${mcp.pagination.cursor-ttl:PT15M}") Duration ttl,
+                           @Value("${mcp.pagination.max-cursors:10000}") long maxCursors) {
+        this.idGenerator = idGenerator;
+        this.cursors = Caffeine.newBuilder()
+            .maximumSize(maxCursors)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * Enregistre la position atteinte et renvoie le jeton de la page suivante
+     */
+    public String open(PageCursor cursor) {
+        String token = "PG-" + idGenerator.nextIdString();
+        cursors.put(token, cursor);
+        return token;
+    }
+
+    /**
+     * Curseur d'un jeton ; vide s'il est inconnu, expiré, ou obtenu par un autre utilisateur ou un autre outil
+     */
+    public Optional<PageCursor> find(String token, String username, String tool) {
+        return Optional.ofNullable(cursors.getIfPresent(token))
+            .filter(cursor -> cursor.username().equals(username) && cursor.tool().equals(tool));
+    }
+}
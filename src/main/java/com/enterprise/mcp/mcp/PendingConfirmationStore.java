@@ -0,0 +1,71 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.service.dto.PricedOrder;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * Commandes validées en attente de confirmation, indexées par correlationId
+ *
+ * Le premier appel de createOrder (confirmed=false) valide et chiffre la
+ * commande puis la dépose ici ; l'appel de confirmation la retrouve par le
+ * correlationId renvoyé dans la demande de confirmation, sans tout revalider.
+ *
+ * Une confirmation ne peut être traitée qu'une fois : l'entrée passe en
+ * CONFIRMING pendant la création puis en COMPLETED avec le numéro de
+ * commande, qu'une confirmation en double se contente de renvoyer.
+ * Les entrées expirent après mcp.confirmation.ttl.
+ *
+ * Deux implémentations, choisies par state.backend :
+ * - memory (défaut) : dans le tas de l'instance
+ * - hazelcast : partagées entre les instances, la confirmation peut arriver
+ *   sur une autre instance que la demande
+ */
+public interface PendingConfirmationStore {
+
+    enum State {
+        PENDING,
+        CONFIRMING,
+        COMPLETED
+    }
+
+    /**
+     * Commande en attente, réservée à l'utilisateur qui l'a préparée
+     */
+    record PendingOrder(
+        String correlationId,
+        String username,
+        PricedOrder order,
+        State state,
+        String orderNumber
+    ) implements Serializable {
+        PendingOrder withState(State newState, String newOrderNumber) {
+            return new PendingOrder(correlationId, username, order, newState, newOrderNumber);
+        }
+    }
+
+    /**
+     * Dépose une commande validée en attente de confirmation
+     */
+    void register(String correlationId, String username, PricedOrder order);
+
+    /**
+     * Réserve une commande en attente pour la confirmer
+     *
+     * @return L'entrée telle qu'elle était avant la réservation : PENDING si la
+     *         réservation a réussi, CONFIRMING ou COMPLETED pour une confirmation
+     *         en double ; vide si inconnue, expirée ou préparée par un autre utilisateur
+     */
+    Optional<PendingOrder> claim(String correlationId, String username);
+
+    /**
+     * Enregistre le numéro de la commande créée, renvoyé aux confirmations en double
+     */
+    void complete(String correlationId, String orderNumber);
+
+    /**
+     * Remet en attente une commande dont la création a échoué
+     */
+    void release(String correlationId);
+}
@@ -0,0 +1,92 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clients LLM par rôle MCP
+ *
+ * Chaque rôle dispose de son propre ChatClient, qui ne déclare au LLM que les
+ * outils autorisés pour ce rôle : un utilisateur SUPPORT ne paie plus les
+ * tokens du schéma de createOrder. Le prompt système est calculé une fois par
+ * rôle ; identique d'un message à l'autre, il forme un préfixe stable que le
+ * cache de prompt du fournisseur peut réutiliser.
+ *
+ * Les outils et le prompt suivent l'ordre alphabétique des noms, pour que le
+ * préfixe ne dépende pas de l'ordre d'itération d'une Map.
+ */
+@Component
+@Lazy
+@Slf4j
+public class RoleChatClients {
+
+    private static final String BASE_PROMPT =
+        "Tu es un assistant interne de gestion commerciale. " +
+        "Contexte de sécurité: l'utilisateur courant a le rôle '%s'. " +
+        "Outils AUTORISÉS pour ce rôle: %s. " +
+        "Règle impérative: n'appelle JAMAIS un outil en dehors de la liste AUTORISÉE, même si l'utilisateur le demande. " +
+        "Si une action requiert un outil non autorisé, explique que l'utilisateur n'a pas les droits et propose une alternative (ex: consulter commandes/factures, ou demander un rôle MANAGER/ADMIN). ";
+
+    private static final String CONFIRMATION_RULE =
+        "Pour les outils qui nécessitent confirmation (ex: createOrder), appelle d'abord l'outil avec confirmed=false et demande confirmation avant de poursuivre. ";
+
+    private static final String OUTPUT_RULE =
+        "Les résultats d'outils peuvent être en JSON compact ou en TOON (tableau: nom[n]{champs} puis une ligne CSV par élément); montants en euros.\n\n";
+
+    private final Map<McpRole, RoleChat> chats = new EnumMap<>(McpRole.class);
+
+    /**
+     * Le ChatClient.Builder de Spring AI est de portée prototype : chaque
+     * appel à getObject() renvoie un builder vierge.
+     */
+    public RoleChatClients(ObjectProvider<ChatClient.Builder> builders) {
+        for (McpRole role : McpRole.values()) {
+            List<String> tools = McpToolsConfiguration.TOOLS.entrySet().stream()
+                .filter(tool -> role.hasCapability(tool.getValue()))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+            boolean confirmation = tools.stream()
+                .anyMatch(tool -> McpToolsConfiguration.TOOLS.get(tool).requiresConfirmation());
+
+            ChatClient.Builder builder = builders.getObject();
+            if (!tools.isEmpty()) {
+                builder.defaultFunctions(tools.toArray(String[]::new));
+            }
+
+            chats.put(role, new RoleChat(builder.build(), systemPrompt(role, tools, confirmation)));
+            log.debug("Client LLM du rôle {}: {} outil(s)", role, tools.size());
+        }
+    }
+
+    /**
+     * Client et prompt système du rôle
+     */
+    public RoleChat forRole(McpRole role) {
+        return chats.get(role);
+    }
+
+    private static String systemPrompt(McpRole role, List<String> tools, boolean confirmation) {
+        String allowedTools = tools.isEmpty() ? "(aucun)" : String.join(", ", tools);
+
+        StringBuilder prompt = new StringBuilder(BASE_PROMPT.formatted(role.name(), allowedTools));
+        if (confirmation) {
+            prompt.append(CONFIRMATION_RULE);
+        }
+        return prompt.append(OUTPUT_RULE).toString();
+    }
+
+    /**
+     * @param client ChatClient limité aux outils du rôle
+     * @param systemPrompt préfixe du prompt système, constant pour le rôle
+     */
+    public record RoleChat(ChatClient client, String systemPrompt) {}
+}
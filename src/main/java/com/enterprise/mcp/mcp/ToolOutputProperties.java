@@ -0,0 +1,31 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpRole;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Choix du format de sortie des outils MCP (mcp.output.*)
+ * 
+ * Ordre de priorité : outil, puis rôle de l'utilisateur, puis modèle LLM,
+ * puis format par défaut.
+ */
+@Data
+@ConfigurationProperties(prefix = "mcp.output")
+public class ToolOutputProperties {
+    
+    private OutputFormat defaultFormat = OutputFormat.TEXT;
+    
+    /** Format par nom d'outil (ex: findOrder: TOON) */
+    private Map<String, OutputFormat> tools = new HashMap<>();
+    
+    /** Format par rôle MCP */
+    private Map<McpRole, OutputFormat> roles = new EnumMap<>(McpRole.class);
+    
+    /** Format par modèle LLM (ex: gpt-4o-mini: JSON) */
+    private Map<String, OutputFormat> models = new HashMap<>();
+}
@@ -0,0 +1,132 @@
+package com.enterprise.mcp.mcp;
+
+import com.enterprise.mcp.security.McpRole;
+import com.enterprise.mcp.security.McpSecurityContext;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mise en forme des réponses MCP renvoyées au LLM
+ *
+ * Le nombre de tokens conditionne à la fois la latence et le coût du LLM.
+ * Selon la configuration (mcp.output), une réponse est renvoyée :
+ * - en TEXT : le rapport markdown rédigé (comportement historique)
+ * - en JSON : ses données structurées, sans libellés ni mise en forme
+ * - en TOON : les mêmes données, tableaux en lignes sous un en-tête unique
+ *
+ * Le format retenu et l'estimation du nombre de tokens accompagnent la
+ * sortie (renderOutput) ; la réponse d'origine n'est pas modifiée, elle peut
+ * être partagée (réponses rejouées par clé d'idempotence, tâches de fond).
+ */
+@Component
+@Slf4j
+public class ToolOutputRenderer {
+
+    private final ToolOutputProperties properties;
+    private final McpSecurityContext securityContext;
+    private final ObjectMapper compactMapper;
+    private final String model;
+
+    public ToolOutputRenderer(ToolOutputProperties properties,
+                              McpSecurityContext securityContext,
+                              ObjectMapper objectMapper,
+                              @Value("${spring.ai.openai.chat.options.model:}") String model) {
+        this.properties = properties;
+        this.securityContext = securityContext;
+        this.compactMapper = objectMapper.copy()
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+            .disable(SerializationFeature.INDENT_OUTPUT)
+            .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        this.model = model;
+    }
+
+    /**
+     * Sortie d'un outil telle qu'envoyée au LLM, avec son format et son nombre de tokens estimé
+     */
+    public record RenderedOutput(String text, OutputFormat format, int tokenEstimate) {
+
+        public McpResponse.Output output() {
+            return new McpResponse.Output(format, tokenEstimate);
+        }
+    }
+
+    /**
+     * Copie de la réponse accompagnée du format et du nombre de tokens de sa sortie (endpoints de test)
+     */
+    public McpResponse withOutput(String toolName, McpResponse response) {
+        return response.toBuilder()
+            .output(renderOutput(toolName, response).output())
+            .build();
+    }
+
+    /**
+     * Met en forme la réponse d'un outil et en calcule les métadonnées, sans modifier la réponse
+     */
+    public RenderedOutput renderOutput(String toolName, McpResponse response) {
+        OutputFormat format = resolveFormat(toolName);
+
+        String output = switch (format) {
+            case TEXT -> response.toAIFormat();
+            case JSON -> toJson(response);
+            case TOON -> ToonEncoder.encode(envelope(response));
+        };
+
+        int tokens = TokenEstimator.estimate(output);
+        log.debug("Sortie de l'outil {} en {}: {} caractères, ~{} tokens", toolName, format, output.length(), tokens);
+
+        return new RenderedOutput(output, format, tokens);
+    }
+
+    /**
+     * Format applicable : outil, puis rôle, puis modèle, puis défaut
+     */
+    public OutputFormat resolveFormat(String toolName) {
+        OutputFormat format = properties.getTools().get(toolName);
+        if (format != null) {
+            return format;
+        }
+
+        McpRole role = securityContext.getRole();
+        if (role != null && properties.getRoles().containsKey(role)) {
+            return properties.getRoles().get(role);
+        }
+
+        return properties.getModels().getOrDefault(model, properties.getDefaultFormat());
+    }
+
+    private String toJson(McpResponse response) {
+        try {
+            return compactMapper.writeValueAsString(envelope(response));
+        } catch (JsonProcessingException e) {
+            log.warn("Sérialisation JSON impossible, repli sur le texte: {}", e.getMessage());
+            return response.toAIFormat();
+        }
+    }
+
+    /**
+     * Enveloppe commune : statut, puis données structurées ou message, puis jeton de la page suivante
+     */
+    private ObjectNode envelope(McpResponse response) {
+        ObjectNode envelope = compactMapper.createObjectNode();
+        envelope.put("status", response.getStatus().name());
+        if (response.getCorrelationId() != null) {
+            envelope.put("correlationId", response.getCorrelationId());
+        }
+        if (response.getData() != null) {
+            envelope.set("data", compactMapper.valueToTree(response.getData()));
+        } else {
+            envelope.put("message", response.getContent());
+        }
+        if (response.isHasMore()) {
+            envelope.put("nextPageToken", response.getNextPageToken());
+        }
+        return envelope;
+    }
+}
@@ -0,0 +1,235 @@
+package com.enterprise.mcp.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Encodeur TOON (Token-Oriented Object Notation)
+ *
+ * Représentation des données structurées pensée pour les prompts :
+ * <pre>
+ * orderNumber: CMD-20240115-TC001
+ * lines[2]{productCode,productName,quantity,unitPrice,lineTotal}:
+ *   PRD-001,Licence CRM,10,99.00,990.00
+ *   PRD-002,"Support, premium",1,500.00,500.00
+ * </pre>
+ * Les objets sont indentés comme en YAML ; un tableau d'objets de même forme
+ * n'écrit ses noms de champs qu'une fois, puis une ligne par élément. C'est là
+ * que se fait l'essentiel du gain par rapport au JSON.
+ */
+public final class ToonEncoder {
+
+    private static final String INDENT = "  ";
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    private ToonEncoder() {
+    }
+
+    public static String encode(JsonNode root) {
+        StringBuilder sb = new StringBuilder(256);
+        if (root.isObject()) {
+            writeFields(sb, root, 0);
+        } else if (root.isArray()) {
+            writeArray(sb, "", root, 0);
+        } else {
+            sb.append(primitive(root));
+        }
+
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == '\n') {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    private static void writeFields(StringBuilder sb, JsonNode object, int depth) {
+        Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            writeField(sb, field.getKey(), field.getValue(), depth);
+        }
+    }
+
+    private static void writeField(StringBuilder sb, String key, JsonNode value, int depth) {
+        if (value.isArray()) {
+            writeArray(sb, key, value, depth);
+            return;
+        }
+        indent(sb, depth).append(key(key)).append(':');
+        if (value.isObject()) {
+            sb.append('\n');
+            writeFields(sb, value, depth + 1);
+        } else {
+            sb.append(' ').append(primitive(value)).append('\n');
+        }
+    }
+
+    private static void writeArray(StringBuilder sb, String key, JsonNode array, int depth) {
+        indent(sb, depth).append(key(key));
+        writeArrayBody(sb, array, depth);
+    }
+
+    private static void writeArrayBody(StringBuilder sb, JsonNode array, int depth) {
+        sb.append('[').append(array.size()).append(']');
+
+        if (array.isEmpty()) {
+            sb.append(":\n");
+            return;
+        }
+
+        if (allPrimitive(array)) {
+            sb.append(": ");
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(primitive(array.get(i)));
+            }
+            sb.append('\n');
+            return;
+        }
+
+        List<String> columns = tabularColumns(array);
+        if (columns != null) {
+            sb.append('{');
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(key(columns.get(i)));
+            }
+            sb.append("}:\n");
+            for (JsonNode row : array) {
+                indent(sb, depth + 1);
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0) sb.append(',');
+                    sb.append(primitive(row.get(columns.get(i))));
+                }
+                sb.append('\n');
+            }
+            return;
+        }
+
+        // Tableau hétérogène : un élément par ligne préfixée de "- "
+        sb.append(":\n");
+        for (JsonNode item : array) {
+            if (item.isObject() && !item.isEmpty()) {
+                // Le premier champ partage la ligne du tiret, même largeur que l'indentation
+                int start = sb.length();
+                writeFields(sb, item, depth + 2);
+                sb.setCharAt(start + (depth + 1) * INDENT.length(), '-');
+            } else if (item.isArray()) {
+                indent(sb, depth + 1).append("- ");
+                writeArrayBody(sb, item, depth + 1);
+            } else {
+                indent(sb, depth + 1).append("- ").append(primitive(item)).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Colonnes communes si tous les éléments sont des objets de même forme à valeurs simples
+     */
+    private static List<String> tabularColumns(JsonNode array) {
+        JsonNode first = array.get(0);
+        if (!first.isObject() || first.isEmpty()) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        first.fieldNames().forEachRemaining(columns::add);
+
+        for (JsonNode item : array) {
+            if (!item.isObject() || item.size() != columns.size()) {
+                return null;
+            }
+            for (String column : columns) {
+                JsonNode value = item.get(column);
+                if (value == null || value.isContainerNode()) {
+                    return null;
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static boolean allPrimitive(JsonNode array) {
+        for (JsonNode item : array) {
+            if (item.isContainerNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String primitive(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return "null";
+        }
+        if (value.isBigDecimal()) {
+            return value.decimalValue().toPlainString();
+        }
+        if (value.isNumber() || value.isBoolean()) {
+            return value.asText();
+        }
+        return quoteIfNeeded(value.asText());
+    }
+
+    private static String key(String key) {
+        return key.isEmpty() ? key : quoteIfNeeded(key);
+    }
+
+    /**
+     * Les chaînes ne sont entourées de guillemets que si elles seraient ambiguës
+     */
+    private static String quoteIfNeeded(String text) {
+        if (!needsQuotes(text)) {
+            return text;
+        }
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static boolean needsQuotes(String text) {
+        if (text.isEmpty()
+            || Character.isWhitespace(text.charAt(0))
+            || Character.isWhitespace(text.charAt(text.length() - 1))
+            || text.equals("true") || text.equals("false") || text.equals("null")
+            || text.startsWith("- ")
+            || looksNumeric(text)) {
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            switch (text.charAt(i)) {
+                case ',', ':', '"', '\\', '[', ']', '{', '}', '#', '\n', '\r', '\t':
+                    return true;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean looksNumeric(String text) {
+        return NUMBER.matcher(text).matches();
+    }
+
+    private static StringBuilder indent(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append(INDENT);
+        }
+        return sb;
+    }
+}
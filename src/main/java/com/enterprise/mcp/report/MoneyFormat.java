@@ -0,0 +1,124 @@
+package com.enterprise.mcp.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formatage des montants et pourcentages des rapports destinés à l'IA
+ *
+ * Remplace String.format("%,.2f €", ...) : pas d'analyse de chaîne de format,
+ * pas de Formatter ni de chaîne intermédiaire. Les chiffres sont écrits
+ * directement dans le StringBuilder du rapport.
+ *
+ * Les symboles de la locale sont résolus une seule fois ; les instances sont
+ * immuables, partagées et mises en cache par locale.
+ */
+public final class MoneyFormat {
+
+    private static final Map<Locale, MoneyFormat> CACHE = new ConcurrentHashMap<>();
+    private static final MoneyFormat DEFAULT = of(Locale.FRANCE);
+
+    /** Au-delà, la valeur non mise à l'échelle ne tient plus dans un long */
+    private static final int MAX_LONG_PRECISION = 18;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    private final Locale locale;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final String currencySuffix;
+
+    private MoneyFormat(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.locale = locale;
+        // Espaces insécables remplacés par une espace simple : le texte est destiné au LLM
+        this.groupingSeparator = Character.isSpaceChar(symbols.getGroupingSeparator())
+            ? ' ' : symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.currencySuffix = " €";
+    }
+
+    /**
+     * Format des rapports (français, euros)
+     */
+    public static MoneyFormat getDefault() {
+        return DEFAULT;
+    }
+
+    public static MoneyFormat of(Locale locale) {
+        return CACHE.computeIfAbsent(locale, MoneyFormat::new);
+    }
+
+    /**
+     * Écrit un montant arrondi au centime avec séparateurs de milliers (ex: 1 234,50 €)
+     * Un montant null est écrit comme zéro.
+     */
+    public StringBuilder appendMoney(StringBuilder sb, BigDecimal amount) {
+        appendDecimal(sb, amount, 2, true);
+        return sb.append(currencySuffix);
+    }
+
+    /**
+     * Écrit un pourcentage avec le nombre de décimales demandé (ex: 42,5%)
+     */
+    public StringBuilder appendPercent(StringBuilder sb, BigDecimal value, int decimals) {
+        appendDecimal(sb, value, decimals, false);
+        return sb.append('%');
+    }
+
+    public String formatMoney(BigDecimal amount) {
+        return appendMoney(new StringBuilder(24), amount).toString();
+    }
+
+    private void appendDecimal(StringBuilder sb, BigDecimal value, int decimals, boolean grouping) {
+        BigDecimal scaled = (value != null ? value : BigDecimal.ZERO).setScale(decimals, RoundingMode.HALF_UP);
+
+        if (scaled.precision() > MAX_LONG_PRECISION) {
+            String pattern = grouping ? "%,." + decimals + "f" : "%." + decimals + "f";
+            sb.append(String.format(locale, pattern, scaled));
+            return;
+        }
+
+        long unscaled = scaled.unscaledValue().longValue();
+        if (unscaled < 0) {
+            sb.append('-');
+            unscaled = -unscaled;
+        }
+
+        long divisor = POWERS_OF_TEN[decimals];
+        long integerPart = unscaled / divisor;
+        if (grouping) {
+            appendGrouped(sb, integerPart);
+        } else {
+            sb.append(integerPart);
+        }
+
+        if (decimals > 0) {
+            sb.append(decimalSeparator);
+            long fraction = unscaled % divisor;
+            for (long pad = divisor / 10; pad > 1 && fraction < pad; pad /= 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+    }
+
+    private void appendGrouped(StringBuilder sb, long value) {
+        if (value < 1000) {
+            sb.append(value);
+            return;
+        }
+        appendGrouped(sb, value / 1000);
+        sb.append(groupingSeparator);
+        int group = (int) (value % 1000);
+        if (group < 100) sb.append('0');
+        if (group < 10) sb.append('0');
+        sb.append(group);
+    }
+}
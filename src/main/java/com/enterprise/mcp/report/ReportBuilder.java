@@ -0,0 +1,114 @@
+package com.enterprise.mcp.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Tampon de rédaction des rapports texte destinés à l'IA
+ *
+ * Chaque thread réutilise le même StringBuilder d'un rapport à l'autre :
+ * seule la chaîne finale est allouée. Le tampon est dimensionné à l'avance
+ * d'après la taille attendue du rapport, et réduit s'il a trop grossi.
+ *
+ * Utilisation :
+ * <pre>
+ * try (ReportBuilder report = ReportBuilder.acquire(512)) {
+ *     report.text("Total: ").money(total).newline();
+ *     return report.build();
+ * }
+ * </pre>
+ * build() libère le tampon, close() aussi si la rédaction a été interrompue par une exception ;
+ * un rapport rédigé pendant qu'un autre est en cours sur le même thread utilise simplement un tampon dédié.
+ */
+public final class ReportBuilder implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<ReportBuilder> CURRENT = ThreadLocal.withInitial(ReportBuilder::new);
+
+    private final StringBuilder sb = new StringBuilder(DEFAULT_CAPACITY);
+    private final MoneyFormat moneyFormat = MoneyFormat.getDefault();
+    private boolean inUse;
+
+    private ReportBuilder() {
+    }
+
+    /**
+     * Obtient le tampon du thread courant, vidé et dimensionné pour la taille attendue
+     */
+    public static ReportBuilder acquire(int expectedLength) {
+        ReportBuilder builder = CURRENT.get();
+        if (builder.inUse) {
+            builder = new ReportBuilder();
+        }
+        builder.inUse = true;
+        builder.sb.ensureCapacity(expectedLength);
+        return builder;
+    }
+
+    public ReportBuilder text(String value) {
+        sb.append(value);
+        return this;
+    }
+
+    /**
+     * Écrit la représentation textuelle d'une valeur (enum, date...), "null" si absente
+     */
+    public ReportBuilder text(Object value) {
+        sb.append(value);
+        return this;
+    }
+
+    public ReportBuilder text(char value) {
+        sb.append(value);
+        return this;
+    }
+
+    public ReportBuilder number(long value) {
+        sb.append(value);
+        return this;
+    }
+
+    public ReportBuilder money(BigDecimal amount) {
+        moneyFormat.appendMoney(sb, amount);
+        return this;
+    }
+
+    public ReportBuilder percent(BigDecimal value, int decimals) {
+        moneyFormat.appendPercent(sb, value, decimals);
+        return this;
+    }
+
+    public ReportBuilder newline() {
+        sb.append('\n');
+        return this;
+    }
+
+    /**
+     * Produit le rapport et libère le tampon pour le rapport suivant
+     */
+    public String build() {
+        String report = sb.toString();
+        release();
+        return report;
+    }
+
+    /**
+     * Libère le tampon si le rapport n'a pas été produit (exception pendant la rédaction) ; sans effet après build()
+     */
+    @Override
+    public void close() {
+        if (inUse) {
+            release();
+        }
+    }
+
+    private void release() {
+        sb.setLength(0);
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            sb.trimToSize();
+            sb.ensureCapacity(DEFAULT_CAPACITY);
+        }
+        inUse = false;
+    }
+}
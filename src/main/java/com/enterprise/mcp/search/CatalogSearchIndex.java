@@ -0,0 +1,192 @@
+package com.enterprise.mcp.search;
+
+import com.enterprise.mcp.config.DataInitializer;
+import com.enterprise.mcp.domain.entity.Customer;
+import com.enterprise.mcp.domain.entity.Product;
+import com.enterprise.mcp.domain.event.CustomerChangedEvent;
+import com.enterprise.mcp.domain.event.ProductChangedEvent;
+import com.enterprise.mcp.domain.repository.CustomerRepository;
+import com.enterprise.mcp.domain.repository.ProductRepository;
+import com.enterprise.mcp.search.TrigramIndex.Match;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Index de recherche en mémoire des produits et des clients
+ *
+ * Remplace les requêtes LIKE '%x%' (balayage complet de table) pour la
+ * résolution de noms : l'IA retrouve un client ou un produit par un nom
+ * approximatif sans interroger la base.
+ *
+ * L'index est construit une fois les données de démonstration en place
+ * (y compris quand elles sont chargées en arrière-plan, data.init.mode=ASYNC),
+ * puis maintenu de façon incrémentale à partir des événements de
+ * modification publiés par les services (reçus après commit).
+ *
+ * Une reconstruction remplit de nouveaux index puis les substitue d'un bloc :
+ * les recherches concurrentes ne voient jamais un index vide ou partiel.
+ * Les modifications reçues pendant la reconstruction s'appliquent à l'index
+ * courant et sont rejouées sur les nouveaux index juste avant la
+ * substitution : la lecture de la base a pu les précéder.
+ */
+@Component
+@Slf4j
+public class CatalogSearchIndex {
+
+    /** Poids de la description par rapport au nom dans le classement produits */
+    private static final double DESCRIPTION_WEIGHT = 0.5;
+
+    /**
+     * Index des produits et des clients, substitués ensemble à chaque reconstruction
+     */
+    private record Indexes(TrigramIndex<Long> productNames,
+                           TrigramIndex<Long> productDescriptions,
+                           TrigramIndex<Long> customerNames) {
+
+        Indexes() {
+            this(new TrigramIndex<>(), new TrigramIndex<>(), new TrigramIndex<>());
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final DataInitializer dataInitializer;
+    private final double minScore;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final Object changeLock = new Object();
+
+    private volatile Indexes indexes = new Indexes();
+    /** Modifications reçues pendant une reconstruction, à rejouer ; null hors reconstruction */
+    private List<Consumer<Indexes>> pendingChanges;
+
+    public CatalogSearchIndex(ProductRepository productRepository,
+                              CustomerRepository customerRepository,
+                              DataInitializer dataInitializer,
+                              @Value("${search.min-score:0.3}") double minScore) {
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.dataInitializer = dataInitializer;
+        this.minScore = minScore;
+    }
+
+    /**
+     * Construction complète de l'index dès que les données de démonstration
+     * sont en place : tout de suite si elles sont chargées au démarrage, sinon
+     * à la fin du chargement en arrière-plan (sur son thread)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void buildWhenDataReady() {
+        dataInitializer.completion().whenComplete((result, error) -> {
+            try {
+                rebuild();
+            } finally {
+                ready.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Terminée une fois l'index construit sur les données de démonstration
+     */
+    public CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    /**
+     * Reconstruit l'index à partir de la base, puis le substitue à l'index courant
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+
+        synchronized (changeLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        Indexes rebuilt = new Indexes();
+        productRepository.findAll().forEach(product -> indexProduct(rebuilt, product));
+        customerRepository.findAll().forEach(customer -> indexCustomer(rebuilt, customer));
+        synchronized (changeLock) {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            indexes = rebuilt;
+        }
+
+        log.info("Index de recherche construit: {} produits, {} clients en {} ms",
+            rebuilt.productNames().size(), rebuilt.customerNames().size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        apply(target -> indexProduct(target, product));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        Customer customer = event.customer();
+        apply(target -> indexCustomer(target, customer));
+    }
+
+    /**
+     * Recherche de produits par nom, code ou description (tolère les fautes de frappe)
+     *
+     * @return IDs des produits, du plus pertinent au moins pertinent
+     */
+    public List<Long> searchProducts(String query, int limit) {
+        Indexes current = indexes;
+        Map<Long, Double> scores = new HashMap<>();
+        for (Match<Long> match : current.productNames().search(query, limit, minScore)) {
+            scores.merge(match.key(), match.score(), Double::sum);
+        }
+        for (Match<Long> match : current.productDescriptions().search(query, limit, minScore)) {
+            scores.merge(match.key(), match.score() * DESCRIPTION_WEIGHT, Double::sum);
+        }
+        return scores.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    /**
+     * Recherche de clients par raison sociale ou code (tolère les fautes de frappe)
+     *
+     * @return IDs des clients, du plus pertinent au moins pertinent
+     */
+    public List<Long> searchCustomers(String query, int limit) {
+        return indexes.customerNames().search(query, limit, minScore).stream()
+            .map(Match::key)
+            .toList();
+    }
+
+    private void apply(Consumer<Indexes> change) {
+        synchronized (changeLock) {
+            change.accept(indexes);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    private static void indexProduct(Indexes target, Product product) {
+        target.productNames().put(product.getId(), product.getName() + " " + product.getProductCode());
+        target.productDescriptions().put(product.getId(), product.getDescription());
+    }
+
+    private static void indexCustomer(Indexes target, Customer customer) {
+        target.customerNames().put(customer.getId(), customer.getCompanyName() + " " + customer.getCustomerCode());
+    }
+}
@@ -0,0 +1,292 @@
+package com.enterprise.mcp.search;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index de recherche par trigrammes, en mémoire
+ *
+ * Chaque texte est normalisé (minuscules, sans accents ni ponctuation) puis
+ * découpé en trigrammes, mot par mot, avec bourrage de début et de fin de mot
+ * (même principe que pg_trgm). La recherche compte les trigrammes communs
+ * via les listes inversées et classe les documents par coefficient de Dice :
+ * une faute de frappe ne fait perdre que quelques trigrammes.
+ *
+ * Les documents reçoivent un identifiant interne dense (int) : listes inversées
+ * et compteurs sont des tableaux d'entiers, sans boxing sur le chemin de recherche.
+ * Le tableau des compteurs est propre à chaque thread et réutilisé d'une
+ * recherche à l'autre : seules les cases touchées sont remises à zéro.
+ * Les mises à jour sont incrémentales (put/remove) ; chaque document connaît
+ * sa position dans les listes de ses trigrammes, un retrait ne parcourt donc
+ * pas les listes. Les lectures concurrentes ne se bloquent pas entre elles.
+ *
+ * @param <K> Type de la clé des documents indexés (ex: ID d'entité)
+ */
+public class TrigramIndex<K> {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    /** Bonus appliqué quand la requête apparaît telle quelle dans le texte */
+    private static final double CONTAINS_BONUS = 0.5;
+
+    /** Compteurs de trigrammes communs par document, remis à zéro après chaque recherche */
+    private static final ThreadLocal<int[]> SHARED_COUNTS = ThreadLocal.withInitial(() -> new int[0]);
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<K, Integer> docIds = new HashMap<>();
+    private final List<Document<K>> documents = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Résultat de recherche : clé du document et score de similarité
+     */
+    public record Match<K>(K key, double score) {}
+
+    /**
+     * Document indexé ; positions[i] est sa position dans la liste inversée de trigrams[i]
+     */
+    private record Document<K>(K key, String normalizedText, String[] trigrams, int[] positions) {}
+
+    /**
+     * Liste inversée d'un trigramme : identifiants internes, non triés, et pour
+     * chacun le rang du trigramme dans le document (pour tenir ses positions à jour)
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int[] slots = new int[4];
+        private int size;
+
+        /**
+         * @return La position de l'entrée ajoutée
+         */
+        int add(int id, int slot) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            ids[size] = id;
+            slots[size] = slot;
+            return size++;
+        }
+    }
+
+    /**
+     * Indexe (ou ré-indexe) le texte associé à une clé
+     */
+    public void put(K key, String text) {
+        String normalized = normalize(text);
+        String[] trigrams = trigrams(normalized).toArray(String[]::new);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(key);
+            if (trigrams.length == 0) {
+                return;
+            }
+            int[] positions = new int[trigrams.length];
+            int id = allocateId(new Document<>(key, normalized, trigrams, positions));
+            docIds.put(key, id);
+            for (int slot = 0; slot < trigrams.length; slot++) {
+                positions[slot] = postings.computeIfAbsent(trigrams[slot], t -> new Postings()).add(id, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un document de l'index
+     */
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vide l'index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIds.clear();
+            documents.clear();
+            freeIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les documents les plus proches de la requête
+     *
+     * @param query    Texte recherché (tolère les fautes de frappe)
+     * @param limit    Nombre maximum de résultats
+     * @param minScore Score minimum (0..1) pour qu'un document soit retenu
+     * @return Résultats triés par score décroissant
+     */
+    public List<Match<K>> search(String query, int limit, double minScore) {
+        String normalizedQuery = normalize(query);
+        Set<String> queryTrigrams = trigrams(normalizedQuery);
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Tas borné aux "limit" meilleurs résultats : pas de tri de tous les candidats
+        Comparator<Match<K>> byScore = Comparator.comparingDouble(Match::score);
+        PriorityQueue<Match<K>> best = new PriorityQueue<>(limit + 1, byScore);
+
+        int[] shared = SHARED_COUNTS.get();
+        int[] touched = new int[64];
+        int touchedCount = 0;
+
+        lock.readLock().lock();
+        try {
+            int queryCount = queryTrigrams.size();
+            if (shared.length < documents.size()) {
+                shared = new int[documents.size()];
+                SHARED_COUNTS.set(shared);
+            }
+
+            for (String trigram : queryTrigrams) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    continue;
+                }
+                int[] ids = list.ids;
+                for (int i = 0; i < list.size; i++) {
+                    int id = ids[i];
+                    if (shared[id]++ == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = id;
+                    }
+                }
+            }
+
+            // La recherche de sous-chaîne (plus coûteuse) n'est tentée que pour les
+            // documents partageant au moins la moitié des trigrammes de la requête
+            for (int i = 0; i < touchedCount; i++) {
+                int id = touched[i];
+                Document<K> document = documents.get(id);
+                double score = 2.0 * shared[id] / (queryCount + document.trigrams().length);
+                if (shared[id] * 2 >= queryCount && document.normalizedText().contains(normalizedQuery)) {
+                    score = Math.min(1.0, score + CONTAINS_BONUS);
+                }
+                if (score >= minScore && (best.size() < limit || score > best.peek().score())) {
+                    best.add(new Match<>(document.key(), score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+            for (int i = 0; i < touchedCount; i++) {
+                shared[touched[i]] = 0;
+            }
+        }
+
+        List<Match<K>> matches = new ArrayList<>(best);
+        matches.sort(byScore.reversed());
+        return matches;
+    }
+
+    /**
+     * Nombre de documents indexés
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocateId(Document<K> document) {
+        Integer free = freeIds.poll();
+        if (free != null) {
+            documents.set(free, document);
+            return free;
+        }
+        documents.add(document);
+        return documents.size() - 1;
+    }
+
+    private void removeUnlocked(K key) {
+        Integer id = docIds.remove(key);
+        if (id == null) {
+            return;
+        }
+        Document<K> previous = documents.set(id, null);
+        String[] trigrams = previous.trigrams();
+        for (int slot = 0; slot < trigrams.length; slot++) {
+            Postings list = postings.get(trigrams[slot]);
+            int position = previous.positions()[slot];
+            int last = --list.size;
+            if (position != last) {
+                // La dernière entrée prend la place libérée : sa position est mise à jour dans son document
+                int movedId = list.ids[last];
+                int movedSlot = list.slots[last];
+                list.ids[position] = movedId;
+                list.slots[position] = movedSlot;
+                documents.get(movedId).positions()[movedSlot] = position;
+            }
+            if (list.size == 0) {
+                postings.remove(trigrams[slot]);
+            }
+        }
+        freeIds.push(id);
+    }
+
+    /**
+     * Normalise un texte : minuscules, accents retirés, ponctuation remplacée par des espaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        String withoutAccents = DIACRITICS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutAccents).replaceAll(" ").trim();
+    }
+
+    /**
+     * Découpe un texte normalisé en trigrammes, mot par mot, avec bourrage
+     */
+    public static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return trigrams;
+        }
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
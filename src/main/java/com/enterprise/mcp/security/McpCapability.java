@@ -41,7 +41,22 @@ public enum McpCapability {
     /**
      * Enregistrement d'un paiement
      */
-    RECORD_PAYMENT("recordPayment", "Enregistrer un paiement sur une facture", true);
+    RECORD_PAYMENT("recordPayment", "Enregistrer un paiement sur une facture", true),
+    
+    /**
+     * Analyse du risque crédit de l'ensemble du portefeuille clients
+     */
+    SCAN_PORTFOLIO_RISK("scanPortfolioRisk", "Analyser le risque crédit du portefeuille clients", false),
+    
+    /**
+     * Recherche approximative de clients par nom
+     */
+    SEARCH_CUSTOMERS("searchCustomers", "Rechercher des clients par nom", false),
+    
+    /**
+     * Consultation de l'avancement ou du résultat d'une tâche de fond
+     */
+    GET_JOB_RESULT("getJobResult", "Consulter le résultat d'une tâche de fond", false);
     
     private final String name;
     private final String description;
@@ -0,0 +1,20 @@
+package com.enterprise.mcp.security;
+
+import java.time.Duration;
+
+/**
+ * Exception levée lorsqu'un utilisateur dépasse son quota d'appels d'une capacité
+ */
+public class McpRateLimitedException extends RuntimeException {
+    
+    private final Duration retryAfter;
+    
+    public McpRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
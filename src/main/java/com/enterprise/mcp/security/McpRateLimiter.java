@@ -0,0 +1,49 @@
+package com.enterprise.mcp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limitation du débit d'appels des capacités MCP
+ * 
+ * Un utilisateur (ou une boucle d'appels d'outils du LLM) ne peut plus
+ * saturer la base au détriment des autres : chaque couple utilisateur /
+ * capacité dispose de son propre seau à jetons, dimensionné selon le rôle.
+ * Les seaux inutilisés sont libérés après une heure.
+ */
+@Component
+@Slf4j
+public class McpRateLimiter {
+    
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofHours(1))
+        .build();
+    
+    public McpRateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+    
+    /**
+     * Consomme un appel du quota de l'utilisateur pour cette capacité
+     * 
+     * @return Duration.ZERO si l'appel est autorisé, sinon le délai avant le prochain appel possible
+     */
+    public Duration tryAcquire(String username, McpRole role, McpCapability capability) {
+        if (!properties.isEnabled()) {
+            return Duration.ZERO;
+        }
+        
+        TokenBucket bucket = buckets.get(username + '|' + capability.getName(), key -> {
+            RateLimitProperties.Quota quota = properties.quotaFor(role);
+            return new TokenBucket(quota.getCapacity(), quota.getRefillPerMinute());
+        });
+        
+        long waitNanos = bucket.tryAcquire();
+        return waitNanos == 0 ? Duration.ZERO : Duration.ofNanos(waitNanos);
+    }
+}
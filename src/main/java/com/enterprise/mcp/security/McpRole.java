@@ -1,5 +1,8 @@
 package com.enterprise.mcp.security;
 
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
 import java.util.Set;
 
 /**
@@ -19,7 +22,9 @@ public enum McpRole {
     SUPPORT(Set.of(
         McpCapability.FIND_ORDER,
         McpCapability.ANALYZE_INVOICE,
-        McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY
+        McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY,
+        McpCapability.SEARCH_CUSTOMERS,
+        McpCapability.GET_JOB_RESULT
     )),
     
     /**
@@ -27,13 +32,17 @@ public enum McpRole {
      * - Toutes les capacités SUPPORT
      * - Peut créer des commandes
      * - Peut valider des commandes
+     * - Peut analyser le risque du portefeuille
      */
     MANAGER(Set.of(
         McpCapability.FIND_ORDER,
         McpCapability.ANALYZE_INVOICE,
         McpCapability.SUMMARIZE_CUSTOMER_ACTIVITY,
+        McpCapability.SEARCH_CUSTOMERS,
         McpCapability.CREATE_ORDER,
-        McpCapability.VALIDATE_ORDER
+        McpCapability.VALIDATE_ORDER,
+        McpCapability.SCAN_PORTFOLIO_RISK,
+        McpCapability.GET_JOB_RESULT
     )),
     
     /**
@@ -62,4 +71,19 @@ public enum McpRole {
     public Set<McpCapability> getAllowedCapabilities() {
         return Set.copyOf(allowedCapabilities);
     }
+    
+    /**
+     * Convertit le rôle Spring Security (ROLE_xxx) en rôle MCP, SUPPORT par défaut
+     */
+    public static McpRole from(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String role = authority.getAuthority().replace("ROLE_", "");
+            try {
+                return McpRole.valueOf(role);
+            } catch (IllegalArgumentException ignored) {
+                // Continuer avec le prochain rôle
+            }
+        }
+        return SUPPORT;
+    }
 }
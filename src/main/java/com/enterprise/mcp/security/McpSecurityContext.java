@@ -1,27 +1,49 @@
 package com.enterprise.mcp.security;
 
+import com.enterprise.mcp.audit.McpAuditService;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.RequestScope;
 
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Contexte de sécurité pour les appels MCP
  * 
  * Ce composant maintient le contexte de sécurité pour chaque requête MCP.
- * Il permet de tracer qui fait quoi et d'appliquer les restrictions de rôle.
+ * Il permet de tracer qui fait quoi et d'appliquer les restrictions de rôle
+ * ainsi que les quotas d'appels.
  */
 @Component
 @RequestScope
 @Getter
+@RequiredArgsConstructor
 @Slf4j
 public class McpSecurityContext {
     
+    @Getter(AccessLevel.NONE)
+    private final McpRateLimiter rateLimiter;
+    @Getter(AccessLevel.NONE)
+    private final McpAuditService auditService;
+    
     private String userId;
     private String username;
     private McpRole role;
     private String sessionId;
     private String clientIp;
+    /** Jeton d'avancement de l'appel d'outil MCP en cours (_meta.progressToken), null si absent */
+    @Setter
+    private JsonNode progressToken;
+    private final Set<McpCapability> invokedCapabilities = EnumSet.noneOf(McpCapability.class);
+    /** Appels synthétiques de préchauffage : ni quota ni journal d'audit */
+    private boolean warmUp;
     
     /**
      * Initialise le contexte de sécurité pour une requête
@@ -36,6 +58,14 @@ public class McpSecurityContext {
         log.debug("Contexte MCP initialisé - User: {}, Role: {}, Session: {}", username, role, sessionId);
     }
     
+    /**
+     * Initialise le contexte des appels de préchauffage (avant l'ouverture au trafic)
+     */
+    public void initializeWarmUp() {
+        initialize("warmup", "warmup", McpRole.ADMIN, "warmup", "127.0.0.1");
+        this.warmUp = true;
+    }
+    
     /**
      * Vérifie si l'utilisateur courant a accès à une capacité
      */
@@ -55,15 +85,38 @@ public class McpSecurityContext {
     }
     
     /**
-     * Vérifie l'accès et lève une exception si non autorisé
+     * Vérifie l'accès et le quota d'appels, lève une exception si non autorisé
      */
     public void requireCapability(McpCapability capability) {
+        invokedCapabilities.add(capability);
         if (!hasCapability(capability)) {
             throw new McpAccessDeniedException(
                 String.format("Accès refusé à la capacité '%s' pour le rôle '%s'", 
                     capability.getName(), role)
             );
         }
+        
+        if (warmUp) {
+            return;
+        }
+        
+        Duration retryAfter = rateLimiter.tryAcquire(username, role, capability);
+        if (!retryAfter.isZero()) {
+            auditService.logRateLimited(this, capability, retryAfter);
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            throw new McpRateLimitedException(
+                String.format("Trop d'appels à la capacité '%s' : nouvel essai possible dans %d s", 
+                    capability.getName(), seconds),
+                retryAfter
+            );
+        }
+    }
+    
+    /**
+     * Indique si une capacité modifiant des données a été sollicitée pendant la requête
+     */
+    public boolean hasInvokedWriteCapability() {
+        return invokedCapabilities.stream().anyMatch(McpCapability::requiresConfirmation);
     }
     
     /**
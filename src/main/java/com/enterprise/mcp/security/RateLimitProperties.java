@@ -0,0 +1,39 @@
+package com.enterprise.mcp.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Quotas d'appels des capacités MCP (mcp.rate-limit.*)
+ * 
+ * Un seau par utilisateur et par capacité, dimensionné selon le rôle.
+ */
+@Data
+@ConfigurationProperties(prefix = "mcp.rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    /** Quota appliqué aux rôles sans quota spécifique */
+    private Quota defaultQuota = new Quota();
+    
+    /** Quota par rôle MCP */
+    private Map<McpRole, Quota> roles = new EnumMap<>(McpRole.class);
+    
+    public Quota quotaFor(McpRole role) {
+        return roles.getOrDefault(role, defaultQuota);
+    }
+    
+    @Data
+    public static class Quota {
+        
+        /** Appels autorisés en rafale */
+        private int capacity = 30;
+        
+        /** Appels rendus par minute */
+        private int refillPerMinute = 30;
+    }
+}
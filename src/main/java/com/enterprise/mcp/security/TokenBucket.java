@@ -0,0 +1,56 @@
+package com.enterprise.mcp.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou
+ *
+ * Implémenté sous forme de GCRA (Generic Cell Rate Algorithm), équivalent
+ * exact d'un seau à jetons : au lieu de compter les jetons restants, on
+ * mémorise l'instant théorique où le seau sera de nouveau plein. Tout l'état
+ * tient dans un seul long, mis à jour par compare-and-set : pas de verrou,
+ * pas d'allocation par appel.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+
+    /** Instant théorique (nanoTime) auquel le seau redevient plein */
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity        Nombre d'appels autorisés en rafale
+     * @param refillPerMinute Nombre de jetons rendus par minute
+     */
+    public TokenBucket(int capacity, int refillPerMinute) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Capacité et débit doivent être positifs");
+        }
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Consomme un jeton
+     *
+     * @return 0 si le jeton a été obtenu, sinon le délai d'attente en nanosecondes
+     *         avant qu'un jeton soit disponible
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, now);
+            long wait = arrival - burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
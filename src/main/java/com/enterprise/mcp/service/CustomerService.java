@@ -3,19 +3,31 @@ package com.enterprise.mcp.service;
 import com.enterprise.mcp.domain.entity.Customer;
 import com.enterprise.mcp.domain.entity.Invoice;
 import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.event.CustomerChangedEvent;
+import com.enterprise.mcp.domain.repository.CustomerInvoiceTotals;
+import com.enterprise.mcp.domain.repository.CustomerOrderTotals;
 import com.enterprise.mcp.domain.repository.CustomerRepository;
 import com.enterprise.mcp.domain.repository.InvoiceRepository;
 import com.enterprise.mcp.domain.repository.OrderRepository;
+import com.enterprise.mcp.search.CatalogSearchIndex;
 import com.enterprise.mcp.service.dto.CustomerActivitySummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service métier pour la gestion des clients
@@ -30,9 +42,16 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class CustomerService {
     
+    /** Nombre maximum de clients renvoyés par une recherche par nom */
+    private static final int MAX_SEARCH_RESULTS = 20;
+    /** Nombre de commandes et factures récentes retenues dans un résumé */
+    private static final int RECENT_ITEMS = 5;
+    
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
     private final InvoiceRepository invoiceRepository;
+    private final CatalogSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Recherche un client par son code unique
@@ -51,11 +70,25 @@ public class CustomerService {
     }
     
     /**
-     * Recherche des clients par nom d'entreprise
+     * Recherche des clients par nom d'entreprise ou code, du plus pertinent au moins pertinent
+     * 
+     * S'appuie sur l'index en mémoire (tolère les fautes de frappe) :
+     * seuls les clients trouvés sont lus en base, par leur ID.
      */
     public List<Customer> searchByCompanyName(String name) {
         log.debug("Recherche clients par nom: {}", name);
-        return customerRepository.searchByCompanyName(name);
+        List<Long> rankedIds = searchIndex.searchCustomers(name, MAX_SEARCH_RESULTS);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        return customerRepository.findAllById(rankedIds).stream()
+            .sorted(Comparator.comparing(c -> rank.get(c.getId())))
+            .toList();
     }
     
     /**
@@ -107,6 +140,57 @@ public class CustomerService {
             });
     }
     
+    /**
+     * Génère les résumés d'activité d'un lot de clients
+     * 
+     * Les clients sont résolus en une fois (cache natural-id puis requête IN),
+     * les compteurs et montants par deux requêtes groupées pour tout le lot ;
+     * seules les dernières commandes et factures restent lues client par client,
+     * limitées à quelques lignes.
+     * 
+     * @return Les résumés dans l'ordre des codes fournis ; les codes inconnus sont ignorés
+     */
+    public List<CustomerActivitySummary> summarizeActivities(List<String> customerCodes) {
+        log.info("Génération du résumé d'activité pour {} client(s)", customerCodes.size());
+        
+        List<Customer> customers = customerRepository.findAllByCustomerCodes(customerCodes);
+        if (customers.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> customerIds = customers.stream().map(Customer::getId).toList();
+        Map<Long, CustomerOrderTotals> orderTotals = orderRepository.getOrderTotalsByCustomers(customerIds).stream()
+            .collect(Collectors.toMap(CustomerOrderTotals::customerId, Function.identity()));
+        Map<Long, CustomerInvoiceTotals> invoiceTotals = invoiceRepository.getInvoiceTotalsByCustomers(customerIds, LocalDate.now()).stream()
+            .collect(Collectors.toMap(CustomerInvoiceTotals::customerId, Function.identity()));
+        PageRequest recent = PageRequest.ofSize(RECENT_ITEMS);
+        
+        return customers.stream()
+            .map(customer -> {
+                CustomerOrderTotals orders = orderTotals.get(customer.getId());
+                CustomerInvoiceTotals invoices = invoiceTotals.get(customer.getId());
+                
+                return CustomerActivitySummary.builder()
+                    .customer(customer)
+                    .totalOrders(orders != null ? orders.orderCount().intValue() : 0)
+                    .totalRevenue(orders != null ? orZero(orders.deliveredRevenue()) : BigDecimal.ZERO)
+                    .recentOrders(orders != null ? orderRepository.findLatestOrdersByCustomer(customer.getId(), recent) : List.of())
+                    .totalInvoices(invoices != null ? invoices.invoiceCount().intValue() : 0)
+                    .totalPaid(invoices != null ? orZero(invoices.totalPaid()) : BigDecimal.ZERO)
+                    .totalOutstanding(invoices != null ? orZero(invoices.totalOutstanding()) : BigDecimal.ZERO)
+                    .unpaidInvoicesCount(invoices != null ? invoices.unpaidCount().intValue() : 0)
+                    .recentInvoices(invoices != null ? invoiceRepository.findLatestInvoicesByCustomer(customer.getId(), recent) : List.of())
+                    .hasOverdueInvoices(invoices != null && invoices.overdueCount() > 0)
+                    .generatedAt(LocalDateTime.now())
+                    .build();
+            })
+            .toList();
+    }
+    
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+    
     /**
      * Vérifie si un client peut passer une nouvelle commande
      * Règles métier : client actif, pas trop de factures impayées, crédit suffisant
@@ -146,7 +230,9 @@ public class CustomerService {
             throw new IllegalArgumentException("Code client déjà existant: " + customer.getCustomerCode());
         }
         
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(saved));
+        return saved;
     }
     
     /**
@@ -160,6 +246,8 @@ public class CustomerService {
             throw new IllegalArgumentException("Client non trouvé: " + customer.getId());
         }
         
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(saved));
+        return saved;
     }
 }
@@ -2,18 +2,28 @@ package com.enterprise.mcp.service;
 
 import com.enterprise.mcp.domain.entity.Invoice;
 import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.event.InvoiceChangedEvent;
+import com.enterprise.mcp.domain.repository.CustomerInvoiceTotals;
 import com.enterprise.mcp.domain.repository.InvoiceRepository;
+import com.enterprise.mcp.report.MoneyFormat;
 import com.enterprise.mcp.service.dto.InvoiceAnalysis;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service métier pour la gestion des factures
@@ -28,6 +38,7 @@ import java.util.Optional;
 public class InvoiceService {
     
     private final InvoiceRepository invoiceRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Recherche une facture par son numéro
@@ -53,6 +64,27 @@ public class InvoiceService {
         return invoiceRepository.findByCustomerCustomerCode(customerCode);
     }
     
+    /**
+     * Page de l'historique des factures d'un client, de la plus récente à la plus ancienne
+     * 
+     * @param afterIssueDate Date d'émission de la dernière facture déjà lue (null pour la première page)
+     * @param afterId ID de la dernière facture déjà lue (null pour la première page)
+     */
+    public List<Invoice> findHistoryPage(Long customerId, LocalDate afterIssueDate, Long afterId, int limit) {
+        PageRequest page = PageRequest.ofSize(limit);
+        return afterId == null
+            ? invoiceRepository.findHistoryFirstPage(customerId, page)
+            : invoiceRepository.findHistoryPageAfter(customerId, afterIssueDate, afterId, page);
+    }
+    
+    /**
+     * Nombre de factures d'un client
+     */
+    public long countByCustomer(Long customerId) {
+        Long count = invoiceRepository.countInvoicesByCustomer(customerId);
+        return count != null ? count : 0;
+    }
+    
     /**
      * Liste les factures impayées d'un client
      */
@@ -79,52 +111,99 @@ public class InvoiceService {
         
         return invoiceRepository.findByInvoiceNumber(invoiceNumber)
             .map(invoice -> {
-                InvoiceAnalysis.InvoiceAnalysisBuilder builder = InvoiceAnalysis.builder()
-                    .invoice(invoice)
-                    .invoiceNumber(invoice.getInvoiceNumber())
-                    .customerName(invoice.getCustomer().getCompanyName())
-                    .customerCode(invoice.getCustomer().getCustomerCode())
-                    .status(invoice.getStatus().name())
-                    .totalAmount(invoice.getTotalAmount())
-                    .paidAmount(invoice.getPaidAmount())
-                    .remainingAmount(invoice.getRemainingAmount())
-                    .issueDate(invoice.getIssueDate())
-                    .dueDate(invoice.getDueDate())
-                    .isOverdue(invoice.isOverdue())
-                    .daysOverdue(invoice.getDaysOverdue());
-                
-                // Calcul du pourcentage payé
-                if (invoice.getTotalAmount() != null && invoice.getTotalAmount().compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal paidPercent = invoice.getPaidAmount()
-                        .divide(invoice.getTotalAmount(), 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100"));
-                    builder.paidPercentage(paidPercent);
-                } else {
-                    builder.paidPercentage(BigDecimal.ZERO);
-                }
-                
-                // Évaluation du risque
-                String riskLevel = evaluateRiskLevel(invoice);
-                builder.riskLevel(riskLevel);
-                
-                // Recommandations
-                List<String> recommendations = generateRecommendations(invoice);
-                builder.recommendations(recommendations);
-                
                 // Historique du client
                 Long customerId = invoice.getCustomer().getId();
                 Double totalPaid = invoiceRepository.getTotalPaidByCustomer(customerId);
                 Double totalOutstanding = invoiceRepository.getTotalOutstandingByCustomer(customerId);
                 Long invoiceCount = invoiceRepository.countInvoicesByCustomer(customerId);
                 
-                builder.customerTotalPaid(totalPaid != null ? BigDecimal.valueOf(totalPaid) : BigDecimal.ZERO);
-                builder.customerTotalOutstanding(totalOutstanding != null ? BigDecimal.valueOf(totalOutstanding) : BigDecimal.ZERO);
-                builder.customerInvoiceCount(invoiceCount != null ? invoiceCount.intValue() : 0);
-                
-                return builder.build();
+                return toAnalysis(invoice,
+                    totalPaid != null ? BigDecimal.valueOf(totalPaid) : BigDecimal.ZERO,
+                    totalOutstanding != null ? BigDecimal.valueOf(totalOutstanding) : BigDecimal.ZERO,
+                    invoiceCount != null ? invoiceCount.intValue() : 0);
             });
     }
     
+    /**
+     * Analyse détaillée d'un lot de factures
+     * 
+     * Les factures sont lues en une requête et l'historique de leurs clients
+     * en une requête groupée, quel que soit le nombre de factures.
+     * 
+     * @return Les analyses des factures trouvées, sans ordre garanti ; les numéros inconnus sont ignorés
+     */
+    public List<InvoiceAnalysis> analyzeInvoices(Collection<String> invoiceNumbers) {
+        log.info("Analyse de {} facture(s)", invoiceNumbers.size());
+        
+        List<Invoice> invoices = invoiceRepository.findAllByInvoiceNumberIn(invoiceNumbers);
+        if (invoices.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<Long> customerIds = invoices.stream()
+            .map(invoice -> invoice.getCustomer().getId())
+            .collect(Collectors.toSet());
+        Map<Long, CustomerInvoiceTotals> totals = invoiceRepository.getInvoiceTotalsByCustomers(customerIds, LocalDate.now())
+            .stream()
+            .collect(Collectors.toMap(CustomerInvoiceTotals::customerId, Function.identity()));
+        
+        return invoices.stream()
+            .map(invoice -> {
+                CustomerInvoiceTotals customerTotals = totals.get(invoice.getCustomer().getId());
+                return toAnalysis(invoice,
+                    orZero(customerTotals.totalPaid()),
+                    orZero(customerTotals.totalOutstanding()),
+                    customerTotals.invoiceCount().intValue());
+            })
+            .toList();
+    }
+    
+    private InvoiceAnalysis toAnalysis(Invoice invoice, BigDecimal customerTotalPaid,
+                                       BigDecimal customerTotalOutstanding, int customerInvoiceCount) {
+        InvoiceAnalysis.InvoiceAnalysisBuilder builder = InvoiceAnalysis.builder()
+            .invoice(invoice)
+            .invoiceNumber(invoice.getInvoiceNumber())
+            .customerName(invoice.getCustomer().getCompanyName())
+            .customerCode(invoice.getCustomer().getCustomerCode())
+            .status(invoice.getStatus().name())
+            .totalAmount(invoice.getTotalAmount())
+            .paidAmount(invoice.getPaidAmount())
+            .remainingAmount(invoice.getRemainingAmount())
+            .issueDate(invoice.getIssueDate())
+            .dueDate(invoice.getDueDate())
+            .isOverdue(invoice.isOverdue())
+            .daysOverdue(invoice.getDaysOverdue());
+        
+        // Calcul du pourcentage payé
+        if (invoice.getTotalAmount() != null && invoice.getTotalAmount().compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal paidPercent = invoice.getPaidAmount()
+                .divide(invoice.getTotalAmount(), 4, RoundingMode.HALF_UP)
+                .multiply(new BigDecimal("100"));
+            builder.paidPercentage(paidPercent);
+        } else {
+            builder.paidPercentage(BigDecimal.ZERO);
+        }
+        
+        // Évaluation du risque
+        String riskLevel = evaluateRiskLevel(invoice);
+        builder.riskLevel(riskLevel);
+        
+        // Recommandations
+        List<String> recommendations = generateRecommendations(invoice);
+        builder.recommendations(recommendations);
+        
+        // Historique du client
+        builder.customerTotalPaid(customerTotalPaid);
+        builder.customerTotalOutstanding(customerTotalOutstanding);
+        builder.customerInvoiceCount(customerInvoiceCount);
+        
+        return builder.build();
+    }
+    
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+    
     /**
      * Évalue le niveau de risque d'une facture
      */
@@ -194,7 +273,7 @@ public class InvoiceService {
                 break;
             case PARTIALLY_PAID:
                 recommendations.add("Relancer pour le solde restant: " + 
-                    String.format("%,.2f €", invoice.getRemainingAmount()));
+                    MoneyFormat.getDefault().formatMoney(invoice.getRemainingAmount()));
                 break;
             case DISPUTED:
                 recommendations.add("Analyser le litige avec le service commercial");
@@ -249,10 +328,12 @@ public class InvoiceService {
         }
         
         // Ajout d'une note
-        String note = String.format("Paiement de %,.2f € reçu le %s (Réf: %s)", 
-            amount, LocalDate.now(), paymentReference);
+        String note = "Paiement de " + MoneyFormat.getDefault().formatMoney(amount) + 
+            " reçu le " + LocalDate.now() + " (Réf: " + paymentReference + ")";
         invoice.setNotes((invoice.getNotes() != null ? invoice.getNotes() + "\n" : "") + note);
         
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        eventPublisher.publishEvent(InvoiceChangedEvent.of(saved));
+        return saved;
     }
 }
@@ -0,0 +1,252 @@
+package com.enterprise.mcp.service;
+
+import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.repository.OrderExportRow;
+import com.enterprise.mcp.domain.repository.OrderLineExportRow;
+import com.enterprise.mcp.domain.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service d'export des commandes en masse
+ *
+ * Les commandes sont lues par pages keyset (id > dernier id lu) et leurs
+ * lignes chargées par lot, puis écrites immédiatement dans le flux de sortie.
+ * La mémoire consommée dépend de la taille de page, pas du volume exporté.
+ *
+ * Volontairement non transactionnel : chaque page est lue dans sa propre
+ * transaction courte. Commandes et lignes sont lues en projections, jamais
+ * en entités : rien ne s'accumule dans le contexte de persistance que
+ * open-in-view garde ouvert pendant tout l'export.
+ */
+@Service
+@Slf4j
+public class OrderExportService {
+
+    private static final String CSV_HEADER = "order_number;customer_code;customer_name;status;order_date;" +
+        "product_code;product_name;quantity;unit_price;discount_percent;line_total";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${export.orders.page-size:1000}") int pageSize) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Formats d'export supportés
+     */
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Critères d'export (null = pas de filtre)
+     */
+    public record ExportFilter(Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate) {}
+
+    /**
+     * Écrit toutes les commandes correspondant au filtre dans le flux
+     *
+     * @return Nombre de commandes exportées
+     */
+    public long export(ExportFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        log.info("Export des commandes ({}) - filtre: {}", format, filter);
+        long start = System.currentTimeMillis();
+
+        long exported = switch (format) {
+            case CSV -> writeCsv(filter, out);
+            case NDJSON -> writeNdjson(filter, out);
+        };
+
+        log.info("Export terminé: {} commandes en {} ms", exported, System.currentTimeMillis() - start);
+        return exported;
+    }
+
+    private long writeCsv(ExportFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long exported = 0;
+        long lastId = 0L;
+        List<OrderExportRow> page;
+        do {
+            page = nextPage(lastId, filter);
+            Map<Long, List<OrderLineExportRow>> linesByOrder = loadLines(page);
+
+            for (OrderExportRow order : page) {
+                List<OrderLineExportRow> lines = linesByOrder.getOrDefault(order.id(), List.of());
+                if (lines.isEmpty()) {
+                    writeCsvRow(writer, order, null);
+                }
+                for (OrderLineExportRow line : lines) {
+                    writeCsvRow(writer, order, line);
+                }
+                lastId = order.id();
+            }
+            exported += page.size();
+            writer.flush();
+        } while (page.size() == pageSize);
+
+        return exported;
+    }
+
+    private long writeNdjson(ExportFilter filter, OutputStream out) throws IOException {
+        long exported = 0;
+        long lastId = 0L;
+        // Le flux de la réponse reste ouvert à la fermeture du SequenceWriter
+        try (SequenceWriter sequence = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            List<OrderExportRow> page;
+            do {
+                page = nextPage(lastId, filter);
+                Map<Long, List<OrderLineExportRow>> linesByOrder = loadLines(page);
+
+                for (OrderExportRow order : page) {
+                    sequence.write(new OrderExportRecord(
+                        order.orderNumber(),
+                        order.customerCode(),
+                        order.customerName(),
+                        order.status(),
+                        order.orderDate(),
+                        order.totalAmount(),
+                        order.taxAmount(),
+                        linesByOrder.getOrDefault(order.id(), List.of()).stream()
+                            .map(l -> new OrderLineExportRecord(l.productCode(), l.productName(), l.quantity(),
+                                l.unitPrice(), l.discountPercent(), l.lineTotal()))
+                            .toList()
+                    ));
+                    lastId = order.id();
+                }
+                exported += page.size();
+                sequence.flush();
+            } while (page.size() == pageSize);
+        }
+
+        // Fin de la dernière ligne ; un export vide reste un corps vide
+        if (exported > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return exported;
+    }
+
+    private List<OrderExportRow> nextPage(long lastId, ExportFilter filter) {
+        return orderRepository.findExportPageAfter(
+            lastId, filter.status(), filter.startDate(), filter.endDate(), PageRequest.of(0, pageSize));
+    }
+
+    private Map<Long, List<OrderLineExportRow>> loadLines(List<OrderExportRow> page) {
+        if (page.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> orderIds = page.stream().map(OrderExportRow::id).toList();
+        return orderRepository.findExportLines(orderIds).stream()
+            .collect(Collectors.groupingBy(OrderLineExportRow::orderId));
+    }
+
+    private void writeCsvRow(Writer writer, OrderExportRow order, OrderLineExportRow line) throws IOException {
+        writer.write(csv(order.orderNumber()));
+        writer.write(';');
+        writer.write(csv(order.customerCode()));
+        writer.write(';');
+        writer.write(csv(order.customerName()));
+        writer.write(';');
+        writer.write(order.status().name());
+        writer.write(';');
+        writer.write(order.orderDate() != null ? order.orderDate().toString() : "");
+        writer.write(';');
+        if (line != null) {
+            writer.write(csv(line.productCode()));
+            writer.write(';');
+            writer.write(csv(line.productName()));
+            writer.write(';');
+            writer.write(String.valueOf(line.quantity()));
+            writer.write(';');
+            writer.write(decimal(line.unitPrice()));
+            writer.write(';');
+            writer.write(decimal(line.discountPercent()));
+            writer.write(';');
+            writer.write(decimal(line.lineTotal()));
+        } else {
+            writer.write(";;;;;");
+        }
+        writer.write('\n');
+    }
+
+    private String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(';') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private String decimal(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    // === Records pour l'export NDJSON ===
+
+    public record OrderExportRecord(
+        String orderNumber,
+        String customerCode,
+        String customerName,
+        Order.OrderStatus status,
+        LocalDateTime orderDate,
+        BigDecimal totalAmount,
+        BigDecimal taxAmount,
+        List<OrderLineExportRecord> lines
+    ) {}
+
+    public record OrderLineExportRecord(
+        String productCode,
+        String productName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal discountPercent,
+        BigDecimal lineTotal
+    ) {}
+}
@@ -4,23 +4,29 @@ import com.enterprise.mcp.domain.entity.Customer;
 import com.enterprise.mcp.domain.entity.Order;
 import com.enterprise.mcp.domain.entity.OrderLine;
 import com.enterprise.mcp.domain.entity.Product;
+import com.enterprise.mcp.domain.event.OrderChangedEvent;
 import com.enterprise.mcp.domain.repository.CustomerRepository;
 import com.enterprise.mcp.domain.repository.OrderRepository;
 import com.enterprise.mcp.domain.repository.ProductRepository;
+import com.enterprise.mcp.id.IdGenerator;
 import com.enterprise.mcp.service.dto.CreateOrderRequest;
 import com.enterprise.mcp.service.dto.OrderValidationResult;
+import com.enterprise.mcp.service.dto.PricedOrder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * Service métier pour la gestion des commandes
@@ -42,6 +48,8 @@ public class OrderService {
     private final CustomerRepository customerRepository;
     private final CustomerService customerService;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdGenerator idGenerator;
     
     /**
      * Recherche une commande par son numéro
@@ -51,6 +59,30 @@ public class OrderService {
         return orderRepository.findByOrderNumber(orderNumber);
     }
     
+    /**
+     * Recherche un lot de commandes par leurs numéros, client compris (lignes non chargées)
+     * 
+     * @return Les commandes trouvées, sans ordre garanti ; les numéros inconnus sont ignorés
+     */
+    public List<Order> findByOrderNumbers(Collection<String> orderNumbers) {
+        log.debug("Recherche de {} commande(s) par numéro", orderNumbers.size());
+        return orderRepository.findAllByOrderNumberIn(orderNumbers);
+    }
+    
+    /**
+     * Lignes d'une commande qui suivent la ligne lastId, dans l'ordre des IDs
+     */
+    public List<OrderLine> findLinesAfter(Long orderId, Long lastId, int limit) {
+        return orderRepository.findLinesAfter(orderId, lastId, PageRequest.ofSize(limit));
+    }
+    
+    /**
+     * Nombre de lignes d'une commande
+     */
+    public long countLines(Long orderId) {
+        return orderRepository.countLines(orderId);
+    }
+    
     /**
      * Recherche une commande par son ID
      */
@@ -177,6 +209,71 @@ public class OrderService {
         Customer customer = customerRepository.findByCustomerCode(request.getCustomerCode())
             .orElseThrow(() -> new IllegalArgumentException("Client non trouvé"));
         
+        return persist(customer, priceOrder(request), createdBy);
+    }
+    
+    /**
+     * Crée une commande à partir de l'instantané présenté lors de la demande de confirmation
+     * 
+     * La validation complète a déjà eu lieu : seuls les éléments susceptibles
+     * d'avoir changé depuis sont revérifiés (statut et crédit du client,
+     * disponibilité des produits). Noms et prix restent ceux confirmés.
+     */
+    @Transactional
+    public Order createOrder(PricedOrder pricedOrder, String createdBy) {
+        log.info("Création de commande confirmée pour client: {} par: {}", pricedOrder.customerCode(), createdBy);
+        
+        Customer customer = customerRepository.findByCustomerCode(pricedOrder.customerCode())
+            .orElseThrow(() -> new IllegalArgumentException("Client non trouvé"));
+        
+        List<String> errors = new ArrayList<>();
+        if (!customerService.canPlaceOrder(pricedOrder.customerCode(), pricedOrder.grossAmount())) {
+            errors.add("Le client ne peut plus passer cette commande (statut ou limite de crédit)");
+        }
+        for (PricedOrder.Line line : pricedOrder.lines()) {
+            boolean available = productRepository.findByProductCode(line.productCode())
+                .map(product -> product.getStatus() == Product.ProductStatus.ACTIVE)
+                .orElse(false);
+            if (!available) {
+                errors.add("Produit non disponible: " + line.productCode());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Commande invalide: " + String.join(", ", errors));
+        }
+        
+        return persist(customer, pricedOrder, createdBy);
+    }
+    
+    /**
+     * Chiffre une demande de commande : noms et prix des produits (ou prix négociés fournis)
+     */
+    public PricedOrder priceOrder(CreateOrderRequest request) {
+        List<PricedOrder.Line> lines = new ArrayList<>(request.getLines().size());
+        for (var lineRequest : request.getLines()) {
+            Product product = productRepository.findByProductCode(lineRequest.getProductCode())
+                .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé: " + lineRequest.getProductCode()));
+            
+            lines.add(new PricedOrder.Line(
+                product.getProductCode(),
+                product.getName(),
+                lineRequest.getQuantity() != null ? lineRequest.getQuantity() : 1,
+                lineRequest.getUnitPrice() != null ? lineRequest.getUnitPrice() : product.getUnitPrice(),
+                lineRequest.getDiscountPercent(),
+                lineRequest.getNotes()
+            ));
+        }
+        
+        return new PricedOrder(
+            request.getCustomerCode(),
+            lines,
+            request.getShippingAddress(),
+            request.getNotes(),
+            request.getExpectedDeliveryDate()
+        );
+    }
+    
+    private Order persist(Customer customer, PricedOrder pricedOrder, String createdBy) {
         // Génération du numéro de commande
         String orderNumber = generateOrderNumber();
         
@@ -185,26 +282,22 @@ public class OrderService {
             .orderNumber(orderNumber)
             .customer(customer)
             .status(Order.OrderStatus.PENDING_VALIDATION)
-            .shippingAddress(request.getShippingAddress() != null ? 
-                request.getShippingAddress() : customer.getAddress())
+            .shippingAddress(pricedOrder.shippingAddress() != null ? 
+                pricedOrder.shippingAddress() : customer.getAddress())
             .billingAddress(customer.getAddress())
-            .notes(request.getNotes())
-            .expectedDeliveryDate(request.getExpectedDeliveryDate())
+            .notes(pricedOrder.notes())
+            .expectedDeliveryDate(pricedOrder.expectedDeliveryDate())
             .createdBy(createdBy)
             .build();
         
-        // Ajout des lignes avec récupération des infos produit
-        for (var lineRequest : request.getLines()) {
-            Product product = productRepository.findByProductCode(lineRequest.getProductCode())
-                .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé: " + lineRequest.getProductCode()));
-            
+        for (PricedOrder.Line pricedLine : pricedOrder.lines()) {
             OrderLine line = OrderLine.builder()
-                .productCode(product.getProductCode())
-                .productName(product.getName())
-                .quantity(lineRequest.getQuantity() != null ? lineRequest.getQuantity() : 1)
-                .unitPrice(lineRequest.getUnitPrice() != null ? lineRequest.getUnitPrice() : product.getUnitPrice())
-                .discountPercent(lineRequest.getDiscountPercent())
-                .notes(lineRequest.getNotes())
+                .productCode(pricedLine.productCode())
+                .productName(pricedLine.productName())
+                .quantity(pricedLine.quantity())
+                .unitPrice(pricedLine.unitPrice())
+                .discountPercent(pricedLine.discountPercent())
+                .notes(pricedLine.notes())
                 .build();
             order.addLine(line);
         }
@@ -214,6 +307,7 @@ public class OrderService {
         
         Order savedOrder = orderRepository.save(order);
         log.info("Commande créée avec succès: {}", savedOrder.getOrderNumber());
+        eventPublisher.publishEvent(OrderChangedEvent.of(savedOrder));
         
         return savedOrder;
     }
@@ -237,7 +331,9 @@ public class OrderService {
             order.setActualDeliveryDate(LocalDateTime.now());
         }
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.of(saved));
+        return saved;
     }
     
     /**
@@ -262,13 +358,19 @@ public class OrderService {
         order.setNotes((order.getNotes() != null ? order.getNotes() + "\n" : "") + 
             "Annulée le " + LocalDateTime.now() + " par " + cancelledBy + ": " + reason);
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.of(saved));
+        return saved;
     }
     
+    /**
+     * Numéro de commande : date puis identifiant ordonné dans le temps, unique entre nœuds
+     * (ex: CMD-20240115-004MFJS000C05), ce qui rend les numéros triables par date de création
+     */
     private String generateOrderNumber() {
-        String datePrefix = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uniqueSuffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "CMD-" + datePrefix + "-" + uniqueSuffix;
+        long id = idGenerator.nextId();
+        String datePrefix = IdGenerator.dateOf(id, ZoneId.systemDefault()).format(DateTimeFormatter.BASIC_ISO_DATE);
+        return "CMD-" + datePrefix + "-" + IdGenerator.encode(id);
     }
     
     private BigDecimal calculateEstimatedTotal(CreateOrderRequest request) {
@@ -0,0 +1,308 @@
+package com.enterprise.mcp.service;
+
+import com.enterprise.mcp.domain.entity.Customer;
+import com.enterprise.mcp.domain.repository.CustomerRepository;
+import com.enterprise.mcp.domain.repository.InvoiceExposureRow;
+import com.enterprise.mcp.domain.repository.InvoiceRepository;
+import com.enterprise.mcp.service.dto.PortfolioRiskReport;
+import com.enterprise.mcp.service.dto.PortfolioRiskReport.CustomerRisk;
+import com.enterprise.mcp.service.dto.PortfolioRiskReport.OverdueBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Service d'analyse du risque crédit à l'échelle du portefeuille
+ *
+ * Là où InvoiceService analyse une facture à la fois, ce service parcourt
+ * toutes les factures ouvertes pour consolider l'exposition de chaque client.
+ *
+ * Points clés :
+ * - Lecture par pagination keyset sur des projections (pas d'entités en mémoire)
+ * - Réduction parallèle de chaque page (fork/join) pendant la lecture de la suivante
+ * - Une seule page en cours de réduction à la fois : la mémoire reste bornée
+ *
+ * Volontairement non transactionnel : chaque page est lue dans sa propre
+ * transaction courte, sans monopoliser une connexion pendant tout le scan.
+ */
+@Service
+@Slf4j
+public class PortfolioRiskService {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private final InvoiceRepository invoiceRepository;
+    private final CustomerRepository customerRepository;
+    private final int chunkSize;
+
+    public PortfolioRiskService(InvoiceRepository invoiceRepository,
+                                CustomerRepository customerRepository,
+                                @Value("${portfolio.scan.chunk-size:5000}") int chunkSize) {
+        this.invoiceRepository = invoiceRepository;
+        this.customerRepository = customerRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Analyse l'exposition de tous les clients du portefeuille
+     *
+     * @param topCount Nombre de clients les plus exposés à détailler
+     */
+    public PortfolioRiskReport scanPortfolio(int topCount) {
+        return scanPortfolio(topCount, ProgressListener.NONE);
+    }
+
+    /**
+     * Analyse l'exposition de tous les clients du portefeuille, avec suivi d'avancement
+     *
+     * L'avancement est exprimé en factures lues ; le total n'est compté que
+     * si quelqu'un suit l'analyse.
+     *
+     * @param topCount Nombre de clients les plus exposés à détailler
+     * @param progress Suivi d'avancement, appelé après chaque page lue
+     */
+    public PortfolioRiskReport scanPortfolio(int topCount, ProgressListener progress) {
+        log.info("Démarrage de l'analyse du risque portefeuille (pages de {})", chunkSize);
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+
+        Map<Long, CustomerExposure> exposures = new HashMap<>();
+        CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+        long lastId = 0L;
+        long scanned = 0L;
+        Long openInvoices = progress == ProgressListener.NONE ? null : invoiceRepository.countOpenInvoices();
+        progress.onProgress(0, openInvoices, "Lecture des factures ouvertes");
+
+        while (true) {
+            List<InvoiceExposureRow> chunk = invoiceRepository.findOpenExposureAfter(lastId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1).invoiceId();
+            scanned += chunk.size();
+
+            // Contre-pression : on attend la réduction de la page précédente
+            // avant d'en lancer une nouvelle, pendant que la suivante est lue
+            pending.join();
+            pending = CompletableFuture
+                .supplyAsync(() -> reduceChunk(chunk, today))
+                .thenAccept(partial -> partial.forEach((id, e) -> exposures.merge(id, e, CustomerExposure::combine)));
+            progress.onProgress(scanned, openInvoices, scanned + " factures lues");
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        pending.join();
+
+        progress.onProgress(scanned, openInvoices, "Consolidation de " + exposures.size() + " clients");
+        List<CustomerRisk> risks = resolveCustomerRisks(exposures);
+
+        Map<OverdueBucket, BigDecimal> distribution = new EnumMap<>(OverdueBucket.class);
+        for (OverdueBucket bucket : OverdueBucket.values()) {
+            distribution.put(bucket, BigDecimal.ZERO);
+        }
+        BigDecimal totalOutstanding = BigDecimal.ZERO;
+        BigDecimal totalOverdue = BigDecimal.ZERO;
+        for (CustomerExposure exposure : exposures.values()) {
+            totalOutstanding = totalOutstanding.add(exposure.outstanding);
+            totalOverdue = totalOverdue.add(exposure.overdue);
+            for (OverdueBucket bucket : OverdueBucket.values()) {
+                distribution.merge(bucket, exposure.buckets[bucket.ordinal()], BigDecimal::add);
+            }
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Analyse portefeuille terminée: {} factures, {} clients, {} ms", scanned, exposures.size(), durationMs);
+
+        return PortfolioRiskReport.builder()
+            .scannedInvoices(scanned)
+            .customersWithExposure(exposures.size())
+            .customersOverLimit((int) risks.stream()
+                .filter(r -> r.getCreditUsagePercent() != null && r.getCreditUsagePercent().compareTo(HUNDRED) > 0)
+                .count())
+            .totalOutstanding(totalOutstanding)
+            .totalOverdue(totalOverdue)
+            .overdueDistribution(distribution)
+            .topRisks(risks.stream()
+                .sorted(Comparator.comparingInt((CustomerRisk r) -> riskRank(r.getRiskLevel())).reversed()
+                    .thenComparing(CustomerRisk::getOutstanding, Comparator.reverseOrder()))
+                .limit(topCount)
+                .toList())
+            .generatedAt(LocalDateTime.now())
+            .durationMs(durationMs)
+            .build();
+    }
+
+    /**
+     * Réduit une page de factures en expositions par client (fork/join via parallel stream)
+     */
+    private Map<Long, CustomerExposure> reduceChunk(List<InvoiceExposureRow> chunk, LocalDate today) {
+        return chunk.parallelStream()
+            .collect(Collectors.toMap(
+                InvoiceExposureRow::customerId,
+                row -> CustomerExposure.of(row, today),
+                CustomerExposure::combine
+            ));
+    }
+
+    /**
+     * Associe chaque exposition à son client (par lots) et calcule risque et recommandations
+     */
+    private List<CustomerRisk> resolveCustomerRisks(Map<Long, CustomerExposure> exposures) {
+        List<CustomerRisk> risks = new ArrayList<>(exposures.size());
+        List<Long> ids = new ArrayList<>(exposures.keySet());
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            for (Customer customer : customerRepository.findAllById(batch)) {
+                risks.add(toCustomerRisk(customer, exposures.get(customer.getId())));
+            }
+        }
+        return risks;
+    }
+
+    private CustomerRisk toCustomerRisk(Customer customer, CustomerExposure exposure) {
+        BigDecimal creditLimit = customer.getCreditLimit() != null ? BigDecimal.valueOf(customer.getCreditLimit()) : null;
+        BigDecimal usagePercent = null;
+        if (creditLimit != null && creditLimit.compareTo(BigDecimal.ZERO) > 0) {
+            usagePercent = exposure.outstanding.multiply(HUNDRED).divide(creditLimit, 1, RoundingMode.HALF_UP);
+        }
+
+        String riskLevel = evaluateRiskLevel(exposure.maxDaysOverdue, usagePercent);
+
+        return CustomerRisk.builder()
+            .customerCode(customer.getCustomerCode())
+            .companyName(customer.getCompanyName())
+            .creditLimit(creditLimit)
+            .outstanding(exposure.outstanding)
+            .overdueAmount(exposure.overdue)
+            .creditUsagePercent(usagePercent)
+            .maxDaysOverdue(exposure.maxDaysOverdue)
+            .openInvoices(exposure.invoiceCount)
+            .riskLevel(riskLevel)
+            .recommendations(generateRecommendations(customer, exposure.maxDaysOverdue, usagePercent))
+            .build();
+    }
+
+    /**
+     * Évalue le niveau de risque d'un client (mêmes libellés que l'analyse de facture)
+     */
+    private String evaluateRiskLevel(long maxDaysOverdue, BigDecimal usagePercent) {
+        double usage = usagePercent != null ? usagePercent.doubleValue() : 0;
+
+        if (maxDaysOverdue > 90 || usage > 100) {
+            return "CRITIQUE";
+        } else if (maxDaysOverdue > 60 || usage > 90) {
+            return "ÉLEVÉ";
+        } else if (maxDaysOverdue > 30 || usage > 75) {
+            return "MOYEN";
+        } else if (maxDaysOverdue > 0) {
+            return "FAIBLE";
+        }
+        return "NORMAL";
+    }
+
+    private int riskRank(String riskLevel) {
+        return switch (riskLevel) {
+            case "CRITIQUE" -> 4;
+            case "ÉLEVÉ" -> 3;
+            case "MOYEN" -> 2;
+            case "FAIBLE" -> 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Génère les actions recommandées pour un client du portefeuille
+     */
+    private List<String> generateRecommendations(Customer customer, long maxDaysOverdue, BigDecimal usagePercent) {
+        List<String> recommendations = new ArrayList<>();
+
+        if (usagePercent != null && usagePercent.compareTo(HUNDRED) > 0) {
+            recommendations.add("Bloquer les nouvelles commandes - limite de crédit dépassée");
+        } else if (usagePercent != null && usagePercent.compareTo(new BigDecimal("80")) > 0) {
+            recommendations.add("Revoir la limite de crédit avec le client");
+        }
+
+        if (maxDaysOverdue > 90) {
+            recommendations.add("Transférer au contentieux");
+            recommendations.add("Provisionner la créance douteuse");
+        } else if (maxDaysOverdue > 30) {
+            recommendations.add("Escalader au service recouvrement");
+        } else if (maxDaysOverdue > 0) {
+            recommendations.add("Envoyer une relance de paiement");
+        }
+
+        if (!recommendations.isEmpty() && customer.getSegment() != null) {
+            switch (customer.getSegment()) {
+                case VIP, ENTERPRISE:
+                    recommendations.add("Client prioritaire - traitement personnalisé recommandé");
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return recommendations;
+    }
+
+    /**
+     * Accumulateur d'exposition d'un client, fusionnable entre pages et entre threads
+     */
+    private static final class CustomerExposure {
+        private BigDecimal outstanding = BigDecimal.ZERO;
+        private BigDecimal overdue = BigDecimal.ZERO;
+        private final BigDecimal[] buckets = new BigDecimal[OverdueBucket.values().length];
+        private long maxDaysOverdue;
+        private int invoiceCount;
+
+        private CustomerExposure() {
+            Arrays.fill(buckets, BigDecimal.ZERO);
+        }
+
+        static CustomerExposure of(InvoiceExposureRow row, LocalDate today) {
+            CustomerExposure exposure = new CustomerExposure();
+            BigDecimal amount = row.remainingAmount() != null ? row.remainingAmount() : BigDecimal.ZERO;
+            long daysOverdue = row.dueDate() != null && today.isAfter(row.dueDate())
+                ? ChronoUnit.DAYS.between(row.dueDate(), today)
+                : 0;
+
+            exposure.outstanding = amount;
+            if (daysOverdue > 0) {
+                exposure.overdue = amount;
+            }
+            exposure.buckets[OverdueBucket.of(daysOverdue).ordinal()] = amount;
+            exposure.maxDaysOverdue = daysOverdue;
+            exposure.invoiceCount = 1;
+            return exposure;
+        }
+
+        CustomerExposure combine(CustomerExposure other) {
+            outstanding = outstanding.add(other.outstanding);
+            overdue = overdue.add(other.overdue);
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = buckets[i].add(other.buckets[i]);
+            }
+            maxDaysOverdue = Math.max(maxDaysOverdue, other.maxDaysOverdue);
+            invoiceCount += other.invoiceCount;
+            return this;
+        }
+    }
+}
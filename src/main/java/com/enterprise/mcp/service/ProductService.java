@@ -1,13 +1,25 @@
 package com.enterprise.mcp.service;
 
 import com.enterprise.mcp.domain.entity.Product;
+import com.enterprise.mcp.domain.event.ProductChangedEvent;
+import com.enterprise.mcp.domain.repository.ProductCatalogVersion;
 import com.enterprise.mcp.domain.repository.ProductRepository;
+import com.enterprise.mcp.domain.repository.ProductSummary;
+import com.enterprise.mcp.search.CatalogSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,7 +31,12 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class ProductService {
     
+    /** Nombre maximum de résultats retenus pour une recherche par nom */
+    private static final int MAX_SEARCH_RESULTS = 200;
+    
     private final ProductRepository productRepository;
+    private final CatalogSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Liste tous les produits
@@ -35,6 +52,21 @@ public class ProductService {
         return productRepository.findByStatus(Product.ProductStatus.ACTIVE);
     }
     
+    /**
+     * Liste paginée et filtrée du catalogue en projection légère
+     */
+    public Page<ProductSummary> findSummaries(ProductFilter filter, Pageable pageable) {
+        return productRepository.findSummaries(
+            filter.status(), filter.category(), filter.minPrice(), filter.maxPrice(), filter.name(), pageable);
+    }
+    
+    /**
+     * Version courante du catalogue (dernière mise à jour et nombre de produits)
+     */
+    public ProductCatalogVersion getCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+    
     /**
      * Recherche un produit par son code
      */
@@ -58,10 +90,27 @@ public class ProductService {
     }
     
     /**
-     * Recherche des produits par nom
+     * Recherche des produits par nom, code ou description, du plus pertinent au moins pertinent
+     * 
+     * S'appuie sur l'index en mémoire (tolère les fautes de frappe) :
+     * seuls les produits trouvés sont lus en base, par leur ID.
      */
     public List<Product> searchByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return findRanked(searchIndex.searchProducts(name, MAX_SEARCH_RESULTS));
+    }
+    
+    /**
+     * Recherche paginée par nom, triée par pertinence
+     */
+    public Page<ProductSummary> searchSummaries(String name, Pageable pageable) {
+        List<Long> rankedIds = searchIndex.searchProducts(name, MAX_SEARCH_RESULTS);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        
+        List<ProductSummary> content = findRanked(rankedIds.subList(from, to)).stream()
+            .map(ProductSummary::of)
+            .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
     }
     
     /**
@@ -75,7 +124,9 @@ public class ProductService {
             throw new IllegalArgumentException("Un produit avec ce code existe déjà: " + product.getProductCode());
         }
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved));
+        return saved;
     }
     
     /**
@@ -96,7 +147,9 @@ public class ProductService {
         existing.setStatus(productUpdate.getStatus());
         existing.setUnit(productUpdate.getUnit());
         
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved));
+        return saved;
     }
     
     /**
@@ -110,7 +163,7 @@ public class ProductService {
             .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé: " + id));
         
         product.setStatus(Product.ProductStatus.INACTIVE);
-        productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(productRepository.save(product)));
     }
     
     /**
@@ -121,4 +174,31 @@ public class ProductService {
             .map(p -> p.getStatus() == Product.ProductStatus.ACTIVE)
             .orElse(false);
     }
+    
+    /**
+     * Charge les produits par ID en conservant l'ordre de pertinence fourni
+     */
+    private List<Product> findRanked(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        return productRepository.findAllById(rankedIds).stream()
+            .sorted(Comparator.comparing(p -> rank.get(p.getId())))
+            .toList();
+    }
+    
+    /**
+     * Critères de filtrage du catalogue (null = pas de filtre)
+     */
+    public record ProductFilter(
+        Product.ProductStatus status,
+        Product.ProductCategory category,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String name
+    ) {}
 }
@@ -0,0 +1,20 @@
+package com.enterprise.mcp.service;
+
+/**
+ * Suivi d'avancement d'un traitement long
+ *
+ * Les services appelés en tâche de fond signalent leur avancement par ce
+ * biais ; en appel synchrone, {@link #NONE} ignore les notifications.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    ProgressListener NONE = (done, total, message) -> {};
+
+    /**
+     * @param done Unités de travail terminées
+     * @param total Nombre total d'unités, null s'il n'est pas connu
+     * @param message Étape en cours, lisible par l'utilisateur
+     */
+    void onProgress(long done, Long total, String message);
+}
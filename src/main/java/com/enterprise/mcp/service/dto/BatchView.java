@@ -0,0 +1,14 @@
+package com.enterprise.mcp.service.dto;
+
+import java.util.List;
+
+/**
+ * Résultat combiné d'une capacité multi-identifiants (findOrders, analyzeInvoices, summarizeCustomers)
+ *
+ * @param items Vues compactes des éléments trouvés, dans l'ordre de la demande
+ * @param notFound Identifiants demandés sans correspondance
+ */
+public record BatchView(
+    List<?> items,
+    List<String> notFound
+) {}
@@ -1,5 +1,6 @@
 package com.enterprise.mcp.service.dto;
 
+import com.enterprise.mcp.report.ReportBuilder;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
@@ -69,41 +70,42 @@ public class CreateOrderRequest {
      * Génère un résumé de la commande pour confirmation
      */
     public String toConfirmationSummary() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("=== Confirmation de commande ===\n\n");
-        sb.append("Client: ").append(customerCode).append("\n");
-        
-        if (shippingAddress != null) {
-            sb.append("Adresse de livraison: ").append(shippingAddress).append("\n");
-        }
-        
-        sb.append("\nArticles:\n");
-        BigDecimal total = BigDecimal.ZERO;
-        
-        for (OrderLineRequest line : lines) {
-            BigDecimal lineTotal = line.getUnitPrice().multiply(new BigDecimal(line.getQuantity()));
-            if (line.getDiscountPercent() != null && line.getDiscountPercent().compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal discount = lineTotal.multiply(line.getDiscountPercent()).divide(new BigDecimal("100"));
-                lineTotal = lineTotal.subtract(discount);
+        try (ReportBuilder report = ReportBuilder.acquire(256 + lines.size() * 96)) {
+            report.text("=== Confirmation de commande ===\n\n");
+            report.text("Client: ").text(customerCode).newline();
+            
+            if (shippingAddress != null) {
+                report.text("Adresse de livraison: ").text(shippingAddress).newline();
             }
-            total = total.add(lineTotal);
             
-            sb.append("- ").append(line.getProductName())
-              .append(" (").append(line.getProductCode()).append(")")
-              .append(" x ").append(line.getQuantity())
-              .append(" @ ").append(String.format("%,.2f €", line.getUnitPrice()))
-              .append(" = ").append(String.format("%,.2f €", lineTotal))
-              .append("\n");
-        }
-        
-        sb.append("\nTotal HT: ").append(String.format("%,.2f €", total));
-        sb.append("\nTVA (20%): ").append(String.format("%,.2f €", total.multiply(new BigDecimal("0.20"))));
-        sb.append("\nTotal TTC: ").append(String.format("%,.2f €", total.multiply(new BigDecimal("1.20"))));
-        
-        if (notes != null && !notes.isBlank()) {
-            sb.append("\n\nNotes: ").append(notes);
+            report.text("\nArticles:\n");
+            BigDecimal total = BigDecimal.ZERO;
+            
+            for (OrderLineRequest line : lines) {
+                BigDecimal lineTotal = line.getUnitPrice().multiply(new BigDecimal(line.getQuantity()));
+                if (line.getDiscountPercent() != null && line.getDiscountPercent().compareTo(BigDecimal.ZERO) > 0) {
+                    BigDecimal discount = lineTotal.multiply(line.getDiscountPercent()).divide(new BigDecimal("100"));
+                    lineTotal = lineTotal.subtract(discount);
+                }
+                total = total.add(lineTotal);
+                
+                report.text("- ").text(line.getProductName())
+                      .text(" (").text(line.getProductCode()).text(")")
+                      .text(" x ").text(line.getQuantity())
+                      .text(" @ ").money(line.getUnitPrice())
+                      .text(" = ").money(lineTotal)
+                      .newline();
+            }
+            
+            report.text("\nTotal HT: ").money(total);
+            report.text("\nTVA (20%): ").money(total.multiply(new BigDecimal("0.20")));
+            report.text("\nTotal TTC: ").money(total.multiply(new BigDecimal("1.20")));
+            
+            if (notes != null && !notes.isBlank()) {
+                report.text("\n\nNotes: ").text(notes);
+            }
+            
+            return report.build();
         }
-        
-        return sb.toString();
     }
 }
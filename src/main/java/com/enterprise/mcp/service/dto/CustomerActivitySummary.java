@@ -3,10 +3,12 @@ package com.enterprise.mcp.service.dto;
 import com.enterprise.mcp.domain.entity.Customer;
 import com.enterprise.mcp.domain.entity.Invoice;
 import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.report.ReportBuilder;
 import lombok.Builder;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -42,65 +44,111 @@ public class CustomerActivitySummary {
      * Génère un résumé textuel pour l'IA
      */
     public String toNaturalLanguageSummary() {
-        StringBuilder sb = new StringBuilder();
-        
-        sb.append("=== Résumé Client: ").append(customer.getCompanyName()).append(" ===\n\n");
-        
-        // Informations générales
-        sb.append("**Informations générales:**\n");
-        sb.append("- Code client: ").append(customer.getCustomerCode()).append("\n");
-        sb.append("- Segment: ").append(customer.getSegment()).append("\n");
-        sb.append("- Statut: ").append(customer.getStatus()).append("\n");
-        sb.append("- Contact: ").append(customer.getContactName()).append("\n");
-        sb.append("- Email: ").append(customer.getEmail()).append("\n\n");
-        
-        // Activité commerciale
-        sb.append("**Activité commerciale:**\n");
-        sb.append("- Nombre total de commandes: ").append(totalOrders).append("\n");
-        sb.append("- Chiffre d'affaires total: ").append(formatCurrency(totalRevenue)).append("\n\n");
-        
-        // Situation financière
-        sb.append("**Situation financière:**\n");
-        sb.append("- Nombre total de factures: ").append(totalInvoices).append("\n");
-        sb.append("- Montant total payé: ").append(formatCurrency(totalPaid)).append("\n");
-        sb.append("- Montant en attente: ").append(formatCurrency(totalOutstanding)).append("\n");
-        sb.append("- Factures impayées: ").append(unpaidInvoicesCount).append("\n");
-        
-        if (hasOverdueInvoices) {
-            sb.append("⚠️ ATTENTION: Ce client a des factures en retard de paiement!\n");
+        try (ReportBuilder report = ReportBuilder.acquire(1024)) {
+            
+            report.text("=== Résumé Client: ").text(customer.getCompanyName()).text(" ===\n\n");
+            
+            // Informations générales
+            report.text("**Informations générales:**\n");
+            report.text("- Code client: ").text(customer.getCustomerCode()).newline();
+            report.text("- Segment: ").text(customer.getSegment()).newline();
+            report.text("- Statut: ").text(customer.getStatus()).newline();
+            report.text("- Contact: ").text(customer.getContactName()).newline();
+            report.text("- Email: ").text(customer.getEmail()).text("\n\n");
+            
+            // Activité commerciale
+            report.text("**Activité commerciale:**\n");
+            report.text("- Nombre total de commandes: ").number(totalOrders).newline();
+            report.text("- Chiffre d'affaires total: ").money(totalRevenue).text("\n\n");
+            
+            // Situation financière
+            report.text("**Situation financière:**\n");
+            report.text("- Nombre total de factures: ").number(totalInvoices).newline();
+            report.text("- Montant total payé: ").money(totalPaid).newline();
+            report.text("- Montant en attente: ").money(totalOutstanding).newline();
+            report.text("- Factures impayées: ").number(unpaidInvoicesCount).newline();
+            
+            if (hasOverdueInvoices) {
+                report.text("⚠️ ATTENTION: Ce client a des factures en retard de paiement!\n");
+            }
+            
+            // Commandes récentes
+            if (!recentOrders.isEmpty()) {
+                report.text("\n**Dernières commandes:**\n");
+                recentOrders.stream().limit(3).forEach(order -> {
+                    report.text("- ").text(order.getOrderNumber())
+                          .text(" | ").text(order.getStatus())
+                          .text(" | ").money(order.getTotalAmount())
+                          .text(" | ").text(order.getOrderDate().toLocalDate())
+                          .newline();
+                });
+            }
+            
+            // Factures récentes
+            if (!recentInvoices.isEmpty()) {
+                report.text("\n**Dernières factures:**\n");
+                recentInvoices.stream().limit(3).forEach(invoice -> {
+                    report.text("- ").text(invoice.getInvoiceNumber())
+                          .text(" | ").text(invoice.getStatus())
+                          .text(" | ").money(invoice.getTotalAmount())
+                          .text(" | Échéance: ").text(invoice.getDueDate())
+                          .newline();
+                });
+            }
+            
+            report.text("\n---\nRésumé généré le: ").text(generatedAt);
+            
+            return report.build();
         }
-        
-        // Commandes récentes
-        if (!recentOrders.isEmpty()) {
-            sb.append("\n**Dernières commandes:**\n");
-            recentOrders.stream().limit(3).forEach(order -> {
-                sb.append("- ").append(order.getOrderNumber())
-                  .append(" | ").append(order.getStatus())
-                  .append(" | ").append(formatCurrency(order.getTotalAmount()))
-                  .append(" | ").append(order.getOrderDate().toLocalDate())
-                  .append("\n");
-            });
-        }
-        
-        // Factures récentes
-        if (!recentInvoices.isEmpty()) {
-            sb.append("\n**Dernières factures:**\n");
-            recentInvoices.stream().limit(3).forEach(invoice -> {
-                sb.append("- ").append(invoice.getInvoiceNumber())
-                  .append(" | ").append(invoice.getStatus())
-                  .append(" | ").append(formatCurrency(invoice.getTotalAmount()))
-                  .append(" | Échéance: ").append(invoice.getDueDate())
-                  .append("\n");
-            });
-        }
-        
-        sb.append("\n---\nRésumé généré le: ").append(generatedAt);
-        
-        return sb.toString();
     }
     
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) return "0,00 €";
-        return String.format("%,.2f €", amount);
+    /**
+     * Vue structurée du résumé pour les formats de sortie compacts (JSON, TOON)
+     */
+    public CompactView toCompactView() {
+        return new CompactView(
+            customer.getCustomerCode(),
+            customer.getCompanyName(),
+            customer.getSegment(),
+            customer.getStatus(),
+            customer.getContactName(),
+            customer.getEmail(),
+            totalOrders,
+            totalRevenue,
+            totalInvoices,
+            totalPaid,
+            totalOutstanding,
+            unpaidInvoicesCount,
+            hasOverdueInvoices,
+            recentOrders.stream().limit(3)
+                .map(o -> new RecentOrder(o.getOrderNumber(), o.getStatus(), o.getTotalAmount(), 
+                    o.getOrderDate().toLocalDate()))
+                .toList(),
+            recentInvoices.stream().limit(3)
+                .map(i -> new RecentInvoice(i.getInvoiceNumber(), i.getStatus(), i.getTotalAmount(), i.getDueDate()))
+                .toList()
+        );
     }
+    
+    public record CompactView(
+        String customerCode,
+        String companyName,
+        Customer.CustomerSegment segment,
+        Customer.CustomerStatus status,
+        String contact,
+        String email,
+        int totalOrders,
+        BigDecimal totalRevenue,
+        int totalInvoices,
+        BigDecimal totalPaid,
+        BigDecimal totalOutstanding,
+        int unpaidInvoices,
+        boolean hasOverdueInvoices,
+        List<RecentOrder> recentOrders,
+        List<RecentInvoice> recentInvoices
+    ) {}
+    
+    public record RecentOrder(String orderNumber, Order.OrderStatus status, BigDecimal total, LocalDate orderDate) {}
+    
+    public record RecentInvoice(String invoiceNumber, Invoice.InvoiceStatus status, BigDecimal total, LocalDate dueDate) {}
 }
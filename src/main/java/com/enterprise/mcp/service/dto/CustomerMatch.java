@@ -0,0 +1,19 @@
+package com.enterprise.mcp.service.dto;
+
+import com.enterprise.mcp.domain.entity.Customer;
+
+/**
+ * Client trouvé par une recherche par nom (vue compacte)
+ */
+public record CustomerMatch(
+    String customerCode,
+    String companyName,
+    Customer.CustomerSegment segment,
+    Customer.CustomerStatus status
+) {
+    
+    public static CustomerMatch of(Customer customer) {
+        return new CustomerMatch(customer.getCustomerCode(), customer.getCompanyName(), 
+            customer.getSegment(), customer.getStatus());
+    }
+}
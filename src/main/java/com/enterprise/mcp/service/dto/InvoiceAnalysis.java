@@ -1,6 +1,7 @@
 package com.enterprise.mcp.service.dto;
 
 import com.enterprise.mcp.domain.entity.Invoice;
+import com.enterprise.mcp.report.ReportBuilder;
 import lombok.Builder;
 import lombok.Data;
 
@@ -56,53 +57,77 @@ public class InvoiceAnalysis {
      * Génère un rapport d'analyse en langage naturel pour l'IA
      */
     public String toNaturalLanguageReport() {
-        StringBuilder sb = new StringBuilder();
-        
-        sb.append("=== Analyse de la Facture ").append(invoiceNumber).append(" ===\n\n");
-        
-        // Informations générales
-        sb.append("**Client:** ").append(customerName).append(" (").append(customerCode).append(")\n");
-        sb.append("**Statut:** ").append(status).append("\n");
-        sb.append("**Date d'émission:** ").append(issueDate).append("\n");
-        sb.append("**Date d'échéance:** ").append(dueDate).append("\n\n");
-        
-        // Montants
-        sb.append("**Situation financière:**\n");
-        sb.append("- Montant total: ").append(formatCurrency(totalAmount)).append("\n");
-        sb.append("- Montant payé: ").append(formatCurrency(paidAmount));
-        sb.append(" (").append(String.format("%.1f%%", paidPercentage)).append(")\n");
-        sb.append("- Reste à payer: ").append(formatCurrency(remainingAmount)).append("\n\n");
-        
-        // Indicateurs de risque
-        sb.append("**Évaluation du risque:** ").append(getRiskEmoji()).append(" ").append(riskLevel).append("\n");
-        
-        if (isOverdue) {
-            sb.append("⚠️ FACTURE EN RETARD DE ").append(daysOverdue).append(" JOURS\n");
+        try (ReportBuilder report = ReportBuilder.acquire(1024)) {
+            
+            report.text("=== Analyse de la Facture ").text(invoiceNumber).text(" ===\n\n");
+            
+            // Informations générales
+            report.text("**Client:** ").text(customerName).text(" (").text(customerCode).text(")\n");
+            report.text("**Statut:** ").text(status).newline();
+            report.text("**Date d'émission:** ").text(issueDate).newline();
+            report.text("**Date d'échéance:** ").text(dueDate).text("\n\n");
+            
+            // Montants
+            report.text("**Situation financière:**\n");
+            report.text("- Montant total: ").money(totalAmount).newline();
+            report.text("- Montant payé: ").money(paidAmount);
+            report.text(" (").percent(paidPercentage, 1).text(")\n");
+            report.text("- Reste à payer: ").money(remainingAmount).text("\n\n");
+            
+            // Indicateurs de risque
+            report.text("**Évaluation du risque:** ").text(getRiskEmoji()).text(" ").text(riskLevel).newline();
+            
+            if (isOverdue) {
+                report.text("⚠️ FACTURE EN RETARD DE ").number(daysOverdue).text(" JOURS\n");
+            }
+            
+            report.newline();
+            
+            // Recommandations
+            if (recommendations != null && !recommendations.isEmpty()) {
+                report.text("**Recommandations:**\n");
+                recommendations.forEach(r -> report.text("→ ").text(r).newline());
+                report.newline();
+            }
+            
+            // Contexte client
+            report.text("**Historique client:**\n");
+            report.text("- Total facturé (payé): ").money(customerTotalPaid).newline();
+            report.text("- Encours actuel: ").money(customerTotalOutstanding).newline();
+            report.text("- Nombre de factures: ").number(customerInvoiceCount).newline();
+            
+            return report.build();
         }
-        
-        sb.append("\n");
-        
-        // Recommandations
-        if (recommendations != null && !recommendations.isEmpty()) {
-            sb.append("**Recommandations:**\n");
-            recommendations.forEach(r -> sb.append("→ ").append(r).append("\n"));
-            sb.append("\n");
-        }
-        
-        // Contexte client
-        sb.append("**Historique client:**\n");
-        sb.append("- Total facturé (payé): ").append(formatCurrency(customerTotalPaid)).append("\n");
-        sb.append("- Encours actuel: ").append(formatCurrency(customerTotalOutstanding)).append("\n");
-        sb.append("- Nombre de factures: ").append(customerInvoiceCount).append("\n");
-        
-        return sb.toString();
     }
     
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) return "0,00 €";
-        return String.format("%,.2f €", amount);
+    /**
+     * Vue structurée de l'analyse pour les formats de sortie compacts (JSON, TOON)
+     */
+    public CompactView toCompactView() {
+        return new CompactView(invoiceNumber, customerName, customerCode, status, issueDate, dueDate,
+            totalAmount, paidAmount, paidPercentage, remainingAmount, isOverdue ? daysOverdue : 0,
+            riskLevel, recommendations, customerTotalPaid, customerTotalOutstanding, customerInvoiceCount);
     }
     
+    public record CompactView(
+        String invoiceNumber,
+        String customer,
+        String customerCode,
+        String status,
+        LocalDate issueDate,
+        LocalDate dueDate,
+        BigDecimal total,
+        BigDecimal paid,
+        BigDecimal paidPercent,
+        BigDecimal remaining,
+        long daysOverdue,
+        String risk,
+        List<String> recommendations,
+        BigDecimal customerTotalPaid,
+        BigDecimal customerOutstanding,
+        int customerInvoiceCount
+    ) {}
+    
     private String getRiskEmoji() {
         return switch (riskLevel) {
             case "AUCUN" -> "✅";
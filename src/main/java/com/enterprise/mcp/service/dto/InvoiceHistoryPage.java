@@ -0,0 +1,37 @@
+package com.enterprise.mcp.service.dto;
+
+import com.enterprise.mcp.domain.entity.Invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Page de l'historique des factures d'un client (listCustomerInvoices)
+ *
+ * Les factures forment un tableau homogène, encodé en une ligne par facture.
+ *
+ * @param from Rang de la première facture de la page (à partir de 1)
+ * @param totalInvoices Nombre total de factures du client
+ */
+public record InvoiceHistoryPage(
+    String customerCode,
+    int from,
+    long totalInvoices,
+    List<Row> invoices
+) {
+
+    public record Row(
+        String invoiceNumber,
+        LocalDate issueDate,
+        LocalDate dueDate,
+        Invoice.InvoiceStatus status,
+        BigDecimal totalAmount,
+        BigDecimal remainingAmount
+    ) {
+        public static Row of(Invoice invoice) {
+            return new Row(invoice.getInvoiceNumber(), invoice.getIssueDate(), invoice.getDueDate(),
+                invoice.getStatus(), invoice.getTotalAmount(), invoice.getRemainingAmount());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.enterprise.mcp.service.dto;
+
+import java.util.List;
+
+/**
+ * Page suivante des lignes d'une commande (findOrder avec pageToken)
+ *
+ * @param from Rang de la première ligne de la page (à partir de 1)
+ * @param totalLines Nombre total de lignes de la commande
+ */
+public record OrderLinesPage(
+    String orderNumber,
+    int from,
+    long totalLines,
+    List<OrderView.Line> lines
+) {}
@@ -1,5 +1,6 @@
 package com.enterprise.mcp.service.dto;
 
+import com.enterprise.mcp.report.ReportBuilder;
 import lombok.Builder;
 import lombok.Data;
 
@@ -50,22 +51,23 @@ public class OrderValidationResult {
      * Génère un message explicatif pour l'IA
      */
     public String toExplanation() {
-        StringBuilder sb = new StringBuilder();
-        
-        if (valid) {
-            sb.append("✅ La commande est valide et peut être créée.\n");
-            sb.append("Montant estimé: ").append(String.format("%,.2f €", estimatedTotal)).append("\n");
+        try (ReportBuilder report = ReportBuilder.acquire(512)) {
             
-            if (!warnings.isEmpty()) {
-                sb.append("\n⚠️ Points d'attention:\n");
-                warnings.forEach(w -> sb.append("- ").append(w).append("\n"));
+            if (valid) {
+                report.text("✅ La commande est valide et peut être créée.\n");
+                report.text("Montant estimé: ").money(estimatedTotal).newline();
+                
+                if (!warnings.isEmpty()) {
+                    report.text("\n⚠️ Points d'attention:\n");
+                    warnings.forEach(w -> report.text("- ").text(w).newline());
+                }
+            } else {
+                report.text("❌ La commande ne peut pas être créée.\n\n");
+                report.text("Erreurs:\n");
+                errors.forEach(e -> report.text("- ").text(e).newline());
             }
-        } else {
-            sb.append("❌ La commande ne peut pas être créée.\n\n");
-            sb.append("Erreurs:\n");
-            errors.forEach(e -> sb.append("- ").append(e).append("\n"));
+            
+            return report.build();
         }
-        
-        return sb.toString();
     }
 }
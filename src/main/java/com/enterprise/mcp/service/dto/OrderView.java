@@ -0,0 +1,75 @@
+package com.enterprise.mcp.service.dto;
+
+import com.enterprise.mcp.domain.entity.Order;
+import com.enterprise.mcp.domain.entity.OrderLine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Vue structurée d'une commande pour les formats de sortie compacts (JSON, TOON)
+ * 
+ * Mêmes informations que le rapport texte de findOrder, sans libellés :
+ * les lignes forment un tableau homogène, encodé en une ligne par article.
+ */
+public record OrderView(
+    String orderNumber,
+    String customer,
+    Order.OrderStatus status,
+    LocalDate orderDate,
+    LocalDate expectedDelivery,
+    List<Line> lines,
+    BigDecimal totalHT,
+    BigDecimal tax,
+    BigDecimal totalTTC,
+    String notes,
+    String shippingAddress,
+    String nextPageToken
+) {
+    
+    public record Line(
+        String productCode,
+        String productName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal lineTotal
+    ) {
+        public static Line of(OrderLine line) {
+            return new Line(line.getProductCode(), line.getProductName(), line.getQuantity(),
+                line.getUnitPrice(), line.getLineTotal());
+        }
+    }
+    
+    public static OrderView of(Order order) {
+        return of(order, order.getLines());
+    }
+    
+    /**
+     * Vue d'une commande limitée aux lignes fournies (première page d'un résultat paginé)
+     */
+    public static OrderView of(Order order, List<OrderLine> lines) {
+        return of(order, lines, null);
+    }
+    
+    /**
+     * Vue de la première page d'une commande parmi plusieurs, avec le jeton de ses lignes suivantes
+     */
+    public static OrderView of(Order order, List<OrderLine> lines, String nextPageToken) {
+        return new OrderView(
+            order.getOrderNumber(),
+            order.getCustomer().getCompanyName(),
+            order.getStatus(),
+            order.getOrderDate() != null ? order.getOrderDate().toLocalDate() : null,
+            order.getExpectedDeliveryDate() != null ? order.getExpectedDeliveryDate().toLocalDate() : null,
+            lines.stream().map(Line::of).toList(),
+            order.getTotalAmount(),
+            order.getTaxAmount(),
+            order.getTotalAmount() != null && order.getTaxAmount() != null 
+                ? order.getTotalAmount().add(order.getTaxAmount()) : null,
+            order.getNotes(),
+            order.getShippingAddress(),
+            nextPageToken
+        );
+    }
+}
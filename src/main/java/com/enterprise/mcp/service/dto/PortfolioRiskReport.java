@@ -0,0 +1,174 @@
+package com.enterprise.mcp.service.dto;
+
+import com.enterprise.mcp.report.ReportBuilder;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO synthétisant le risque crédit de l'ensemble du portefeuille clients
+ *
+ * Ce DTO est conçu pour être consommé par les capacités MCP.
+ * Il agrège l'exposition de chaque client (encours vs limite de crédit),
+ * la répartition des retards et les actions recommandées.
+ */
+@Data
+@Builder
+public class PortfolioRiskReport {
+
+    // Volumétrie du scan
+    private long scannedInvoices;
+    private int customersWithExposure;
+    private int customersOverLimit;
+    private long durationMs;
+
+    // Montants consolidés
+    private BigDecimal totalOutstanding;
+    private BigDecimal totalOverdue;
+
+    // Répartition des encours par tranche de retard
+    private Map<OverdueBucket, BigDecimal> overdueDistribution;
+
+    // Clients les plus exposés, triés par niveau de risque puis encours
+    private List<CustomerRisk> topRisks;
+
+    // Métadonnées
+    private LocalDateTime generatedAt;
+
+    /**
+     * Tranches de retard utilisées pour la répartition des encours
+     */
+    public enum OverdueBucket {
+        NOT_DUE("Non échu"),
+        DAYS_1_30("1 à 30 jours"),
+        DAYS_31_60("31 à 60 jours"),
+        DAYS_61_90("61 à 90 jours"),
+        OVER_90("Plus de 90 jours");
+
+        private final String label;
+
+        OverdueBucket(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static OverdueBucket of(long daysOverdue) {
+            if (daysOverdue <= 0) return NOT_DUE;
+            if (daysOverdue <= 30) return DAYS_1_30;
+            if (daysOverdue <= 60) return DAYS_31_60;
+            if (daysOverdue <= 90) return DAYS_61_90;
+            return OVER_90;
+        }
+    }
+
+    /**
+     * Exposition d'un client du portefeuille
+     */
+    @Data
+    @Builder
+    public static class CustomerRisk {
+        private String customerCode;
+        private String companyName;
+        private BigDecimal creditLimit;
+        private BigDecimal outstanding;
+        private BigDecimal overdueAmount;
+        private BigDecimal creditUsagePercent;
+        private long maxDaysOverdue;
+        private int openInvoices;
+        private String riskLevel;
+        private List<String> recommendations;
+    }
+
+    /**
+     * Génère un rapport de portefeuille en langage naturel pour l'IA
+     */
+    public String toNaturalLanguageReport() {
+        try (ReportBuilder report = ReportBuilder.acquire(1024 + (topRisks != null ? topRisks.size() * 256 : 0))) {
+
+            report.text("=== Analyse du risque portefeuille ===\n\n");
+
+            report.text("**Vue d'ensemble:**\n");
+            report.text("- Factures ouvertes analysées: ").number(scannedInvoices).newline();
+            report.text("- Clients avec encours: ").number(customersWithExposure).newline();
+            report.text("- Clients au-delà de leur limite de crédit: ").number(customersOverLimit).newline();
+            report.text("- Encours total: ").money(totalOutstanding).newline();
+            report.text("- Dont échu: ").money(totalOverdue).text("\n\n");
+
+            report.text("**Répartition des encours par retard:**\n");
+            overdueDistribution.forEach((bucket, amount) ->
+                report.text("- ").text(bucket.getLabel()).text(": ").money(amount).newline());
+
+            if (topRisks != null && !topRisks.isEmpty()) {
+                report.text("\n**Clients les plus exposés:**\n");
+                for (CustomerRisk risk : topRisks) {
+                    report.text("- ").text(risk.getCompanyName())
+                          .text(" (").text(risk.getCustomerCode()).text(")")
+                          .text(" | Risque: ").text(risk.getRiskLevel())
+                          .text(" | Encours: ").money(risk.getOutstanding());
+                    if (risk.getCreditUsagePercent() != null) {
+                        report.text(" (").percent(risk.getCreditUsagePercent(), 0)
+                              .text(" de la limite)");
+                    }
+                    if (risk.getMaxDaysOverdue() > 0) {
+                        report.text(" | Retard max: ").number(risk.getMaxDaysOverdue()).text(" jours");
+                    }
+                    report.newline();
+                    risk.getRecommendations().forEach(r -> report.text("  → ").text(r).newline());
+                }
+            }
+
+            report.text("\n---\nAnalyse générée le: ").text(generatedAt)
+                  .text(" en ").number(durationMs).text(" ms");
+
+            return report.build();
+        }
+    }
+
+    /**
+     * Vue structurée du rapport pour les formats de sortie compacts (JSON, TOON)
+     */
+    public CompactView toCompactView() {
+        return new CompactView(scannedInvoices, customersWithExposure, customersOverLimit,
+            totalOutstanding, totalOverdue,
+            overdueDistribution.entrySet().stream()
+                .map(e -> new BucketAmount(e.getKey().getLabel(), e.getValue()))
+                .toList(),
+            topRisks == null ? List.of() : topRisks.stream()
+                .map(r -> new RiskLine(r.getCustomerCode(), r.getCompanyName(), r.getRiskLevel(),
+                    r.getOutstanding(), r.getCreditUsagePercent(), r.getMaxDaysOverdue(),
+                    String.join(" / ", r.getRecommendations())))
+                .toList());
+    }
+
+    public record CompactView(
+        long scannedInvoices,
+        int customersWithExposure,
+        int customersOverLimit,
+        BigDecimal totalOutstanding,
+        BigDecimal totalOverdue,
+        List<BucketAmount> overdueDistribution,
+        List<RiskLine> topRisks
+    ) {}
+
+    public record BucketAmount(String bucket, BigDecimal amount) {}
+
+    /**
+     * Recommandations jointes en une seule colonne pour garder un tableau homogène
+     */
+    public record RiskLine(
+        String customerCode,
+        String companyName,
+        String risk,
+        BigDecimal outstanding,
+        BigDecimal creditUsagePercent,
+        long maxDaysOverdue,
+        String actions
+    ) {}
+}
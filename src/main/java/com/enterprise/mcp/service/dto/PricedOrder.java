@@ -0,0 +1,67 @@
+package com.enterprise.mcp.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Commande validée et chiffrée, en attente de confirmation
+ * 
+ * Instantané pris lors de la validation : nom et prix de chaque produit
+ * sont figés, la commande confirmée reprend exactement ce qui a été
+ * présenté à l'utilisateur. Sérialisable : l'attente de confirmation
+ * peut être partagée entre instances (state.backend=hazelcast).
+ */
+public record PricedOrder(
+    String customerCode,
+    List<Line> lines,
+    String shippingAddress,
+    String notes,
+    LocalDateTime expectedDeliveryDate
+) implements Serializable {
+    
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    
+    public record Line(
+        String productCode,
+        String productName,
+        int quantity,
+        BigDecimal unitPrice,
+        BigDecimal discountPercent,
+        String notes
+    ) implements Serializable {
+        
+        /**
+         * Montant de la ligne hors remise
+         */
+        public BigDecimal grossAmount() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+        
+        /**
+         * Montant de la ligne remise déduite (même calcul que OrderLine)
+         */
+        public BigDecimal lineTotal() {
+            BigDecimal subtotal = grossAmount();
+            if (discountPercent != null && discountPercent.compareTo(BigDecimal.ZERO) > 0) {
+                subtotal = subtotal.subtract(subtotal.multiply(discountPercent).divide(HUNDRED));
+            }
+            return subtotal;
+        }
+    }
+    
+    /**
+     * Montant hors remise, utilisé pour le contrôle de la limite de crédit
+     */
+    public BigDecimal grossAmount() {
+        return lines.stream().map(Line::grossAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
+    /**
+     * Total HT remises déduites
+     */
+    public BigDecimal totalAmount() {
+        return lines.stream().map(Line::lineTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,131 @@
+package com.enterprise.mcp.traffic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Classement des requêtes HTTP par classe de trafic et admission
+ *
+ * Placé après Spring Security : une requête non authentifiée n'occupe aucun
+ * créneau. Une requête délestée reçoit aussitôt un 503 avec Retry-After.
+ *
+ * Le créneau est rendu quand le thread HTTP est libéré ; pour le trafic
+ * BULK, dont la réponse est écrite en asynchrone (exports en flux), il est
+ * gardé jusqu'à la fin de l'écriture. Les flux SSE du chat et du serveur MCP
+ * ne gardent donc pas de créneau INTERACTIVE pendant leur durée de vie.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrafficAdmissionFilter extends OncePerRequestFilter {
+
+    private final TrafficProperties properties;
+    private final TrafficScheduler scheduler;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        // Sondes et console : jamais délestées
+        String path = path(request);
+        return path.startsWith("/actuator/") || path.startsWith("/h2-console");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TrafficClass trafficClass = classify(path(request));
+        request.setAttribute(TrafficContext.ATTRIBUTE, trafficClass);
+
+        TrafficScheduler.Permit permit;
+        try {
+            permit = scheduler.acquire(trafficClass);
+        } catch (TrafficShedException e) {
+            reject(response, e);
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (trafficClass == TrafficClass.BULK && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private TrafficClass classify(String path) {
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            for (String pattern : properties.settingsFor(trafficClass).getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return trafficClass;
+                }
+            }
+        }
+        return TrafficClass.CRUD;
+    }
+
+    private void reject(HttpServletResponse response, TrafficShedException e) throws IOException {
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), Map.of(
+            "error", e.getMessage(),
+            "trafficClass", e.getTrafficClass().name(),
+            "reason", e.getReason().name()
+        ));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Rend le créneau à la fin du traitement asynchrone
+     */
+    private record ReleaseOnCompletion(TrafficScheduler.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Le créneau reste acquis
+        }
+    }
+}
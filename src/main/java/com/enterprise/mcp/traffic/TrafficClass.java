@@ -0,0 +1,26 @@
+package com.enterprise.mcp.traffic;
+
+/**
+ * Classes de trafic, de la plus prioritaire à la moins prioritaire
+ *
+ * Chaque classe dispose de ses propres créneaux d'exécution et de sa
+ * partition du pool de connexions ; quand les créneaux globaux manquent,
+ * une place libérée revient à la classe la plus prioritaire en attente.
+ */
+public enum TrafficClass {
+
+    /**
+     * Chat, appels d'outils et serveur MCP : un utilisateur attend la réponse
+     */
+    INTERACTIVE,
+
+    /**
+     * API produits, administration (audit, caches) et autres appels unitaires
+     */
+    CRUD,
+
+    /**
+     * Exports en masse et analyses longues : premiers délestés sous charge
+     */
+    BULK
+}
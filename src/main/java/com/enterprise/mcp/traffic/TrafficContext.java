@@ -0,0 +1,66 @@
+package com.enterprise.mcp.traffic;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Classe de trafic du traitement en cours
+ *
+ * Sur un thread HTTP, elle est posée en attribut de requête par
+ * {@link TrafficAdmissionFilter} ; elle suit donc la requête sur les threads
+ * qui en reprennent les attributs (appels au LLM et à leurs outils). Les
+ * threads de fond (exports, tâches) la fixent explicitement.
+ *
+ * Le routage des connexions ({@link TrafficRoutingDataSource}) s'appuie
+ * dessus ; sans classe connue, le trafic est traité comme CRUD.
+ */
+public final class TrafficContext {
+
+    static final String ATTRIBUTE = TrafficContext.class.getName();
+
+    private static final ThreadLocal<TrafficClass> CURRENT = new ThreadLocal<>();
+
+    private TrafficContext() {
+    }
+
+    public static TrafficClass current() {
+        TrafficClass trafficClass = CURRENT.get();
+        if (trafficClass != null) {
+            return trafficClass;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof TrafficClass requested) {
+            return requested;
+        }
+        return TrafficClass.CRUD;
+    }
+
+    /**
+     * Exécute un traitement sous une classe de trafic, sur le thread courant
+     */
+    public static <T> T callAs(TrafficClass trafficClass, Supplier<T> work) {
+        TrafficClass previous = CURRENT.get();
+        CURRENT.set(trafficClass);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Exécute un traitement sous une classe de trafic, sur le thread courant
+     */
+    public static void runAs(TrafficClass trafficClass, Runnable work) {
+        callAs(trafficClass, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.enterprise.mcp.traffic;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordonnancement du trafic par classe (traffic.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "traffic")
+public class TrafficProperties {
+    
+    private boolean enabled = true;
+    
+    /** Requêtes traitées simultanément, toutes classes confondues ; à garder sous server.tomcat.threads.max */
+    private int maxConcurrent = 150;
+    
+    /** Occupation des créneaux globaux (0..1) au-delà de laquelle le trafic BULK est refusé d'emblée */
+    private double bulkShedThreshold = 0.7;
+    
+    /** Un pool de connexions par classe (pool-size de chaque classe) au lieu d'un pool unique */
+    private boolean partitionPools = true;
+    
+    private ClassSettings interactive = new ClassSettings(
+        new ArrayList<>(List.of("/api/chat/**", "/mcp")), 100, 50, Duration.ofSeconds(2), 5, Duration.ofSeconds(2));
+    
+    private ClassSettings crud = new ClassSettings(
+        new ArrayList<>(), 60, 20, Duration.ofSeconds(1), 3, Duration.ofSeconds(2));
+    
+    private ClassSettings bulk = new ClassSettings(
+        new ArrayList<>(List.of("/api/orders/export")), 2, 0, Duration.ZERO, 2, Duration.ofSeconds(30));
+    
+    public ClassSettings settingsFor(TrafficClass trafficClass) {
+        return switch (trafficClass) {
+            case INTERACTIVE -> interactive;
+            case CRUD -> crud;
+            case BULK -> bulk;
+        };
+    }
+    
+    @Data
+    public static class ClassSettings {
+        
+        /** Chemins de la classe (motifs Ant) ; le trafic non classé est CRUD */
+        private List<String> paths;
+        
+        /** Requêtes de la classe traitées simultanément au maximum */
+        private int maxConcurrent;
+        
+        /** Requêtes en attente d'un créneau au maximum ; au-delà, refus immédiat */
+        private int maxQueued;
+        
+        /** Attente maximale d'un créneau */
+        private Duration queueTimeout;
+        
+        /** Connexions de la partition du pool réservée à la classe */
+        private int poolSize;
+        
+        /** Attente maximale d'une connexion de la partition */
+        private Duration connectionTimeout;
+        
+        public ClassSettings() {
+        }
+        
+        ClassSettings(List<String> paths, int maxConcurrent, int maxQueued, Duration queueTimeout,
+                      int poolSize, Duration connectionTimeout) {
+            this.paths = paths;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.queueTimeout = queueTimeout;
+            this.poolSize = poolSize;
+            this.connectionTimeout = connectionTimeout;
+        }
+    }
+}
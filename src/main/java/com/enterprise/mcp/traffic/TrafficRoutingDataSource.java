@@ -0,0 +1,38 @@
+package com.enterprise.mcp.traffic;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool de connexions partitionné par classe de trafic
+ *
+ * Chaque classe puise dans son propre pool Hikari, choisi au moment où la
+ * connexion est demandée ({@link TrafficContext#current()}) : un export qui
+ * occupe toutes les connexions BULK n'en prend aucune au chat.
+ */
+public class TrafficRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<TrafficClass, HikariDataSource> partitions;
+
+    public TrafficRoutingDataSource(Map<TrafficClass, HikariDataSource> partitions) {
+        this.partitions = partitions;
+        setTargetDataSources(new HashMap<>(partitions));
+        setDefaultTargetDataSource(partitions.get(TrafficClass.CRUD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TrafficContext.current();
+    }
+
+    @Override
+    public void close() {
+        partitions.values().forEach(HikariDataSource::close);
+    }
+}
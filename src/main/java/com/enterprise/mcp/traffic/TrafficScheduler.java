@@ -0,0 +1,203 @@
+package com.enterprise.mcp.traffic;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission des requêtes par classe de trafic, avec priorités et délestage
+ *
+ * Une requête occupe un créneau de sa classe (traffic.<classe>.max-concurrent)
+ * et un créneau global (traffic.max-concurrent). Sans créneau libre, elle
+ * attend dans la file de sa classe, au plus queue-timeout ; une place libérée
+ * revient d'abord à la file INTERACTIVE, puis CRUD, puis BULK.
+ *
+ * Le trafic BULK est délesté d'emblée dès que l'occupation globale dépasse
+ * traffic.bulk-shed-threshold ou que des requêtes interactives attendent :
+ * un export de nuit ne retarde jamais le chat.
+ *
+ * Métriques : traffic.active{class}, traffic.queued{class} et
+ * traffic.rejected{class, reason}.
+ */
+@Component
+@Slf4j
+public class TrafficScheduler {
+
+    /**
+     * Créneau accordé, à rendre une seule fois
+     */
+    public final class Permit {
+        private final TrafficClass trafficClass;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(TrafficClass trafficClass) {
+            this.trafficClass = trafficClass;
+        }
+
+        public TrafficClass getTrafficClass() {
+            return trafficClass;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                TrafficScheduler.this.release(trafficClass);
+            }
+        }
+    }
+
+    /**
+     * Requête en attente d'un créneau
+     */
+    private static final class Waiter {
+        private final Condition granted;
+        private boolean admitted;
+
+        private Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    /**
+     * Créneaux occupés et file d'attente d'une classe
+     */
+    private static final class Lane {
+        private int active;
+        private final Deque<Waiter> queue = new ArrayDeque<>();
+    }
+
+    private final TrafficProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<TrafficClass, Lane> lanes = new EnumMap<>(TrafficClass.class);
+    private int globalActive;
+
+    public TrafficScheduler(TrafficProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            Lane lane = new Lane();
+            lanes.put(trafficClass, lane);
+            String tag = trafficClass.name().toLowerCase();
+            Gauge.builder("traffic.active", lane, l -> l.active)
+                .description("Requêtes en cours par classe de trafic")
+                .tag("class", tag)
+                .register(meterRegistry);
+            Gauge.builder("traffic.queued", lane, l -> l.queue.size())
+                .description("Requêtes en attente d'un créneau par classe de trafic")
+                .tag("class", tag)
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Attend un créneau pour une requête de la classe donnée
+     *
+     * @throws TrafficShedException si la requête est délestée, ou si aucun créneau ne se libère à temps
+     */
+    public Permit acquire(TrafficClass trafficClass) {
+        TrafficProperties.ClassSettings settings = properties.settingsFor(trafficClass);
+        Lane lane = lanes.get(trafficClass);
+
+        lock.lock();
+        try {
+            if (trafficClass == TrafficClass.BULK && underPressure()) {
+                throw reject(trafficClass, TrafficShedException.Reason.SHED,
+                    "Service très sollicité : les traitements de masse sont suspendus, réessayer plus tard.", Duration.ofSeconds(30));
+            }
+            if (lane.queue.isEmpty() && canRun(trafficClass)) {
+                admit(trafficClass);
+                return new Permit(trafficClass);
+            }
+            if (lane.queue.size() >= settings.getMaxQueued()) {
+                throw reject(trafficClass, TrafficShedException.Reason.QUEUE_FULL,
+                    "Service très sollicité, veuillez réessayer dans quelques instants.", settings.getQueueTimeout());
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            lane.queue.addLast(waiter);
+            long remaining = settings.getQueueTimeout().toNanos();
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        lane.queue.remove(waiter);
+                        throw reject(trafficClass, TrafficShedException.Reason.QUEUE_TIMEOUT,
+                            "Service très sollicité, veuillez réessayer dans quelques instants.", settings.getQueueTimeout());
+                    }
+                    remaining = waiter.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.admitted) {
+                    // Créneau accordé pendant l'interruption : il est rendu aussitôt
+                    releaseLocked(trafficClass);
+                } else {
+                    lane.queue.remove(waiter);
+                }
+                throw reject(trafficClass, TrafficShedException.Reason.QUEUE_TIMEOUT, "Attente interrompue.", Duration.ZERO);
+            }
+            return new Permit(trafficClass);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(TrafficClass trafficClass) {
+        lock.lock();
+        try {
+            releaseLocked(trafficClass);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(TrafficClass trafficClass) {
+        lanes.get(trafficClass).active--;
+        globalActive--;
+
+        // Les places libérées vont aux files par ordre de priorité
+        for (TrafficClass candidate : TrafficClass.values()) {
+            Lane lane = lanes.get(candidate);
+            while (!lane.queue.isEmpty() && canRun(candidate)) {
+                Waiter waiter = lane.queue.pollFirst();
+                admit(candidate);
+                waiter.admitted = true;
+                waiter.granted.signal();
+            }
+        }
+    }
+
+    private boolean canRun(TrafficClass trafficClass) {
+        return globalActive < properties.getMaxConcurrent()
+            && lanes.get(trafficClass).active < properties.settingsFor(trafficClass).getMaxConcurrent();
+    }
+
+    private void admit(TrafficClass trafficClass) {
+        lanes.get(trafficClass).active++;
+        globalActive++;
+    }
+
+    private boolean underPressure() {
+        return !lanes.get(TrafficClass.INTERACTIVE).queue.isEmpty()
+            || globalActive >= properties.getMaxConcurrent() * properties.getBulkShedThreshold();
+    }
+
+    private TrafficShedException reject(TrafficClass trafficClass, TrafficShedException.Reason reason,
+                                        String message, Duration retryAfter) {
+        meterRegistry.counter("traffic.rejected",
+            "class", trafficClass.name().toLowerCase(), "reason", reason.name().toLowerCase()).increment();
+        log.warn("Requête {} refusée ({}) - en cours: {}, global: {}/{}",
+            trafficClass, reason, lanes.get(trafficClass).active, globalActive, properties.getMaxConcurrent());
+        return new TrafficShedException(trafficClass, reason, message, retryAfter);
+    }
+}
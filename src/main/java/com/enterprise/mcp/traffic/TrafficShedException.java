@@ -0,0 +1,41 @@
+package com.enterprise.mcp.traffic;
+
+import java.time.Duration;
+
+/**
+ * Exception levée lorsqu'une requête est refusée pour préserver le trafic prioritaire
+ */
+public class TrafficShedException extends RuntimeException {
+    
+    public enum Reason {
+        /** File d'attente de la classe pleine */
+        QUEUE_FULL,
+        /** Aucun créneau libéré dans le délai d'attente */
+        QUEUE_TIMEOUT,
+        /** Trafic de masse refusé tant que le trafic prioritaire est sous tension */
+        SHED
+    }
+    
+    private final TrafficClass trafficClass;
+    private final Reason reason;
+    private final Duration retryAfter;
+    
+    public TrafficShedException(TrafficClass trafficClass, Reason reason, String message, Duration retryAfter) {
+        super(message);
+        this.trafficClass = trafficClass;
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+    
+    public TrafficClass getTrafficClass() {
+        return trafficClass;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
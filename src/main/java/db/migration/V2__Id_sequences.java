@@ -0,0 +1,41 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Séquences d'identifiants des entités (allocation par blocs de 50, optimiseur pooled-lo)
+ * 
+ * Migration Java : chaque séquence démarre après le plus grand identifiant
+ * déjà présent dans sa table, valeur que le SQL de H2 ne sait pas calculer
+ * dans un CREATE SEQUENCE. Les colonnes d'identité de V1 sont conservées :
+ * Hibernate fournit désormais l'identifiant à l'insertion.
+ */
+public class V2__Id_sequences extends BaseJavaMigration {
+    
+    /** Doit correspondre à allocationSize des @SequenceGenerator */
+    private static final int ALLOCATION_SIZE = 50;
+    
+    private static final List<String> TABLES = List.of(
+        "customers", "products", "orders", "order_lines", "invoices", "invoice_lines");
+    
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long start;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    start = rs.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + start
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
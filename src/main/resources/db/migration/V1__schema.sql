@@ -0,0 +1,118 @@
+-- Schéma initial de la gestion commerciale (profil prod)
+-- Les types reprennent ceux générés par Hibernate pour les entités ;
+-- les index suivent les recherches des repositories et des capacités MCP.
+
+CREATE TABLE customers (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_code   VARCHAR(255) NOT NULL,
+    company_name    VARCHAR(255) NOT NULL,
+    contact_name    VARCHAR(255),
+    email           VARCHAR(255),
+    phone           VARCHAR(255),
+    address         VARCHAR(255),
+    city            VARCHAR(255),
+    country         VARCHAR(255),
+    status          VARCHAR(32)  NOT NULL,
+    segment         VARCHAR(32),
+    credit_limit    FLOAT(53),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_customers_code UNIQUE (customer_code)
+);
+
+CREATE TABLE products (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_code    VARCHAR(255) NOT NULL,
+    name            VARCHAR(255) NOT NULL,
+    description     VARCHAR(255),
+    category        VARCHAR(32)  NOT NULL,
+    unit_price      NUMERIC(38, 2) NOT NULL,
+    stock_quantity  INTEGER,
+    status          VARCHAR(32)  NOT NULL,
+    unit            VARCHAR(255),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_products_code UNIQUE (product_code)
+);
+
+CREATE TABLE orders (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_number            VARCHAR(255) NOT NULL,
+    customer_id             BIGINT       NOT NULL,
+    status                  VARCHAR(32)  NOT NULL,
+    total_amount            NUMERIC(38, 2),
+    tax_amount              NUMERIC(38, 2),
+    discount_amount         NUMERIC(38, 2),
+    shipping_address        VARCHAR(255),
+    billing_address         VARCHAR(255),
+    notes                   VARCHAR(255),
+    order_date              TIMESTAMP(6),
+    expected_delivery_date  TIMESTAMP(6),
+    actual_delivery_date    TIMESTAMP(6),
+    created_by              VARCHAR(255),
+    created_at              TIMESTAMP(6),
+    updated_at              TIMESTAMP(6),
+    CONSTRAINT uk_orders_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE INDEX idx_orders_customer ON orders (customer_id);
+CREATE INDEX idx_orders_status ON orders (status);
+CREATE INDEX idx_orders_order_date ON orders (order_date);
+
+CREATE TABLE order_lines (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id          BIGINT       NOT NULL,
+    product_code      VARCHAR(255) NOT NULL,
+    product_name      VARCHAR(255) NOT NULL,
+    quantity          INTEGER      NOT NULL,
+    unit_price        NUMERIC(38, 2) NOT NULL,
+    discount_percent  NUMERIC(38, 2),
+    line_total        NUMERIC(38, 2),
+    notes             VARCHAR(255),
+    CONSTRAINT fk_order_lines_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE INDEX idx_order_lines_order ON order_lines (order_id);
+
+CREATE TABLE invoices (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    invoice_number    VARCHAR(255) NOT NULL,
+    order_id          BIGINT,
+    customer_id       BIGINT       NOT NULL,
+    status            VARCHAR(32)  NOT NULL,
+    subtotal_amount   NUMERIC(38, 2),
+    tax_amount        NUMERIC(38, 2),
+    total_amount      NUMERIC(38, 2),
+    paid_amount       NUMERIC(38, 2),
+    remaining_amount  NUMERIC(38, 2),
+    issue_date        DATE,
+    due_date          DATE,
+    paid_date         DATE,
+    billing_address   VARCHAR(255),
+    payment_terms     VARCHAR(255),
+    notes             VARCHAR(255),
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    CONSTRAINT uk_invoices_number UNIQUE (invoice_number),
+    CONSTRAINT fk_invoices_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_invoices_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE INDEX idx_invoices_customer ON invoices (customer_id);
+CREATE INDEX idx_invoices_order ON invoices (order_id);
+-- Factures impayées et échues : filtre sur le statut puis plage de dates
+CREATE INDEX idx_invoices_status_due_date ON invoices (status, due_date);
+
+CREATE TABLE invoice_lines (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    invoice_id        BIGINT       NOT NULL,
+    description       VARCHAR(255) NOT NULL,
+    quantity          INTEGER      NOT NULL,
+    unit_price        NUMERIC(38, 2) NOT NULL,
+    discount_percent  NUMERIC(38, 2),
+    line_total        NUMERIC(38, 2),
+    CONSTRAINT fk_invoice_lines_invoice FOREIGN KEY (invoice_id) REFERENCES invoices (id)
+);
+
+CREATE INDEX idx_invoice_lines_invoice ON invoice_lines (invoice_id);
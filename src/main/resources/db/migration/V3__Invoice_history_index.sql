@@ -0,0 +1,2 @@
+-- Historique des factures d'un client parcouru par pagination keyset (date d'émission, id)
+CREATE INDEX idx_invoices_customer_issue_date ON invoices (customer_id, issue_date);